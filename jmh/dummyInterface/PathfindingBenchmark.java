@@ -0,0 +1,120 @@
+package dummyInterface;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+// JMH benchmarks for the searches in Pathfinding. One operation is one search between a
+// pair of reachable cells; every (kind, size, seed) gives the same map and query pairs
+// (MapGenerator), so runs from different commits line up. Build and run with:
+//   mvn -Pjmh package
+//   java -jar target/benchmarks.jar -prof gc
+// -prof gc adds gc.alloc.rate.norm, the bytes allocated per search. Narrow a run with
+// a name pattern and parameters, and keep the results with -rf csv -rff <file>, e.g.
+//   java -jar target/benchmarks.jar "PathfindingBenchmark.(astar|jps)" -p kind=MAZE -p size=512 -prof gc
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(2)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PathfindingBenchmark {
+    @Param({"OPEN", "RANDOM", "MAZE", "CAVE", "IMAGE"})
+    public MapGenerator.Kind kind;
+
+    @Param({"32", "128", "512", "2048"})
+    public int size;
+
+    @Param({"42"})
+    public long seed;
+
+    private GridGraph graph;
+    private GridGraph.Node[][] queries;
+
+    @Setup(Level.Trial)
+    public void buildMap() {
+        graph = MapGenerator.generate(kind, size, seed);
+        queries = MapGenerator.queryPairs(graph, seed);
+        if (queries == null) {
+            throw new IllegalStateException("No open cells on " + kind + " " + size + "x" + size);
+        }
+    }
+
+    // Each benchmark thread walks the query pairs round-robin
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+
+        GridGraph.Node[] next(PathfindingBenchmark map) {
+            GridGraph.Node[] query = map.queries[next];
+            next = (next + 1) % map.queries.length;
+            return query;
+        }
+    }
+
+    @Benchmark
+    public void bfs(Cursor cursor, Blackhole blackhole) {
+        GridGraph.Node[] query = cursor.next(this);
+        blackhole.consume(Pathfinding.bfs(graph, query[0], query[1]));
+    }
+
+    @Benchmark
+    public void dijkstra(Cursor cursor, Blackhole blackhole) {
+        GridGraph.Node[] query = cursor.next(this);
+        blackhole.consume(Pathfinding.dijkstra(graph, query[0], query[1]));
+    }
+
+    @Benchmark
+    public void astar(Cursor cursor, Blackhole blackhole) {
+        GridGraph.Node[] query = cursor.next(this);
+        blackhole.consume(Pathfinding.astar(graph, query[0], query[1]));
+    }
+
+    @Benchmark
+    public void jps(Cursor cursor, Blackhole blackhole) {
+        GridGraph.Node[] query = cursor.next(this);
+        blackhole.consume(Pathfinding.jps(graph, query[0], query[1]));
+    }
+
+    @Benchmark
+    public void jpsPlus(Cursor cursor, Blackhole blackhole) {
+        GridGraph.Node[] query = cursor.next(this);
+        blackhole.consume(Pathfinding.jpsPlus(graph, query[0], query[1]));
+    }
+
+    @Benchmark
+    public void bidirectionalBfs(Cursor cursor, Blackhole blackhole) {
+        GridGraph.Node[] query = cursor.next(this);
+        blackhole.consume(Pathfinding.bidirectionalBfs(graph, query[0], query[1]));
+    }
+
+    @Benchmark
+    public void bidirectionalDijkstra(Cursor cursor, Blackhole blackhole) {
+        GridGraph.Node[] query = cursor.next(this);
+        blackhole.consume(Pathfinding.bidirectionalDijkstra(graph, query[0], query[1]));
+    }
+
+    @Benchmark
+    public void bidirectionalAstar(Cursor cursor, Blackhole blackhole) {
+        GridGraph.Node[] query = cursor.next(this);
+        blackhole.consume(Pathfinding.bidirectionalAstar(graph, query[0], query[1]));
+    }
+
+    @Benchmark
+    public void cautious(Cursor cursor, Blackhole blackhole) {
+        GridGraph.Node[] query = cursor.next(this);
+        blackhole.consume(Pathfinding.BehaviorMethods.cautiousPath(graph, query[0], query[1]));
+    }
+}
@@ -7,4 +7,9 @@ public class AggressiveBehavior implements EnemyBehavior {
     public List<GridGraph.Node> calculatePath(GridGraph graph, GridGraph.Node start, GridGraph.Node target) {
         return Pathfinding.astar(graph, start, target);
     }
+
+    @Override
+    public boolean followsFlowField() {
+        return true;
+    }
 }
\ No newline at end of file
@@ -9,9 +9,15 @@ public class BFSEnemy extends Enemy {
     public void updatePath(GridGraph graph, GridGraph.Node target) {
         GridGraph.Node start = graph.getNode(y, x);
         if (start != null && target != null) {
-            this.currentPath = Pathfinding.bfs(graph, start, target);
+            searchPath(bidirectional ? Pathfinding.Algorithm.BIDIRECTIONAL_BFS : Pathfinding.Algorithm.BFS,
+                graph, start, target);
         } else {
             this.currentPath.clear();
         }
     }
+
+    @Override
+    public boolean followsFlowField() {
+        return true;
+    }
 }
\ No newline at end of file
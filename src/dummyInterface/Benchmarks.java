@@ -0,0 +1,1151 @@
+package dummyInterface;
+
+import javafx.application.Platform;
+
+import javax.imageio.ImageIO;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+// Timing harness for the game loop. Run with:
+//   java dummyInterface.Benchmarks <scenario>
+// Scenarios: flowfield, replay, parallel, render, mazeio, mazeformat, tiled, hpa, jps,
+//   bidirectional, landmarks, pathcache, imageconvert, gridmemory, bfsalloc, components
+// "tiled" is meant to run in a small heap, e.g. -Xmx512m; "gridmemory" in a big one, e.g. -Xmx4g
+// "render" needs a JavaFX toolkit; without a display it runs under Monocle with
+//   -Dglass.platform=Monocle -Dmonocle.platform=Headless -Dprism.order=sw
+public class Benchmarks {
+    public static void main(String[] args) {
+        String scenario = args.length > 0 ? args[0] : "flowfield";
+        switch (scenario) {
+            case "flowfield":
+                flowFieldTicks();
+                break;
+            case "replay":
+                replayIncremental();
+                break;
+            case "parallel":
+                parallelTicks();
+                break;
+            case "render":
+                renderFrames();
+                break;
+            case "mazeio":
+                mazeFiles();
+                break;
+            case "mazeformat":
+                mazeFormats();
+                break;
+            case "tiled":
+                tiledSearch();
+                break;
+            case "hpa":
+                hierarchicalSearch();
+                break;
+            case "jps":
+                jumpPointSearch();
+                break;
+            case "bidirectional":
+                bidirectionalSearch();
+                break;
+            case "landmarks":
+                landmarkTables();
+                break;
+            case "pathcache":
+                pathCacheTicks();
+                break;
+            case "imageconvert":
+                imageConversion();
+                break;
+            case "gridmemory":
+                gridMemory();
+                break;
+            case "bfsalloc":
+                bfsAllocation();
+                break;
+            case "components":
+                componentToggles();
+                break;
+            default:
+                System.out.println("Unknown scenario: " + scenario);
+        }
+    }
+
+    // Tick time with every enemy searching on its own vs. one shared flow field
+    private static void flowFieldTicks() {
+        int size = 256;
+        int ticks = 30;
+        System.out.println("Tick time on a " + size + "x" + size + " map, 20% random walls");
+        System.out.printf("%8s %16s %16s%n", "enemies", "own search", "flow field");
+        for (int count : new int[]{1, 10, 100, 1000}) {
+            double own = averageTickMillis(size, count, false, ticks);
+            double shared = averageTickMillis(size, count, true, ticks);
+            System.out.printf("%8d %13.2f ms %13.2f ms%n", count, own, shared);
+        }
+    }
+
+    private static double averageTickMillis(int size, int enemyCount, boolean flowField, int ticks) {
+        GameLogic game = createChase(size, enemyCount, 42);
+        game.setPathCache(null); // every enemy really searches
+        game.setFlowFieldEnabled(flowField);
+        // Warm up, then time; enemies start far enough away that nobody is caught
+        for (int i = 0; i < 5; i++) {
+            game.moveEnemies();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ticks; i++) {
+            game.moveEnemies();
+        }
+        return (System.nanoTime() - start) / 1e6 / ticks;
+    }
+
+    // Tick time as enemy planning is spread over more threads; positions must match the serial run
+    private static void parallelTicks() {
+        int size = 256;
+        int enemyCount = 200;
+        int ticks = 20;
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.println(enemyCount + " enemies on a " + size + "x" + size + " map, " + cores + " core(s) available");
+        System.out.printf("%8s %12s %10s%n", "threads", "tick", "matches");
+
+        String serialPositions = null;
+        for (int threads = 1; threads <= Math.max(8, cores); threads *= 2) {
+            GameLogic game = createChase(size, enemyCount, 42);
+            game.setPathCache(null);
+            game.setPlanningThreads(threads);
+            game.moveEnemies(); // warm-up tick
+            long start = System.nanoTime();
+            for (int i = 0; i < ticks; i++) {
+                game.moveEnemies();
+            }
+            double millis = (System.nanoTime() - start) / 1e6 / ticks;
+            game.setPlanningThreads(1);
+
+            StringBuilder positions = new StringBuilder();
+            for (Enemy enemy : game.getEnemies()) {
+                positions.append(enemy.getX()).append(',').append(enemy.getY()).append(' ');
+            }
+            if (serialPositions == null) serialPositions = positions.toString();
+            System.out.printf("%8d %9.2f ms %10s%n", threads, millis, serialPositions.equals(positions.toString()));
+        }
+    }
+
+    // Frame time of the grid renderer repainting everything each frame vs. only dirty cells
+    private static void renderFrames() {
+        CountDownLatch done = new CountDownLatch(1);
+        Platform.startup(() -> {
+            try {
+                System.out.println("Render time per frame, 600x600 viewport, paths shown, a wall toggled every 3rd tick");
+                System.out.printf("%10s %10s %14s %14s %12s%n", "grid", "cell px", "full repaint", "dirty cells", "cells/frame");
+                for (int size : new int[]{50, 500}) {
+                    double[] full = averageFrameMillis(size, false);
+                    double[] dirty = averageFrameMillis(size, true);
+                    System.out.printf("%10s %10d %11.2f ms %11.2f ms %12.0f%n",
+                        size + "x" + size, (int) full[2], full[0], dirty[0], dirty[1]);
+                }
+            } finally {
+                done.countDown();
+            }
+        });
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Platform.exit();
+    }
+
+    // {ms per frame, repainted cells per frame, cell size}; each frame is also snapshotted
+    // so the time includes JavaFX rasterising the canvas commands, not just issuing them
+    private static double[] averageFrameMillis(int size, boolean incremental) {
+        GridGraph graph = MapGenerator.randomObstacles(size, 0.2, 11);
+        clearSpawnAreas(graph);
+        GameLogic game = new GameLogic(size, size);
+        game.setGraph(graph);
+        GridRenderer renderer = new GridRenderer(600, 600, 40);
+        renderer.fitToView(size, size);
+        renderer.setShowPaths(true);
+
+        Random random = new Random(3);
+        int[] neighbors = new int[8];
+        int frames = 60;
+        long total = 0;
+        long cells = 0;
+        for (int i = -5; i < frames; i++) {
+            game.moveEnemies();
+            if (game.isGameOver()) game.resetGame();
+            GridGraph current = game.getGraph();
+            int count = current.getNeighbors(current.indexOf(game.getPlayerY(), game.getPlayerX()), neighbors);
+            if (count > 0) {
+                int next = neighbors[random.nextInt(count)];
+                game.movePlayer(current.rowOf(next), current.colOf(next));
+            }
+            if (i % 3 == 0) {
+                int cell = random.nextInt(current.size());
+                if (!current.isWall(cell)) game.toggleWall(current.rowOf(cell), current.colOf(cell));
+            }
+            FrameSnapshot frame = FrameSnapshot.capture(game, i, true, false);
+
+            long start = System.nanoTime();
+            if (!incremental) renderer.invalidate();
+            renderer.render(frame);
+            renderer.getView().snapshot(null, null);
+            if (i >= 0) {
+                total += System.nanoTime() - start;
+                cells += renderer.getLastDirtyCells();
+            }
+        }
+        return new double[]{total / 1e6 / frames, (double) cells / frames, renderer.getCellSize()};
+    }
+
+    // Construction time and retained heap of GridGraph against the old object-per-cell
+    // layout (HashGridGraph below). The old layout is skipped at sizes where, going by the
+    // bytes per cell it took at the previous size, it wouldn't fit in the heap.
+    private static void gridMemory() {
+        long maxHeap = Runtime.getRuntime().maxMemory();
+        System.out.println("Empty maps, max heap " + (maxHeap >> 20) + " MB");
+        System.out.printf("%-10s %12s %12s %12s %12s%n", "size", "old build", "old heap", "new build", "new heap");
+        double oldBytesPerCell = 0;
+        for (int size : new int[]{100, 1000, 4000}) {
+            long cells = (long) size * size;
+            String oldBuild, oldHeap;
+            if (oldBytesPerCell * cells > maxHeap * 0.8) {
+                oldBuild = "skipped";
+                oldHeap = String.format("~%.0f MB", oldBytesPerCell * cells / 1e6);
+            } else {
+                long[] old = buildCost(() -> new HashGridGraph(size, size));
+                oldBytesPerCell = (double) old[1] / cells;
+                oldBuild = String.format("%.0f ms", old[0] / 1e6);
+                oldHeap = String.format("%.1f MB", old[1] / 1e6);
+            }
+            long[] cost = buildCost(() -> new GridGraph(size, size));
+            System.out.printf("%-10s %12s %12s %9.1f ms %9.0f KB%n", size + "x" + size,
+                oldBuild, oldHeap, cost[0] / 1e6, cost[1] / 1e3);
+        }
+    }
+
+    // {nanoseconds, bytes still reachable} for building one object
+    private static long[] buildCost(Supplier<Object> build) {
+        long before = usedHeap();
+        for (long again; (again = usedHeap()) < before; ) {
+            before = again; // the previous size's garbage can take more than one collection
+        }
+        long start = System.nanoTime();
+        Object built = build.get();
+        long nanos = System.nanoTime() - start;
+        long bytes = usedHeap() - before;
+        Reference.reachabilityFence(built);
+        return new long[]{nanos, bytes};
+    }
+
+    // GridGraph as it was before walls moved into a bitset: a Node per cell, a HashSet of
+    // its eight neighbours per cell in a HashMap, and walls in a HashSet. Only built, to
+    // be measured by gridMemory.
+    private static class HashGridGraph {
+        private final Map<OldNode, Set<OldNode>> adjacencyList = new HashMap<>();
+        private final Set<OldNode> walls = new HashSet<>();
+        private final OldNode[][] nodes;
+
+        HashGridGraph(int rows, int cols) {
+            nodes = new OldNode[rows][cols];
+            for (int row = 0; row < rows; row++) {
+                for (int col = 0; col < cols; col++) {
+                    nodes[row][col] = new OldNode(row, col);
+                    adjacencyList.put(nodes[row][col], new HashSet<>());
+                }
+            }
+            int[][] directions = {{-1, -1}, {-1, 0}, {-1, 1}, {0, -1}, {0, 1}, {1, -1}, {1, 0}, {1, 1}};
+            for (int row = 0; row < rows; row++) {
+                for (int col = 0; col < cols; col++) {
+                    for (int[] dir : directions) {
+                        int newRow = row + dir[0];
+                        int newCol = col + dir[1];
+                        if (newRow >= 0 && newRow < rows && newCol >= 0 && newCol < cols) {
+                            adjacencyList.get(nodes[row][col]).add(nodes[newRow][newCol]);
+                            adjacencyList.get(nodes[newRow][newCol]).add(nodes[row][col]);
+                        }
+                    }
+                }
+            }
+        }
+
+        int size() {
+            return adjacencyList.size();
+        }
+    }
+
+    private static class OldNode {
+        final int row, col;
+        int distance = Integer.MAX_VALUE;
+
+        OldNode(int row, int col) {
+            this.row = row;
+            this.col = col;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof OldNode)) return false;
+            OldNode node = (OldNode) o;
+            return row == node.row && col == node.col;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(row, col);
+        }
+    }
+
+    // Bytes allocated by a full BFS, corner to corner on open maps. What a search hands
+    // back is one int[] of explored cells and a path with a Node per step; its working
+    // arrays come from the per-thread scratch, so whatever else it allocates must not grow
+    // with the map. Fails if that comes to more than a byte per cell.
+    private static void bfsAllocation() {
+        if (allocatedBytes() == 0) {
+            System.out.println("This JVM doesn't count allocated bytes per thread");
+            return;
+        }
+        int searches = 20;
+        System.out.println("Full BFS corner to corner on open maps, average of " + searches + " searches");
+        System.out.printf("%-10s %10s %14s %14s %8s %12s %10s%n", "size", "explored", "bytes/search",
+            "explored array", "path", "other bytes", "per cell");
+        for (int size : new int[]{250, 500, 1000}) {
+            GridGraph graph = new GridGraph(size, size);
+            GridGraph.Node start = graph.getNode(0, 0);
+            GridGraph.Node goal = graph.getNode(size - 1, size - 1);
+            Pathfinding.PathResult result = null;
+            // Warm-up sizes the scratch arrays, builds the component index and compiles the loop
+            for (int i = 0; i < 5; i++) {
+                result = Pathfinding.bfsWithTracking(graph, start, goal);
+            }
+            long before = allocatedBytes();
+            for (int i = 0; i < searches; i++) {
+                result = Pathfinding.bfsWithTracking(graph, start, goal);
+            }
+            long perSearch = (allocatedBytes() - before) / searches;
+            long exploredBytes = 16 + 4L * result.explored.size();
+            long other = perSearch - exploredBytes;
+            System.out.printf("%-10s %10d %14d %14d %8d %12d %10.3f%n", size + "x" + size,
+                result.explored.size(), perSearch, exploredBytes, result.path.size(), other,
+                (double) other / graph.size());
+            if (other > graph.size()) {
+                throw new IllegalStateException("BFS allocates per cell on " + size + "x" + size
+                    + ": " + other + " bytes besides its explored cells");
+            }
+        }
+    }
+
+    // Wall toggles with the component index kept up to date, on their own and each one
+    // right after a snapshot (as the game loop does when it hands a frozen map to the
+    // planners), plus the first reachability query on each snapshot
+    private static void componentToggles() {
+        int size = 1024;
+        int toggles = 2000;
+        GridGraph graph = MapGenerator.randomObstacles(size, 0.3, 7);
+        Random random = new Random(7);
+        int[] cells = new int[toggles];
+        for (int i = 0; i < toggles; i++) {
+            cells[i] = random.nextInt(graph.size());
+        }
+        long start = System.nanoTime();
+        graph.componentSize(0);
+        long buildTime = System.nanoTime() - start;
+
+        // Warm-up; every pass flips each cell and the next flips it back
+        for (int pass = 0; pass < 4; pass++) {
+            toggleAll(graph, cells, false);
+            toggleAll(graph, cells, true);
+        }
+        long plain = 0, afterSnapshot = 0, snapshotTime = 0, queryTime = 0;
+        for (int pass = 0; pass < 2; pass++) {
+            plain += toggleAll(graph, cells, false);
+            for (int cell : cells) {
+                long t0 = System.nanoTime();
+                GridGraph snapshot = graph.snapshot();
+                long t1 = System.nanoTime();
+                snapshot.sameComponent(0, graph.size() - 1);
+                long t2 = System.nanoTime();
+                graph.setWall(cell, !graph.isWall(cell));
+                long t3 = System.nanoTime();
+                snapshotTime += t1 - t0;
+                queryTime += t2 - t1;
+                afterSnapshot += t3 - t2;
+            }
+        }
+        int timed = 2 * toggles;
+        System.out.println(size + "x" + size + " map, 30% walls, " + timed + " toggles per case");
+        System.out.printf("index build                %10.2f ms%n", buildTime / 1e6);
+        System.out.printf("toggle                     %10.2f us%n", plain / 1e3 / timed);
+        System.out.printf("toggle right after snapshot%10.2f us%n", afterSnapshot / 1e3 / timed);
+        System.out.printf("snapshot                   %10.2f us%n", snapshotTime / 1e3 / timed);
+        System.out.printf("first query on a snapshot  %10.2f us%n", queryTime / 1e3 / timed);
+
+        GridGraph.Node corner = graph.nodeAt(0);
+        GridGraph.Node far = graph.nodeAt(graph.size() - 1);
+        start = System.nanoTime();
+        Pathfinding.bfsWithTracking(graph, corner, far);
+        long bfsTime = System.nanoTime() - start;
+        System.out.printf("BFS corner to corner       %10.2f ms (reachable: %b)%n", bfsTime / 1e6,
+            graph.sameComponent(0, graph.size() - 1));
+    }
+
+    // Flips every listed cell, returning the nanoseconds spent in setWall
+    private static long toggleAll(GridGraph graph, int[] cells, boolean reverse) {
+        long start = System.nanoTime();
+        for (int i = 0; i < cells.length; i++) {
+            int cell = cells[reverse ? cells.length - 1 - i : i];
+            graph.setWall(cell, !graph.isWall(cell));
+        }
+        return System.nanoTime() - start;
+    }
+
+    // Bytes this thread has allocated so far, 0 if the JVM doesn't count them
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
+    // Round trip of a 10000x10000 text maze through MazeIO
+    private static void mazeFiles() {
+        int size = 10000;
+        GridGraph graph = MapGenerator.randomObstacles(size, 0.3, 5);
+        try {
+            File file = File.createTempFile("maze", ".txt");
+            file.deleteOnExit();
+            long start = System.nanoTime();
+            MazeIO.writeMaze(graph, file.getPath());
+            long saveNanos = System.nanoTime() - start;
+
+            long heapBefore = usedHeap();
+            start = System.nanoTime();
+            GridGraph loaded = MazeIO.loadMaze(file.getPath());
+            long loadNanos = System.nanoTime() - start;
+            long heapAfter = usedHeap();
+
+            boolean same = loaded.getRows() == size && loaded.getCols() == size;
+            for (int cell = 0; same && cell < graph.size(); cell++) {
+                same = graph.isWall(cell) == loaded.isWall(cell);
+            }
+            System.out.printf("%dx%d maze, %.1f MB file%n", size, size, file.length() / 1e6);
+            System.out.printf("save %8.0f ms%n", saveNanos / 1e6);
+            System.out.printf("load %8.0f ms (heap grew %.1f MB), walls match: %s%n",
+                loadNanos / 1e6, (heapAfter - heapBefore) / 1e6, same);
+            file.delete();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // File size and load time of the text format vs. the binary encodings
+    private static void mazeFormats() {
+        int size = 4096;
+        System.out.println(size + "x" + size + " maps, load time is the best of 5");
+        System.out.printf("%-7s %-12s %12s %10s%n", "map", "format", "size", "load");
+        try {
+            File file = File.createTempFile("maze", ".bin");
+            file.deleteOnExit();
+            for (MapGenerator.Kind kind : new MapGenerator.Kind[]{
+                    MapGenerator.Kind.MAZE, MapGenerator.Kind.CAVE, MapGenerator.Kind.IMAGE}) {
+                GridGraph graph = MapGenerator.generate(kind, size, 9);
+                MazeIO.Level level = new MazeIO.Level(graph);
+                String[] formats = {"text", "binary/bits", "binary/rle"};
+                for (String format : formats) {
+                    switch (format) {
+                        case "text": MazeIO.writeMaze(graph, file.getPath()); break;
+                        case "binary/bits": MazeIO.saveLevel(level, file.getPath(), MazeIO.Encoding.BITS); break;
+                        default: MazeIO.saveLevel(level, file.getPath(), MazeIO.Encoding.RLE); break;
+                    }
+                    long best = Long.MAX_VALUE;
+                    GridGraph loaded = null;
+                    for (int i = 0; i < 5; i++) {
+                        long start = System.nanoTime();
+                        loaded = MazeIO.loadMaze(file.getPath());
+                        best = Math.min(best, System.nanoTime() - start);
+                    }
+                    for (int cell = 0; cell < graph.size(); cell++) {
+                        if (graph.isWall(cell) != loaded.isWall(cell)) {
+                            throw new IllegalStateException(format + " round trip changed cell " + cell);
+                        }
+                    }
+                    System.out.printf("%-7s %-12s %9.2f MB %7.1f ms%n", kind.name().toLowerCase(),
+                        format, file.length() / 1e6, best / 1e6);
+                }
+            }
+            file.delete();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // ImageConverter throughput in source megapixels per second as the pool grows, for a
+    // packed int, an interleaved byte and a getRGB-only (indexed colour) source. Every
+    // pool size must produce the same bitmap as one thread.
+    private static void imageConversion() {
+        int source = 4096;
+        int gridSize = 512;
+        int cores = Runtime.getRuntime().availableProcessors();
+        BufferedImage picture = MapGenerator.syntheticImage(source, 3);
+        System.out.println(source + "x" + source + " image to a " + gridSize + "x" + gridSize
+            + " grid, best of 5, " + cores + " core(s) available");
+        System.out.printf("%-12s %-9s %8s %10s %12s %8s%n", "layout", "threshold", "threads", "time", "MP/s", "matches");
+        int[] types = {BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_3BYTE_BGR, BufferedImage.TYPE_BYTE_INDEXED};
+        String[] names = {"int rgb", "3byte bgr", "indexed"};
+        for (int t = 0; t < types.length; t++) {
+            BufferedImage image = new BufferedImage(source, source, types[t]);
+            Graphics2D g = image.createGraphics();
+            g.drawImage(picture, 0, 0, null);
+            g.dispose();
+            for (ImageConverter.Threshold threshold : ImageConverter.Threshold.values()) {
+                boolean[] serial = null;
+                for (int threads = 1; threads <= Math.max(8, cores); threads *= 2) {
+                    ForkJoinPool pool = new ForkJoinPool(threads);
+                    ImageConverter converter = new ImageConverter();
+                    converter.setThreshold(threshold);
+                    converter.setPool(pool);
+                    boolean[] bitmap = null;
+                    long best = Long.MAX_VALUE;
+                    for (int i = 0; i < 5; i++) {
+                        long start = System.nanoTime();
+                        bitmap = converter.wallBitmap(image, gridSize);
+                        best = Math.min(best, System.nanoTime() - start);
+                    }
+                    pool.shutdown();
+                    if (serial == null) serial = bitmap;
+                    System.out.printf("%-12s %-9s %8d %7.1f ms %12.1f %8s%n", names[t],
+                        threshold.name().toLowerCase(), threads, best / 1e6,
+                        (double) source * source / best * 1e3, Arrays.equals(serial, bitmap));
+                }
+            }
+        }
+        cachedImports(picture);
+    }
+
+    // Whole imports of the picture saved as a PNG, through LevelImporter with a LevelCache:
+    // cold misses the cache, so it decodes, converts, builds the tables and stores them;
+    // warm is the same import again, loaded from the cache
+    private static void cachedImports(BufferedImage picture) {
+        try {
+            File png = File.createTempFile("level", ".png");
+            png.deleteOnExit();
+            ImageIO.write(picture, "png", png);
+            Path directory = Files.createTempDirectory("levels");
+            LevelCache cache = new LevelCache(directory, LevelCache.DEFAULT_MAX_BYTES);
+            LevelImporter importer = new LevelImporter(new ImageConverter());
+            importer.setCache(cache);
+            int[] gridSizes = {64, 512};
+            double[][] millis = new double[gridSizes.length][2];
+            for (int g = 0; g < gridSizes.length; g++) {
+                GridGraph[] grids = new GridGraph[2];
+                for (int run = 0; run < 2; run++) {
+                    long start = System.nanoTime();
+                    grids[run] = importer.start(png, gridSizes[g], new LevelImporter.Listener() {
+                        @Override
+                        public void progress(LevelImporter.Phase phase, double fraction) {
+                        }
+
+                        @Override
+                        public void preview(float[] shades, int size) {
+                        }
+                    }).result().get();
+                    millis[g][run] = (System.nanoTime() - start) / 1e6;
+                }
+                for (int cell = 0; cell < grids[0].size(); cell++) {
+                    if (grids[0].isWall(cell) != grids[1].isWall(cell)) {
+                        throw new IllegalStateException("Cached level differs at cell " + cell);
+                    }
+                }
+            }
+            importer.shutdown();
+            if (cache.getHits() != gridSizes.length || cache.getMisses() != gridSizes.length) {
+                throw new IllegalStateException("Expected one miss and one hit per grid size, got "
+                    + cache.getMisses() + " and " + cache.getHits());
+            }
+
+            System.out.println();
+            System.out.printf("%dx%d PNG (%.1f MB) imported through a LevelCache%n",
+                picture.getWidth(), picture.getHeight(), png.length() / 1e6);
+            System.out.printf("%-10s %12s %12s%n", "grid", "cold", "warm");
+            for (int g = 0; g < gridSizes.length; g++) {
+                System.out.printf("%-10s %9.1f ms %9.1f ms%n", gridSizes[g] + "x" + gridSizes[g],
+                    millis[g][0], millis[g][1]);
+            }
+            cache.clear();
+            Files.deleteIfExists(directory);
+            png.delete();
+        } catch (IOException | InterruptedException | ExecutionException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // JPS and JPS+ against A*: cells expanded, time and path length per query, then what
+    // keeping the JPS+ table current costs when walls change
+    private static void jumpPointSearch() {
+        int size = 512;
+        int rounds = 5;
+        System.out.println(size + "x" + size + " maps, 16 queries between random cells of the largest region");
+        System.out.printf("%-7s %10s %10s %10s %10s %10s %10s %10s %10s%n", "map", "A* cells", "JPS cells",
+            "A* time", "JPS time", "JPS+ time", "A* len", "JPS len", "BFS len");
+        for (MapGenerator.Kind kind : MapGenerator.Kind.values()) {
+            GridGraph graph = MapGenerator.generate(kind, size, 13);
+            GridGraph.Node[][] queries = MapGenerator.queryPairs(graph, 13);
+            if (queries == null) continue;
+            long astarCells = 0, jpsCells = 0, astarLength = 0, jpsLength = 0, bfsLength = 0;
+            for (GridGraph.Node[] query : queries) {
+                Pathfinding.PathResult astar = Pathfinding.astarWithTracking(graph, query[0], query[1]);
+                Pathfinding.PathResult jps = Pathfinding.findPathWithTracking(
+                    Pathfinding.Algorithm.JPS, graph, query[0], query[1]);
+                astarCells += astar.explored.size();
+                jpsCells += jps.explored.size();
+                astarLength += astar.path.size();
+                jpsLength += jps.path.size();
+                bfsLength += Pathfinding.bfs(graph, query[0], query[1]).size();
+            }
+            Pathfinding.jpsPlus(graph, queries[0][0], queries[0][1]); // builds the table
+            double[] millis = new double[3];
+            for (int a = 0; a < 3; a++) {
+                long best = Long.MAX_VALUE;
+                for (int round = 0; round < rounds; round++) {
+                    long start = System.nanoTime();
+                    for (GridGraph.Node[] query : queries) {
+                        switch (a) {
+                            case 0: Pathfinding.astar(graph, query[0], query[1]); break;
+                            case 1: Pathfinding.jps(graph, query[0], query[1]); break;
+                            default: Pathfinding.jpsPlus(graph, query[0], query[1]); break;
+                        }
+                    }
+                    best = Math.min(best, System.nanoTime() - start);
+                }
+                millis[a] = best / 1e6 / queries.length;
+            }
+            int n = queries.length;
+            System.out.printf("%-7s %10d %10d %7.3f ms %7.3f ms %7.3f ms %10d %10d %10d%n",
+                kind.name().toLowerCase(), astarCells / n, jpsCells / n, millis[0], millis[1], millis[2],
+                astarLength / n, jpsLength / n, bfsLength / n);
+        }
+
+        GridGraph graph = MapGenerator.generate(MapGenerator.Kind.OPEN, size, 13);
+        GridGraph.Node[][] queries = MapGenerator.queryPairs(graph, 13);
+        Random random = new Random(13);
+        long start = System.nanoTime();
+        Pathfinding.jpsPlus(graph, queries[0][0], queries[0][1]);
+        long buildNanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < 100; i++) {
+            int cell = random.nextInt(graph.size());
+            graph.setWall(cell, !graph.isWall(cell));
+            Pathfinding.jpsPlus(graph, queries[i % queries.length][0], queries[i % queries.length][1]);
+        }
+        System.out.printf("JPS+ table: %.1f ms to build, %.2f ms per query with a wall toggled before each%n",
+            buildNanos / 1e6, (System.nanoTime() - start) / 1e6 / 100);
+    }
+
+    // Each search against its bidirectional version: cells explored and time per query
+    private static void bidirectionalSearch() {
+        int size = 512;
+        int rounds = 5;
+        Pathfinding.Algorithm[][] pairs = {
+            {Pathfinding.Algorithm.BFS, Pathfinding.Algorithm.BIDIRECTIONAL_BFS},
+            {Pathfinding.Algorithm.DIJKSTRA, Pathfinding.Algorithm.BIDIRECTIONAL_DIJKSTRA},
+            {Pathfinding.Algorithm.ASTAR, Pathfinding.Algorithm.BIDIRECTIONAL_ASTAR}
+        };
+        System.out.println(size + "x" + size + " maps, 16 queries between random cells of the largest region");
+        System.out.printf("%-7s %-9s %10s %10s %10s %10s %8s %8s%n", "map", "search", "cells", "bi cells",
+            "time", "bi time", "len", "bi len");
+        for (MapGenerator.Kind kind : MapGenerator.Kind.values()) {
+            GridGraph graph = MapGenerator.generate(kind, size, 17);
+            GridGraph.Node[][] queries = MapGenerator.queryPairs(graph, 17);
+            if (queries == null) continue;
+            for (Pathfinding.Algorithm[] pair : pairs) {
+                long[] cells = new long[2];
+                long[] length = new long[2];
+                double[] millis = new double[2];
+                for (int side = 0; side < 2; side++) {
+                    for (GridGraph.Node[] query : queries) {
+                        Pathfinding.PathResult result = Pathfinding.findPathWithTracking(pair[side], graph, query[0], query[1]);
+                        cells[side] += result.explored.size();
+                        length[side] += result.path.size();
+                    }
+                    long best = Long.MAX_VALUE;
+                    for (int round = 0; round < rounds; round++) {
+                        long start = System.nanoTime();
+                        for (GridGraph.Node[] query : queries) {
+                            Pathfinding.findPathWithTracking(pair[side], graph, query[0], query[1]);
+                        }
+                        best = Math.min(best, System.nanoTime() - start);
+                    }
+                    millis[side] = best / 1e6 / queries.length;
+                }
+                int n = queries.length;
+                System.out.printf("%-7s %-9s %10d %10d %7.3f ms %7.3f ms %8d %8d%n", kind.name().toLowerCase(),
+                    pair[0].name().toLowerCase(), cells[0] / n, cells[1] / n, millis[0], millis[1],
+                    length[0] / n, length[1] / n);
+            }
+        }
+    }
+
+    // A* with the Chebyshev heuristic alone against A* with landmark tables, then next-hop
+    // tables against searching on small maps; each with what the tables cost to build
+    private static void landmarkTables() {
+        int size = 512;
+        int rounds = 5;
+        System.out.println(size + "x" + size + " maps, " + LandmarkTable.DEFAULT_LANDMARKS
+            + " landmarks, 16 queries between random cells of the largest region");
+        System.out.printf("%-7s %10s %8s %10s %10s %10s %10s %8s %8s%n", "map", "build", "memory",
+            "A* cells", "ALT cells", "A* time", "ALT time", "A* len", "ALT len");
+        for (MapGenerator.Kind kind : MapGenerator.Kind.values()) {
+            GridGraph graph = MapGenerator.generate(kind, size, 19);
+            GridGraph.Node[][] queries = MapGenerator.queryPairs(graph, 19);
+            if (queries == null) continue;
+            long start = System.nanoTime();
+            LandmarkTable landmarks = LandmarkTable.build(graph, LandmarkTable.DEFAULT_LANDMARKS);
+            long buildNanos = System.nanoTime() - start;
+            long[] cells = new long[2];
+            long[] length = new long[2];
+            double[] millis = new double[2];
+            for (int side = 0; side < 2; side++) {
+                graph.setLandmarks(side == 0 ? null : landmarks);
+                for (GridGraph.Node[] query : queries) {
+                    Pathfinding.PathResult result = Pathfinding.astarWithTracking(graph, query[0], query[1]);
+                    cells[side] += result.explored.size();
+                    length[side] += result.path.size();
+                }
+                long best = Long.MAX_VALUE;
+                for (int round = 0; round < rounds; round++) {
+                    start = System.nanoTime();
+                    for (GridGraph.Node[] query : queries) {
+                        Pathfinding.astar(graph, query[0], query[1]);
+                    }
+                    best = Math.min(best, System.nanoTime() - start);
+                }
+                millis[side] = best / 1e6 / queries.length;
+            }
+            int n = queries.length;
+            System.out.printf("%-7s %7.1f ms %5d MB %10d %10d %7.3f ms %7.3f ms %8d %8d%n",
+                kind.name().toLowerCase(), buildNanos / 1e6, landmarks.getMemoryBytes() >> 20,
+                cells[0] / n, cells[1] / n, millis[0], millis[1], length[0] / n, length[1] / n);
+        }
+
+        int small = 64;
+        System.out.println();
+        System.out.println(small + "x" + small + " maps, next-hop table against A* with landmarks");
+        System.out.printf("%-7s %10s %8s %12s %12s%n", "map", "build", "memory", "A* time", "lookup time");
+        for (MapGenerator.Kind kind : MapGenerator.Kind.values()) {
+            GridGraph graph = MapGenerator.generate(kind, small, 19);
+            GridGraph.Node[][] queries = MapGenerator.queryPairs(graph, 19);
+            if (queries == null || !NextHopTable.fits(graph)) continue;
+            graph.setLandmarks(LandmarkTable.build(graph, LandmarkTable.DEFAULT_LANDMARKS));
+            long start = System.nanoTime();
+            NextHopTable nextHops = NextHopTable.build(graph);
+            long buildNanos = System.nanoTime() - start;
+            double[] micros = new double[2];
+            for (int side = 0; side < 2; side++) {
+                graph.setNextHops(side == 0 ? null : nextHops);
+                long best = Long.MAX_VALUE;
+                for (int round = 0; round < rounds * 20; round++) {
+                    start = System.nanoTime();
+                    for (GridGraph.Node[] query : queries) {
+                        Pathfinding.astar(graph, query[0], query[1]);
+                    }
+                    best = Math.min(best, System.nanoTime() - start);
+                }
+                micros[side] = best / 1e3 / queries.length;
+            }
+            System.out.printf("%-7s %7.1f ms %5d MB %9.1f us %9.1f us%n", kind.name().toLowerCase(),
+                buildNanos / 1e6, nextHops.getMemoryBytes() >> 20, micros[0], micros[1]);
+        }
+    }
+
+    // Tick time with and without the shared path cache while the player stands still,
+    // while it walks, and while it walks and a wall flips every few ticks
+    private static void pathCacheTicks() {
+        int size = 256;
+        int enemyCount = 100;
+        int ticks = 40;
+        System.out.println(enemyCount + " enemies on a " + size + "x" + size + " map, " + ticks + " ticks");
+        System.out.printf("%-14s %10s %10s %8s %8s %8s %10s %13s%n", "player", "no cache", "cache",
+            "hits", "suffix", "misses", "evictions", "invalidations");
+        String[] cases = {"still", "walking", "walls changing"};
+        for (int c = 0; c < cases.length; c++) {
+            double[] millis = new double[2];
+            PathCache cache = null;
+            for (int side = 0; side < 2; side++) {
+                GameLogic game = createChase(size, enemyCount, 42);
+                cache = side == 0 ? null : new PathCache(PathCache.DEFAULT_CAPACITY);
+                game.setPathCache(cache);
+                Random random = new Random(7);
+                long elapsed = 0;
+                for (int i = 0; i < ticks; i++) {
+                    if (c > 0 && i % 2 == 0) {
+                        // A step every other tick, so half the ticks see the same goal again
+                        int row = game.getPlayerY() + random.nextInt(3) - 1;
+                        int col = game.getPlayerX() + random.nextInt(3) - 1;
+                        GridGraph graph = game.getGraph();
+                        if (graph.isInBounds(row, col) && !graph.isWall(graph.indexOf(row, col))) {
+                            game.movePlayer(row, col);
+                        }
+                    }
+                    if (c > 1 && i % 5 == 0) {
+                        game.toggleWall(random.nextInt(size), random.nextInt(size));
+                    }
+                    long start = System.nanoTime();
+                    game.moveEnemies();
+                    elapsed += System.nanoTime() - start;
+                }
+                millis[side] = elapsed / 1e6 / ticks;
+            }
+            System.out.printf("%-14s %7.2f ms %7.2f ms %8d %8d %8d %10d %13d%n", cases[c], millis[0], millis[1],
+                cache.getHits(), cache.getSuffixHits(), cache.getMisses(), cache.getEvictions(),
+                cache.getInvalidations());
+        }
+    }
+
+    // HPA* against flat A* on long queries: time, cells expanded and path length compared
+    // with the shortest path (BFS), then the cost of keeping the abstraction up to date
+    private static void hierarchicalSearch() {
+        int size = 1024;
+        int rounds = 5;
+        System.out.println(size + "x" + size + " maps, 16x16 clusters, 16 queries between random cells of the largest region");
+        System.out.printf("%-7s %10s %12s %12s %12s %12s %10s %10s%n", "map", "build", "A* time", "HPA* time",
+            "A* cells", "HPA* cells", "A* loss", "HPA* loss");
+        for (MapGenerator.Kind kind : new MapGenerator.Kind[]{
+                MapGenerator.Kind.OPEN, MapGenerator.Kind.RANDOM, MapGenerator.Kind.CAVE, MapGenerator.Kind.MAZE}) {
+            GridGraph graph = MapGenerator.generate(kind, size, 11);
+            GridGraph.Node[][] queries = MapGenerator.queryPairs(graph, 11);
+            long start = System.nanoTime();
+            HPAStar planner = new HPAStar(graph);
+            long buildNanos = System.nanoTime() - start;
+
+            long optimal = 0, flatLength = 0, hpaLength = 0, flatCells = 0;
+            for (GridGraph.Node[] query : queries) {
+                optimal += Pathfinding.bfs(graph, query[0], query[1]).size();
+                Pathfinding.PathResult flat = Pathfinding.astarWithTracking(graph, query[0], query[1]);
+                flatLength += flat.path.size();
+                flatCells += flat.explored.size();
+                hpaLength += planner.plan(query[0], query[1]).size();
+            }
+            long hpaCells = planner.getExpansions();
+            long flatNanos = Long.MAX_VALUE, hpaNanos = Long.MAX_VALUE;
+            for (int round = 0; round < rounds; round++) {
+                start = System.nanoTime();
+                for (GridGraph.Node[] query : queries) {
+                    Pathfinding.astar(graph, query[0], query[1]);
+                }
+                flatNanos = Math.min(flatNanos, System.nanoTime() - start);
+                start = System.nanoTime();
+                for (GridGraph.Node[] query : queries) {
+                    planner.plan(query[0], query[1]);
+                }
+                hpaNanos = Math.min(hpaNanos, System.nanoTime() - start);
+            }
+            System.out.printf("%-7s %7.0f ms %9.2f ms %9.2f ms %12d %12d %9.1f%% %9.1f%%%n",
+                kind.name().toLowerCase(), buildNanos / 1e6,
+                flatNanos / 1e6 / queries.length, hpaNanos / 1e6 / queries.length,
+                flatCells / queries.length, hpaCells / queries.length,
+                100.0 * (flatLength - optimal) / optimal, 100.0 * (hpaLength - optimal) / optimal);
+        }
+
+        // One wall toggled before each query: only the clusters around it are rebuilt
+        GridGraph graph = MapGenerator.generate(MapGenerator.Kind.CAVE, size, 11);
+        GridGraph.Node[][] queries = MapGenerator.queryPairs(graph, 11);
+        HPAStar planner = new HPAStar(graph);
+        Random random = new Random(11);
+        long built = planner.getClustersBuilt();
+        long start = System.nanoTime();
+        for (int i = 0; i < 200; i++) {
+            int cell = random.nextInt(graph.size());
+            graph.setWall(cell, !graph.isWall(cell));
+            planner.plan(queries[i % queries.length][0], queries[i % queries.length][1]);
+        }
+        long nanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        new HPAStar(graph);
+        long rebuildNanos = System.nanoTime() - start;
+        System.out.printf("cave with a wall toggled per query: %.2f ms per query, %.1f clusters rebuilt each"
+                + " (a full rebuild takes %.0f ms)%n",
+            nanos / 1e6 / 200, (planner.getClustersBuilt() - built) / 200.0, rebuildNanos / 1e6);
+    }
+
+    // Corner-to-corner A* on a 50000x50000 map read through TiledGridGraph, after checking
+    // the tiled view against a GridGraph on a map small enough to load whole
+    private static void tiledSearch() {
+        try {
+            File small = File.createTempFile("tiled", ".bin");
+            small.deleteOnExit();
+            MazeIO.writeLargeMaze(small.getPath(), 1500, 1300, (row, words) -> randomRow(row, 1500, 1300, words));
+            GridGraph whole = MazeIO.loadMaze(small.getPath());
+            // A budget of four chunks forces plenty of evictions
+            try (TiledGridGraph tiled = TiledGridGraph.open(small.getPath(), 4 * 256 * 256 / 8)) {
+                for (int cell = 0; cell < whole.size(); cell++) {
+                    if (whole.isWall(cell) != tiled.isWall(whole.rowOf(cell), whole.colOf(cell))) {
+                        throw new IllegalStateException("Tiled view differs at cell " + cell);
+                    }
+                }
+                GridGraph.Node start = new GridGraph.Node(0, 0);
+                GridGraph.Node goal = new GridGraph.Node(1499, 1299);
+                List<GridGraph.Node> path = Pathfinding.astar(tiled, start, goal);
+                checkPath(whole, start, goal, path);
+                System.out.printf("1500x1300 check: walls match, path of %d steps (GridGraph A*: %d), %d evictions%n",
+                    path.size(), Pathfinding.astar(whole, start, goal).size(), tiled.getChunkEvictions());
+            }
+            small.delete();
+
+            int size = 50000;
+            File file = File.createTempFile("tiled", ".bin");
+            file.deleteOnExit();
+            long start = System.nanoTime();
+            MazeIO.writeLargeMaze(file.getPath(), size, size, (row, words) -> randomRow(row, size, size, words));
+            System.out.printf("%dx%d map, %.1f MB file written in %.1f s%n",
+                size, size, file.length() / 1e6, (System.nanoTime() - start) / 1e9);
+
+            long budget = 128L << 20;
+            try (TiledGridGraph tiled = TiledGridGraph.open(file.getPath(), budget)) {
+                start = System.nanoTime();
+                List<GridGraph.Node> path = Pathfinding.astar(tiled,
+                    new GridGraph.Node(0, 0), new GridGraph.Node(size - 1, size - 1));
+                long nanos = System.nanoTime() - start;
+                System.out.printf("A* corner to corner: %d steps in %.2f s%n", path.size(), nanos / 1e9);
+                System.out.printf("chunks: %d hits, %d misses, %d evictions, %d loaded (budget %d MB = %d chunks)%n",
+                    tiled.getChunkHits(), tiled.getChunkMisses(), tiled.getChunkEvictions(),
+                    tiled.getLoadedChunks(), budget >> 20, tiled.getMaxChunks());
+            }
+            System.out.printf("max heap %d MB, used after search %.1f MB%n",
+                Runtime.getRuntime().maxMemory() >> 20, usedHeap() / 1e6);
+            file.delete();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // 25% walls from a per-row seed, so any row can be produced on its own; the two
+    // corners the search runs between are kept open
+    private static void randomRow(int row, int rows, int cols, long[] words) {
+        java.util.SplittableRandom random = new java.util.SplittableRandom(row * 0x9E3779B97F4A7C15L + 17);
+        for (int i = 0; i < words.length; i++) {
+            words[i] = random.nextLong() & random.nextLong();
+        }
+        if (row == 0) words[0] &= ~1L;
+        if (row == rows - 1) words[(cols - 1) >>> 6] &= ~(1L << (cols - 1));
+    }
+
+    private static void checkPath(GridGraph graph, GridGraph.Node start, GridGraph.Node goal, List<GridGraph.Node> path) {
+        GridGraph.Node previous = start;
+        for (GridGraph.Node node : path) {
+            if (Math.abs(node.row - previous.row) > 1 || Math.abs(node.col - previous.col) > 1
+                    || graph.isWall(graph.indexOf(node.row, node.col))) {
+                throw new IllegalStateException("Bad step " + previous + " -> " + node);
+            }
+            previous = node;
+        }
+        if (path.isEmpty() || !path.get(path.size() - 1).equals(goal)) {
+            throw new IllegalStateException("Path doesn't reach the goal");
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    // One recorded tick: where everyone stood and which walls were toggled beforehand
+    private static class RecordedTick {
+        final int player;
+        final int[] enemies;
+        final int[] toggles;
+
+        RecordedTick(int player, int[] enemies, int[] toggles) {
+            this.player = player;
+            this.enemies = enemies;
+            this.toggles = toggles;
+        }
+    }
+
+    // Replays the same recorded game through D* Lite and through from-scratch A*
+    private static void replayIncremental() {
+        int size = 128;
+        List<RecordedTick> game = recordGame(replayMap(size), 400, 7);
+
+        GridGraph incrementalGraph = replayMap(size);
+        DStarLite[] planners = new DStarLite[game.get(0).enemies.length];
+        long incrementalTime = 0;
+        for (RecordedTick tick : game) {
+            applyToggles(incrementalGraph, tick.toggles);
+            long start = System.nanoTime();
+            for (int i = 0; i < planners.length; i++) {
+                if (planners[i] == null) planners[i] = new DStarLite(incrementalGraph);
+                planners[i].plan(incrementalGraph.nodeAt(tick.enemies[i]), incrementalGraph.nodeAt(tick.player));
+            }
+            incrementalTime += System.nanoTime() - start;
+        }
+        long incrementalExpansions = 0;
+        for (DStarLite planner : planners) {
+            incrementalExpansions += planner.getExpansions();
+        }
+
+        GridGraph astarGraph = replayMap(size);
+        long astarExpansions = 0;
+        long astarTime = 0;
+        for (RecordedTick tick : game) {
+            applyToggles(astarGraph, tick.toggles);
+            long start = System.nanoTime();
+            for (int enemy : tick.enemies) {
+                astarExpansions += Pathfinding.astarWithTracking(astarGraph, astarGraph.nodeAt(enemy),
+                        astarGraph.nodeAt(tick.player)).explored.size();
+            }
+            astarTime += System.nanoTime() - start;
+        }
+
+        GridGraph bfsGraph = replayMap(size);
+        long bfsExpansions = 0;
+        long bfsTime = 0;
+        for (RecordedTick tick : game) {
+            applyToggles(bfsGraph, tick.toggles);
+            long start = System.nanoTime();
+            for (int enemy : tick.enemies) {
+                bfsExpansions += Pathfinding.bfsWithTracking(bfsGraph, bfsGraph.nodeAt(enemy),
+                        bfsGraph.nodeAt(tick.player)).explored.size();
+            }
+            bfsTime += System.nanoTime() - start;
+        }
+
+        System.out.println("Replay of " + game.size() + " ticks, " + planners.length + " enemies, "
+                + size + "x" + size + " map with wall toggles");
+        System.out.printf("%-12s %12s %10s%n", "planner", "expansions", "time");
+        System.out.printf("%-12s %12d %7.1f ms%n", "BFS", bfsExpansions, bfsTime / 1e6);
+        System.out.printf("%-12s %12d %7.1f ms%n", "A*", astarExpansions, astarTime / 1e6);
+        System.out.printf("%-12s %12d %7.1f ms%n", "D* Lite", incrementalExpansions, incrementalTime / 1e6);
+    }
+
+    private static GridGraph replayMap(int size) {
+        GridGraph graph = MapGenerator.randomObstacles(size, 0.2, 7);
+        graph.setWall(graph.indexOf(size / 2, size / 2), false);
+        graph.setWall(graph.indexOf(size - 1, size - 1), false);
+        graph.setWall(graph.indexOf(size - 1, 0), false);
+        graph.setWall(graph.indexOf(0, size - 1), false);
+        return graph;
+    }
+
+    // Player wanders randomly, three enemies chase with BFS and a random wall flips now and then
+    private static List<RecordedTick> recordGame(GridGraph graph, int ticks, long seed) {
+        Random random = new Random(seed);
+        int size = graph.getRows();
+        int[] enemies = {
+            graph.indexOf(size - 1, size - 1), graph.indexOf(size - 1, 0), graph.indexOf(0, size - 1)
+        };
+        int player = graph.indexOf(size / 2, size / 2);
+
+        List<RecordedTick> game = new ArrayList<>();
+        int[] neighbors = new int[8];
+        for (int t = 0; t < ticks; t++) {
+            List<Integer> toggles = new ArrayList<>();
+            if (random.nextInt(3) == 0) {
+                int cell = random.nextInt(graph.size());
+                if (cell != player && !contains(enemies, cell)) {
+                    graph.setWall(cell, !graph.isWall(cell));
+                    toggles.add(cell);
+                }
+            }
+            int count = graph.getNeighbors(player, neighbors);
+            if (count > 0) {
+                player = neighbors[random.nextInt(count)];
+            }
+            game.add(new RecordedTick(player, enemies.clone(),
+                    toggles.stream().mapToInt(Integer::intValue).toArray()));
+            for (int i = 0; i < enemies.length; i++) {
+                List<GridGraph.Node> path = Pathfinding.bfs(graph, graph.nodeAt(enemies[i]), graph.nodeAt(player));
+                if (path.size() > 1) {
+                    enemies[i] = graph.indexOf(path.get(0).row, path.get(0).col);
+                }
+            }
+        }
+        return game;
+    }
+
+    private static void applyToggles(GridGraph graph, int[] toggles) {
+        for (int cell : toggles) {
+            graph.setWall(cell, !graph.isWall(cell));
+        }
+    }
+
+    private static boolean contains(int[] cells, int cell) {
+        for (int c : cells) {
+            if (c == cell) return true;
+        }
+        return false;
+    }
+
+    // Player in the centre, enemies (BFS, Dijkstra and A* in turn) at least 60 cells away
+    static GameLogic createChase(int size, int enemyCount, long seed) {
+        GridGraph graph = MapGenerator.randomObstacles(size, 0.2, seed);
+        int center = size / 2;
+        clearSpawnAreas(graph);
+        // Up front, so every tick timed sees the same tables rather than a background build
+        GameLogic.attachDistanceTables(graph);
+
+        GameLogic game = new GameLogic(size, size);
+        game.setGraph(graph);
+        if (game.getGraph() != graph) {
+            throw new IllegalStateException("Generated map was rejected, try another seed");
+        }
+        game.movePlayer(center, center);
+        game.clearEnemies();
+
+        FlowField reach = FlowField.build(graph, graph.getNode(center, center), null);
+        Random random = new Random(seed);
+        int placed = 0;
+        while (placed < enemyCount) {
+            int row = random.nextInt(size);
+            int col = random.nextInt(size);
+            if (Math.max(Math.abs(row - center), Math.abs(col - center)) < 60
+                    || !reach.isReachable(row, col)) {
+                continue;
+            }
+            switch (placed % 3) {
+                case 0: game.addEnemy(new BFSEnemy(col, row)); break;
+                case 1: game.addEnemy(new DijkstraEnemy(col, row)); break;
+                default: game.addEnemy(new AStarEnemy(col, row)); break;
+            }
+            placed++;
+        }
+        return game;
+    }
+
+    // Keep the default spawn points open so setGraph accepts the map
+    static void clearSpawnAreas(GridGraph graph) {
+        int rows = graph.getRows();
+        int cols = graph.getCols();
+        int[][] spawns = {{0, 0}, {rows - 1, cols - 1}, {rows - 1, 0}, {rows / 2, cols / 2}};
+        for (int[] spawn : spawns) {
+            for (int dr = -1; dr <= 1; dr++) {
+                for (int dc = -1; dc <= 1; dc++) {
+                    if (graph.isInBounds(spawn[0] + dr, spawn[1] + dc)) {
+                        graph.setWall(graph.indexOf(spawn[0] + dr, spawn[1] + dc), false);
+                    }
+                }
+            }
+        }
+    }
+}
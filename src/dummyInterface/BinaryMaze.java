@@ -0,0 +1,433 @@
+package dummyInterface;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+// Binary maze codec used by MazeIO. All numbers are little-endian:
+//   magic "GCMZ", version (u8), encoding (u8: 0 bit-packed, 1 run-length), flags (u8:
+//   1 player spawn, 2 exit, 4 enemy spawns), reserved (u8), rows (i32), cols (i32),
+//   then per flag: player spawn (row, col i32), exit (row, col i32), enemy spawns
+//   (count i32, then row, col i32 each), payload length (i64), payload, and a CRC32 of
+//   every byte before it (u32).
+// Bit-packed payloads are GridGraph's wall words as they are (bit i = cell i). Run-length
+// payloads are LEB128 varints giving alternating open/wall run lengths, open first.
+class BinaryMaze {
+    static final byte[] MAGIC = {'G', 'C', 'M', 'Z'};
+    static final int VERSION = 1;
+    static final int BITS = 0;
+    static final int RLE = 1;
+
+    private static final int FLAG_PLAYER = 1;
+    private static final int FLAG_EXIT = 2;
+    private static final int FLAG_ENEMIES = 4;
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    static void write(MazeIO.Level level, Path path, MazeIO.Encoding encoding) throws IOException {
+        GridGraph graph = level.graph;
+        int cells = graph.size();
+        long[] words = graph.wallWords();
+        int chosen;
+        long rleBytes = encoding == MazeIO.Encoding.BITS ? -1 : runLengthSize(words, cells);
+        if (encoding == MazeIO.Encoding.RLE) {
+            chosen = RLE;
+        } else if (encoding == MazeIO.Encoding.BITS) {
+            chosen = BITS;
+        } else {
+            chosen = rleBytes < words.length * 8L ? RLE : BITS;
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            Output out = new Output(channel);
+            out.bytes(MAGIC);
+            out.u8(VERSION);
+            out.u8(chosen);
+            int flags = (level.playerSpawn != null ? FLAG_PLAYER : 0)
+                | (level.exit != null ? FLAG_EXIT : 0)
+                | (!level.enemySpawns.isEmpty() ? FLAG_ENEMIES : 0);
+            out.u8(flags);
+            out.u8(0);
+            out.i32(graph.getRows());
+            out.i32(graph.getCols());
+            if (level.playerSpawn != null) {
+                out.i32(level.playerSpawn.row);
+                out.i32(level.playerSpawn.col);
+            }
+            if (level.exit != null) {
+                out.i32(level.exit.row);
+                out.i32(level.exit.col);
+            }
+            if (!level.enemySpawns.isEmpty()) {
+                out.i32(level.enemySpawns.size());
+                for (GridGraph.Node spawn : level.enemySpawns) {
+                    out.i32(spawn.row);
+                    out.i32(spawn.col);
+                }
+            }
+
+            if (chosen == BITS) {
+                out.i64(words.length * 8L);
+                for (long word : words) {
+                    out.i64(word);
+                }
+            } else {
+                out.i64(rleBytes);
+                int position = 0;
+                boolean wall = false;
+                do {
+                    int next = nextChange(words, position, wall, cells);
+                    out.varint(next - position);
+                    position = next;
+                    wall = !wall;
+                } while (position < cells);
+            }
+            out.finish();
+        }
+    }
+
+    // Bit-packed file written a row at a time, for maps too big to hold as a GridGraph.
+    // Each row's bits are appended straight after the previous row's, so the payload is
+    // the same as write() would produce for the whole grid.
+    static void writeRows(Path path, int rows, int cols, MazeIO.RowSource source) throws IOException {
+        if (rows < 0 || cols < 0) throw new IllegalArgumentException("Bad size " + rows + "x" + cols);
+        long cells = (long) rows * cols;
+        long[] row = new long[(cols + 63) >>> 6];
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            Output out = new Output(channel);
+            out.bytes(MAGIC);
+            out.u8(VERSION);
+            out.u8(BITS);
+            out.u8(0);
+            out.u8(0);
+            out.i32(rows);
+            out.i32(cols);
+            out.i64(((cells + 63) >>> 6) * 8);
+            long pending = 0; // bits not written yet, lowest first
+            int pendingBits = 0;
+            for (int r = 0; r < rows; r++) {
+                Arrays.fill(row, 0);
+                source.fillRow(r, row);
+                for (int w = 0; w < row.length; w++) {
+                    int bits = Math.min(64, cols - (w << 6));
+                    long word = bits == 64 ? row[w] : row[w] & ((1L << bits) - 1);
+                    pending |= word << pendingBits;
+                    pendingBits += bits;
+                    if (pendingBits >= 64) {
+                        out.i64(pending);
+                        pendingBits -= 64;
+                        pending = pendingBits == 0 ? 0 : word >>> (bits - pendingBits);
+                    }
+                }
+            }
+            if (pendingBits > 0) out.i64(pending);
+            out.finish();
+        }
+    }
+
+    // Everything before the wall payload
+    static class Header {
+        int encoding;
+        int rows;
+        int cols;
+        GridGraph.Node player;
+        GridGraph.Node exit;
+        List<GridGraph.Node> enemies = new ArrayList<>();
+        long payloadOffset;
+        long payloadLength;
+    }
+
+    // Reads just the header, e.g. to page walls in from the file later; no checksum check
+    static Header readHeader(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            Input in = new Input(channel);
+            Header header = readHeader(in, path);
+            if (header.payloadLength != in.remaining()) {
+                throw new IOException("Corrupt maze file: payload length " + header.payloadLength
+                    + " but " + in.remaining() + " bytes left");
+            }
+            return header;
+        }
+    }
+
+    private static Header readHeader(Input in, Path path) throws IOException {
+        for (byte b : MAGIC) {
+            if (in.u8() != (b & 0xFF)) throw new IOException("Not a binary maze file: " + path);
+        }
+        int version = in.u8();
+        if (version != VERSION) throw new IOException("Unsupported maze file version " + version);
+        Header header = new Header();
+        header.encoding = in.u8();
+        int flags = in.u8();
+        in.u8();
+        header.rows = in.i32();
+        header.cols = in.i32();
+        if (header.rows < 0 || header.cols < 0) {
+            throw new IOException("Corrupt maze file: bad size " + header.rows + "x" + header.cols);
+        }
+        if ((flags & FLAG_PLAYER) != 0) header.player = new GridGraph.Node(in.i32(), in.i32());
+        if ((flags & FLAG_EXIT) != 0) header.exit = new GridGraph.Node(in.i32(), in.i32());
+        if ((flags & FLAG_ENEMIES) != 0) {
+            int count = in.i32();
+            if (count < 0 || count > in.remaining() / 8) throw new IOException("Corrupt maze file: bad spawn count");
+            for (int i = 0; i < count; i++) {
+                header.enemies.add(new GridGraph.Node(in.i32(), in.i32()));
+            }
+        }
+        header.payloadLength = in.i64();
+        header.payloadOffset = in.position();
+        return header;
+    }
+
+    static MazeIO.Level read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            Input in = new Input(channel);
+            Header header = readHeader(in, path);
+            int rows = header.rows;
+            int cols = header.cols;
+            if ((long) rows * cols > Integer.MAX_VALUE) {
+                throw new IOException("Maze too large to load whole (" + rows + "x" + cols + "); open it as a TiledGridGraph");
+            }
+            GridGraph.Node player = header.player;
+            GridGraph.Node exit = header.exit;
+            List<GridGraph.Node> enemies = header.enemies;
+            int encoding = header.encoding;
+
+            int cells = rows * cols;
+            long[] words = new long[(int) (((long) cells + 63) >>> 6)];
+            long payloadLength = header.payloadLength;
+            if (payloadLength < 0 || payloadLength != in.remaining()) {
+                throw new IOException("Corrupt maze file: payload length " + payloadLength
+                    + " but " + in.remaining() + " bytes left");
+            }
+            if (encoding == BITS) {
+                if (payloadLength != words.length * 8L) throw new IOException("Corrupt maze file: wrong payload size");
+                for (int i = 0; i < words.length; i++) {
+                    words[i] = in.i64();
+                }
+                if (cells % 64 != 0 && words.length > 0 && (words[words.length - 1] >>> (cells % 64)) != 0) {
+                    throw new IOException("Corrupt maze file: walls outside the grid");
+                }
+            } else if (encoding == RLE) {
+                long position = 0;
+                boolean wall = false;
+                while (in.remaining() > 0) {
+                    long run = in.varint();
+                    if (position + run > cells) throw new IOException("Corrupt maze file: runs overflow the grid");
+                    if (wall) setRange(words, (int) position, (int) (position + run));
+                    position += run;
+                    wall = !wall;
+                }
+                if (position != cells) throw new IOException("Corrupt maze file: runs cover " + position + " of " + cells + " cells");
+            } else {
+                throw new IOException("Unknown maze encoding " + encoding);
+            }
+            in.verifyChecksum();
+
+            GridGraph graph = new GridGraph(rows, cols, words);
+            for (GridGraph.Node node : enemies) {
+                if (!graph.isInBounds(node.row, node.col)) throw new IOException("Corrupt maze file: spawn out of bounds");
+            }
+            if ((player != null && !graph.isInBounds(player.row, player.col))
+                    || (exit != null && !graph.isInBounds(exit.row, exit.col))) {
+                throw new IOException("Corrupt maze file: spawn out of bounds");
+            }
+            return new MazeIO.Level(graph, player, exit, enemies);
+        }
+    }
+
+    // First cell at or after position whose wall bit differs from wall, or cells
+    private static int nextChange(long[] words, int position, boolean wall, int cells) {
+        int wordIndex = position >>> 6;
+        if (wordIndex >= words.length) return cells;
+        long word = (wall ? ~words[wordIndex] : words[wordIndex]) & (-1L << position);
+        while (word == 0) {
+            if (++wordIndex == words.length) return cells;
+            word = wall ? ~words[wordIndex] : words[wordIndex];
+        }
+        return Math.min(cells, (wordIndex << 6) + Long.numberOfTrailingZeros(word));
+    }
+
+    private static long runLengthSize(long[] words, int cells) {
+        long bytes = 0;
+        int position = 0;
+        boolean wall = false;
+        do {
+            int next = nextChange(words, position, wall, cells);
+            bytes += varintSize(next - position);
+            position = next;
+            wall = !wall;
+        } while (position < cells);
+        return bytes;
+    }
+
+    private static int varintSize(long value) {
+        int size = 1;
+        while ((value >>>= 7) != 0) size++;
+        return size;
+    }
+
+    // Sets bits [from, to)
+    private static void setRange(long[] words, int from, int to) {
+        if (from >= to) return;
+        int first = from >>> 6, last = (to - 1) >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> -to;
+        if (first == last) {
+            words[first] |= firstMask & lastMask;
+            return;
+        }
+        words[first] |= firstMask;
+        for (int i = first + 1; i < last; i++) {
+            words[i] = -1L;
+        }
+        words[last] |= lastMask;
+    }
+
+    // Buffered little-endian writer that checksums everything it writes
+    private static class Output {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        private final CRC32 crc = new CRC32();
+
+        Output(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void bytes(byte[] bytes) throws IOException {
+            room(bytes.length);
+            buffer.put(bytes);
+        }
+
+        void u8(int value) throws IOException {
+            room(1);
+            buffer.put((byte) value);
+        }
+
+        void i32(int value) throws IOException {
+            room(4);
+            buffer.putInt(value);
+        }
+
+        void i64(long value) throws IOException {
+            room(8);
+            buffer.putLong(value);
+        }
+
+        void varint(long value) throws IOException {
+            room(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer.put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            buffer.put((byte) value);
+        }
+
+        void finish() throws IOException {
+            flush();
+            ByteBuffer trailer = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            trailer.putInt((int) crc.getValue()).flip();
+            while (trailer.hasRemaining()) channel.write(trailer);
+        }
+
+        private void room(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) flush();
+        }
+
+        private void flush() throws IOException {
+            crc.update(buffer.array(), 0, buffer.position());
+            buffer.flip();
+            while (buffer.hasRemaining()) channel.write(buffer);
+            buffer.clear();
+        }
+    }
+
+    // Buffered little-endian reader over everything but the 4-byte checksum trailer,
+    // checksumming as it goes; running out of bytes means the file was truncated
+    private static class Input {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        private final CRC32 crc = new CRC32();
+        private final long bodyEnd;
+        private long filePosition;
+
+        Input(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.bodyEnd = channel.size() - 4;
+            if (bodyEnd < 0) throw new EOFException("Truncated maze file");
+            buffer.limit(0);
+        }
+
+        // Offset in the file of the next byte to be read
+        long position() {
+            return filePosition - buffer.remaining();
+        }
+
+        // Body bytes not read yet
+        long remaining() {
+            return bodyEnd - filePosition + buffer.remaining();
+        }
+
+        int u8() throws IOException {
+            need(1);
+            return buffer.get() & 0xFF;
+        }
+
+        int i32() throws IOException {
+            need(4);
+            return buffer.getInt();
+        }
+
+        long i64() throws IOException {
+            need(8);
+            return buffer.getLong();
+        }
+
+        long varint() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = u8();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return value;
+            }
+            throw new IOException("Corrupt maze file: varint too long");
+        }
+
+        void verifyChecksum() throws IOException {
+            if (remaining() != 0) throw new IOException("Corrupt maze file: trailing data");
+            ByteBuffer trailer = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            while (trailer.hasRemaining()) {
+                if (channel.read(trailer, bodyEnd + trailer.position()) < 0) throw new EOFException("Truncated maze file");
+            }
+            trailer.flip();
+            if (trailer.getInt() != (int) crc.getValue()) throw new IOException("Corrupt maze file: checksum mismatch");
+        }
+
+        private void need(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) return;
+            buffer.compact();
+            while (buffer.position() < bytes) {
+                int room = (int) Math.min(buffer.remaining(), bodyEnd - filePosition);
+                if (room <= 0) throw new EOFException("Truncated maze file");
+                int start = buffer.position();
+                ByteBuffer slice = buffer.duplicate();
+                slice.limit(start + room);
+                int read = channel.read(slice, filePosition);
+                if (read < 0) throw new EOFException("Truncated maze file");
+                crc.update(buffer.array(), start, read);
+                buffer.position(start + read);
+                filePosition += read;
+            }
+            buffer.flip();
+        }
+    }
+}
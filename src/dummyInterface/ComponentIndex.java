@@ -0,0 +1,401 @@
+package dummyInterface;
+
+import java.util.Arrays;
+
+// Connected-component labels for a GridGraph's open cells (8-connected, like
+// getNeighbors), kept current as walls change so "can a reach b" is a label compare.
+// label[cell] is the id of the cell's component, -1 for walls; ids are recycled through
+// a free list. Opening a cell unions it with the components around it: every smaller one
+// is relabelled into the largest (union by size), so a cell changes label O(log n) times
+// over any run of openings. Walling a cell may split its component. If its open
+// neighbours still touch each other around the ring of eight, nothing else changes;
+// otherwise a BFS from each separate group runs in lockstep and stops once at most one
+// group is still growing, so the cost is about the size of the pieces cut off rather than
+// of the whole component. GridGraph owns the index and updates it on every setWall.
+// The arrays are held in chunks that copies share until one side writes to them, so a
+// snapshot's copy costs O(cells / 4096) and the next wall change only copies the chunks
+// it touches.
+class ComponentIndex {
+    // The ring of neighbours in order around the cell: N, NE, E, SE, S, SW, W, NW
+    private static final int[] RING_ROW = {-1, -1, 0, 1, 1, 1, 0, -1};
+    private static final int[] RING_COL = {0, 1, 1, 1, 0, -1, -1, -1};
+
+    private final int rows, cols;
+    private final SharedInts label;
+    private final SharedInts size;   // cells per label, 0 when the label is free
+    private final SharedInts free;   // unused labels, as a stack
+    private int freeCount;
+
+    // Scratch for splits, allocated by the first one: mark[cell] - markBase is the search
+    // that reached the cell
+    private int[] mark;
+    private int markBase;
+    private final int[][] queues = new int[4][];
+    private final int[] queueLength = new int[4];
+    private final int[] head = new int[4];
+    private final int[] group = new int[4];
+    private final int[] neighbors = new int[8];
+
+    private ComponentIndex(int rows, int cols) {
+        int cells = rows * cols;
+        this.rows = rows;
+        this.cols = cols;
+        this.label = new SharedInts(cells);
+        this.size = new SharedInts(cells);
+        this.free = new SharedInts(cells);
+    }
+
+    private ComponentIndex(ComponentIndex source) {
+        this.rows = source.rows;
+        this.cols = source.cols;
+        this.label = source.label.copy();
+        this.size = source.size.copy();
+        this.free = source.free.copy();
+        this.freeCount = source.freeCount;
+    }
+
+    // Labels every open cell with one BFS per component
+    static ComponentIndex build(GridGraph graph) {
+        ComponentIndex index = new ComponentIndex(graph.getRows(), graph.getCols());
+        int cells = graph.size();
+        SharedInts label = index.label;
+        label.fill(-1);
+        int[] queue = new int[cells];
+        int next = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            if (label.get(cell) >= 0 || graph.isWall(cell)) continue;
+            int id = next++;
+            int qHead = 0, qTail = 0;
+            label.set(cell, id);
+            queue[qTail++] = cell;
+            while (qHead < qTail) {
+                int count = graph.getNeighbors(queue[qHead++], index.neighbors);
+                for (int i = 0; i < count; i++) {
+                    int neighbor = index.neighbors[i];
+                    if (label.get(neighbor) < 0) {
+                        label.set(neighbor, id);
+                        queue[qTail++] = neighbor;
+                    }
+                }
+            }
+            index.size.set(id, qTail);
+        }
+        index.fillFreeList();
+        return index;
+    }
+
+    // Labels saved by LevelCache for a graph with the same walls
+    static ComponentIndex restore(GridGraph graph, int[] labels) {
+        int cells = graph.size();
+        if (labels.length != cells) {
+            throw new IllegalArgumentException("Component labels don't fit this map: " + labels.length + " cells");
+        }
+        ComponentIndex index = new ComponentIndex(graph.getRows(), graph.getCols());
+        for (int cell = 0; cell < cells; cell++) {
+            int id = labels[cell];
+            if (id < -1 || id >= cells || (id < 0) != graph.isWall(cell)) {
+                throw new IllegalArgumentException("Component labels don't match the walls at cell " + cell);
+            }
+            index.label.set(cell, id);
+            if (id >= 0) index.size.set(id, index.size.get(id) + 1);
+        }
+        index.fillFreeList();
+        return index;
+    }
+
+    private void fillFreeList() {
+        freeCount = 0;
+        for (int id = size.length() - 1; id >= 0; id--) {
+            if (size.get(id) == 0) free.set(freeCount++, id);
+        }
+    }
+
+    // Shares every chunk with this index; whichever side changes a chunk first copies it
+    ComponentIndex copy() {
+        return new ComponentIndex(this);
+    }
+
+    boolean same(int a, int b) {
+        int id = label.get(a);
+        return id >= 0 && id == label.get(b);
+    }
+
+    int componentSize(int cell) {
+        int id = label.get(cell);
+        return id < 0 ? 0 : size.get(id);
+    }
+
+    // Every cell's label in one array, for saving
+    int[] labels() {
+        return label.toArray();
+    }
+
+    // Called after cell has been opened: joins it to its neighbours' components
+    void wallRemoved(GridGraph graph, int cell) {
+        int count = graph.getNeighbors(cell, neighbors);
+        int largest = -1;
+        for (int i = 0; i < count; i++) {
+            int id = label.get(neighbors[i]);
+            if (largest < 0 || size.get(id) > size.get(largest)) largest = id;
+        }
+        if (largest < 0) {
+            largest = free.get(--freeCount);
+        }
+        label.set(cell, largest);
+        size.set(largest, size.get(largest) + 1);
+        // Neighbour cells are copied out first; relabelling reuses the neighbour buffer
+        int[] around = Arrays.copyOf(neighbors, count);
+        for (int neighbor : around) {
+            int id = label.get(neighbor);
+            if (id != largest) relabel(graph, neighbor, id, largest);
+        }
+    }
+
+    // Called after cell has been walled: splits its component if that cut it in two
+    void wallAdded(GridGraph graph, int cell) {
+        int old = label.get(cell);
+        if (old < 0) return;
+        label.set(cell, -1);
+        size.set(old, size.get(old) - 1);
+        if (size.get(old) == 0) {
+            free.set(freeCount++, old);
+            return;
+        }
+
+        // Group the open ring cells that touch each other without going through cell:
+        // consecutive ring cells are always adjacent, and so are two orthogonal neighbours
+        // either side of a corner
+        int row = cell / cols, col = cell - row * cols;
+        int[] ringCell = new int[8];
+        int[] ringGroup = new int[8];
+        for (int d = 0; d < 8; d++) {
+            int r = row + RING_ROW[d], c = col + RING_COL[d];
+            ringCell[d] = r >= 0 && r < rows && c >= 0 && c < cols && !graph.isWall(r * cols + c) ? r * cols + c : -1;
+            ringGroup[d] = d;
+        }
+        for (int d = 0; d < 8; d++) {
+            if (ringCell[d] < 0) continue;
+            int next = (d + 1) & 7;
+            if (ringCell[next] >= 0) join(ringGroup, d, next);
+            if ((d & 1) == 0 && ringCell[(d + 2) & 7] >= 0) join(ringGroup, d, (d + 2) & 7);
+        }
+        int searches = 0;
+        int[] groupSearch = new int[8];
+        Arrays.fill(groupSearch, -1);
+        for (int d = 0; d < 8; d++) {
+            if (ringCell[d] < 0) continue;
+            int root = find(ringGroup, d);
+            if (groupSearch[root] < 0) groupSearch[root] = searches++;
+        }
+        if (searches <= 1) return;
+        split(graph, old, ringCell, ringGroup, groupSearch, searches);
+    }
+
+    // Lockstep BFS, one search per ring group (at most four: groups are separated by
+    // walls on the ring, and there are at most four gaps). A search that reaches a cell
+    // another one has taken merges with it. Once at most one merged group is still
+    // growing, every finished group is a complete piece; all but one keep the old label
+    // (the unfinished one, or else the largest) and the rest get new labels.
+    private void split(GridGraph graph, int old, int[] ringCell, int[] ringGroup, int[] groupSearch, int searches) {
+        if (mark == null) {
+            mark = new int[label.length()];
+        }
+        if (markBase > Integer.MAX_VALUE - 8) {
+            Arrays.fill(mark, 0);
+            markBase = 0;
+        }
+        markBase += 4;
+        for (int s = 0; s < searches; s++) {
+            queueLength[s] = 0;
+            head[s] = 0;
+            group[s] = s;
+        }
+        for (int d = 0; d < 8; d++) {
+            if (ringCell[d] < 0) continue;
+            int s = groupSearch[find(ringGroup, d)];
+            push(s, ringCell[d]);
+            mark[ringCell[d]] = markBase + s;
+        }
+
+        while (unfinishedGroups(searches) > 1) {
+            for (int s = 0; s < searches; s++) {
+                if (head[s] == queueLength[s]) continue;
+                int current = queues[s][head[s]++];
+                int count = graph.getNeighbors(current, neighbors);
+                for (int i = 0; i < count; i++) {
+                    int neighbor = neighbors[i];
+                    int owner = mark[neighbor] - markBase;
+                    if (owner >= 0 && owner < 4) {
+                        if (owner != s) join(group, s, owner);
+                    } else {
+                        mark[neighbor] = markBase + s;
+                        push(s, neighbor);
+                    }
+                }
+            }
+        }
+
+        // Pick the group that keeps the old label
+        int keep = -1;
+        long keepSize = -1;
+        for (int s = 0; s < searches; s++) {
+            int root = find(group, s);
+            if (!finished(root, searches)) {
+                keep = root;
+                break;
+            }
+            long pieceSize = pieceSize(root, searches);
+            if (pieceSize > keepSize) {
+                keep = root;
+                keepSize = pieceSize;
+            }
+        }
+        for (int s = 0; s < searches; s++) {
+            int root = find(group, s);
+            if (root != s || root == keep) continue;
+            int id = free.get(--freeCount);
+            for (int t = 0; t < searches; t++) {
+                if (find(group, t) != root) continue;
+                for (int i = 0; i < queueLength[t]; i++) {
+                    label.set(queues[t][i], id);
+                }
+                size.set(id, size.get(id) + queueLength[t]);
+                size.set(old, size.get(old) - queueLength[t]);
+            }
+        }
+    }
+
+    private int unfinishedGroups(int searches) {
+        int unfinished = 0;
+        for (int s = 0; s < searches; s++) {
+            if (find(group, s) == s && !finished(s, searches)) unfinished++;
+        }
+        return unfinished;
+    }
+
+    private boolean finished(int root, int searches) {
+        for (int s = 0; s < searches; s++) {
+            if (find(group, s) == root && head[s] < queueLength[s]) return false;
+        }
+        return true;
+    }
+
+    private long pieceSize(int root, int searches) {
+        long total = 0;
+        for (int s = 0; s < searches; s++) {
+            if (find(group, s) == root) total += queueLength[s];
+        }
+        return total;
+    }
+
+    private void push(int search, int cell) {
+        int[] queue = queues[search];
+        if (queue == null) {
+            queue = queues[search] = new int[64];
+        } else if (queueLength[search] == queue.length) {
+            queue = queues[search] = Arrays.copyOf(queue, Math.min(label.length(), queue.length * 2));
+        }
+        queue[queueLength[search]++] = cell;
+    }
+
+    // Moves every cell labelled from, reached through cells labelled from, to label to
+    private void relabel(GridGraph graph, int start, int from, int to) {
+        int[] queue = queues[0];
+        if (queue == null || queue.length < size.get(from)) {
+            queue = queues[0] = new int[Math.max(64, size.get(from))];
+        }
+        int qHead = 0, qTail = 0;
+        label.set(start, to);
+        queue[qTail++] = start;
+        while (qHead < qTail) {
+            int count = graph.getNeighbors(queue[qHead++], neighbors);
+            for (int i = 0; i < count; i++) {
+                if (label.get(neighbors[i]) == from) {
+                    label.set(neighbors[i], to);
+                    queue[qTail++] = neighbors[i];
+                }
+            }
+        }
+        size.set(to, size.get(to) + size.get(from));
+        size.set(from, 0);
+        free.set(freeCount++, from);
+    }
+
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) i = parent[i];
+        return i;
+    }
+
+    private static void join(int[] parent, int a, int b) {
+        a = find(parent, a);
+        b = find(parent, b);
+        if (a != b) parent[Math.max(a, b)] = Math.min(a, b);
+    }
+
+    // An int array in chunks of 4096 that copies share: copy() hands both sides the same
+    // chunks, and the first write to a chunk by either side gives that side its own
+    private static final class SharedInts {
+        private static final int SHIFT = 12;
+        private static final int MASK = (1 << SHIFT) - 1;
+
+        private final int length;
+        private final int[][] chunks;
+        private final boolean[] owned; // chunks only this array refers to
+
+        SharedInts(int length) {
+            this.length = length;
+            this.chunks = new int[(length + MASK) >>> SHIFT][];
+            this.owned = new boolean[chunks.length];
+            for (int c = 0; c < chunks.length; c++) {
+                chunks[c] = new int[Math.min(MASK + 1, length - (c << SHIFT))];
+                owned[c] = true;
+            }
+        }
+
+        private SharedInts(SharedInts source) {
+            this.length = source.length;
+            this.chunks = source.chunks.clone();
+            this.owned = new boolean[chunks.length];
+            Arrays.fill(source.owned, false);
+        }
+
+        SharedInts copy() {
+            return new SharedInts(this);
+        }
+
+        int length() {
+            return length;
+        }
+
+        int get(int i) {
+            return chunks[i >>> SHIFT][i & MASK];
+        }
+
+        void set(int i, int value) {
+            int c = i >>> SHIFT;
+            if (!owned[c]) {
+                chunks[c] = chunks[c].clone();
+                owned[c] = true;
+            }
+            chunks[c][i & MASK] = value;
+        }
+
+        void fill(int value) {
+            for (int c = 0; c < chunks.length; c++) {
+                if (!owned[c]) {
+                    chunks[c] = new int[chunks[c].length];
+                    owned[c] = true;
+                }
+                Arrays.fill(chunks[c], value);
+            }
+        }
+
+        int[] toArray() {
+            int[] values = new int[length];
+            for (int c = 0; c < chunks.length; c++) {
+                System.arraycopy(chunks[c], 0, values, c << SHIFT, chunks[c].length);
+            }
+            return values;
+        }
+    }
+}
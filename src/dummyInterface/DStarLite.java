@@ -0,0 +1,226 @@
+package dummyInterface;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// D* Lite planner for one chaser. It searches backwards from the goal (the player) and
+// keeps g/rhs values between calls, so later plans only repair the cells affected by
+// wall toggles (read from GridGraph's change log) and by the goal moving. A goal move
+// is treated as the edge costs from a virtual root changing: the old goal loses its
+// zero rhs and the new goal gains one.
+public class DStarLite {
+    private static final int INF = Integer.MAX_VALUE / 4;
+
+    private GridGraph graph;
+    private final int[] g;
+    private final int[] rhs;
+    private final IndexedMinHeap open;
+    private final int[] adjacent = new int[8];
+    private final int[] costNeighbors = new int[8];
+    private final int[] changes = new int[256];
+
+    private int start = -1;
+    private int lastStart = -1;
+    private int goal = -1;
+    private int km;
+    private long syncedVersion;
+    private long expansions;
+
+    public DStarLite(GridGraph graph) {
+        this.graph = graph;
+        this.g = new int[graph.size()];
+        this.rhs = new int[graph.size()];
+        this.open = new IndexedMinHeap(graph.size());
+    }
+
+    public GridGraph getGraph() {
+        return graph;
+    }
+
+    // The planner can carry on with a newer copy of the same map, such as a snapshot
+    // taken for a later tick, as long as the changes in between are still in its log
+    public boolean canPlanOn(GridGraph other) {
+        return other == graph
+            || (graph.sharesHistoryWith(other) && other.getVersion() >= syncedVersion);
+    }
+
+    public List<GridGraph.Node> plan(GridGraph current, GridGraph.Node from, GridGraph.Node to) {
+        if (!canPlanOn(current)) {
+            throw new IllegalArgumentException("Planner was built for a different map");
+        }
+        this.graph = current;
+        return plan(from, to);
+    }
+
+    // Total cells expanded over the planner's lifetime
+    public long getExpansions() {
+        return expansions;
+    }
+
+    public List<GridGraph.Node> plan(GridGraph.Node from, GridGraph.Node to) {
+        long started = Metrics.searchStart();
+        long before = expansions;
+        List<GridGraph.Node> path = search(from, to);
+        Metrics.recordSearch(Metrics.Planner.D_STAR_LITE, expansions - before, started);
+        return path;
+    }
+
+    private List<GridGraph.Node> search(GridGraph.Node from, GridGraph.Node to) {
+        if (from == null || to == null
+                || !graph.isInBounds(from.row, from.col) || !graph.isInBounds(to.row, to.col)) {
+            return new ArrayList<>();
+        }
+        int newStart = graph.indexOf(from.row, from.col);
+        int newGoal = graph.indexOf(to.row, to.col);
+
+        if (goal < 0) {
+            initialize(newStart, newGoal);
+        } else {
+            start = newStart;
+            km += heuristic(lastStart, start);
+            lastStart = start;
+            if (!applyWallChanges()) {
+                initialize(newStart, newGoal);
+            } else if (newGoal != goal) {
+                int oldGoal = goal;
+                goal = newGoal;
+                updateVertex(oldGoal);
+                updateVertex(goal);
+            }
+        }
+
+        computeShortestPath();
+        return extractPath();
+    }
+
+    private void initialize(int newStart, int newGoal) {
+        Arrays.fill(g, INF);
+        Arrays.fill(rhs, INF);
+        open.clear();
+        start = newStart;
+        lastStart = newStart;
+        goal = newGoal;
+        km = 0;
+        syncedVersion = graph.getVersion();
+        rhs[goal] = graph.isWall(goal) ? INF : 0;
+        if (rhs[goal] == 0) {
+            open.insertOrUpdate(goal, key(goal));
+        }
+    }
+
+    // Re-evaluates every cell around a changed wall; false if the log has overflowed
+    private boolean applyWallChanges() {
+        int count = graph.getChangesSince(syncedVersion, changes);
+        if (count < 0) return false;
+        syncedVersion = graph.getVersion();
+        for (int i = 0; i < count; i++) {
+            int cell = changes[i];
+            updateVertex(cell);
+            int adjacentCount = graph.getAdjacentCells(cell, adjacent);
+            for (int j = 0; j < adjacentCount; j++) {
+                updateVertex(adjacent[j]);
+            }
+        }
+        return true;
+    }
+
+    private void computeShortestPath() {
+        int[] neighbors = new int[8];
+        while (!open.isEmpty()
+                && (open.peekKey() < key(start) || rhs[start] > g[start])) {
+            int u = open.peek();
+            long oldKey = open.peekKey();
+            long newKey = key(u);
+            if (oldKey < newKey) {
+                open.insertOrUpdate(u, newKey);
+                continue;
+            }
+            expansions++;
+            if (g[u] > rhs[u]) {
+                // Overconsistent: settle it and relax its neighbours
+                g[u] = rhs[u];
+                open.remove(u);
+                int count = graph.getNeighbors(u, neighbors);
+                for (int i = 0; i < count; i++) {
+                    int s = neighbors[i];
+                    if (s != goal && g[u] + 1 < rhs[s]) {
+                        rhs[s] = g[u] + 1;
+                        queueIfInconsistent(s);
+                    }
+                }
+            } else {
+                // Underconsistent: invalidate it and re-evaluate everything that used it
+                g[u] = INF;
+                updateVertex(u);
+                int count = graph.getAdjacentCells(u, neighbors);
+                for (int i = 0; i < count; i++) {
+                    updateVertex(neighbors[i]);
+                }
+            }
+        }
+    }
+
+    private void updateVertex(int u) {
+        if (u != goal) {
+            rhs[u] = bestNeighborCost(u);
+        } else {
+            rhs[u] = graph.isWall(u) ? INF : 0;
+        }
+        queueIfInconsistent(u);
+    }
+
+    private void queueIfInconsistent(int u) {
+        if (g[u] != rhs[u]) {
+            open.insertOrUpdate(u, key(u));
+        } else {
+            open.remove(u);
+        }
+    }
+
+    private int bestNeighborCost(int u) {
+        if (graph.isWall(u)) return INF;
+        int best = INF;
+        int count = graph.getNeighbors(u, costNeighbors);
+        for (int i = 0; i < count; i++) {
+            best = Math.min(best, g[costNeighbors[i]] + 1);
+        }
+        return Math.min(best, INF);
+    }
+
+    private long key(int u) {
+        int k2 = Math.min(g[u], rhs[u]);
+        long k1 = k2 >= INF ? INF : (long) k2 + heuristic(start, u) + km;
+        return (k1 << 32) | k2;
+    }
+
+    private int heuristic(int a, int b) {
+        // Chebyshev distance: exact for 8-directional moves of cost 1
+        return Math.max(Math.abs(graph.rowOf(a) - graph.rowOf(b)),
+                        Math.abs(graph.colOf(a) - graph.colOf(b)));
+    }
+
+    private List<GridGraph.Node> extractPath() {
+        List<GridGraph.Node> path = new ArrayList<>();
+        // The start may be left overconsistent; rhs already holds its true distance
+        if (Math.min(g[start], rhs[start]) >= INF) return path;
+
+        int[] neighbors = new int[8];
+        int current = start;
+        while (current != goal && path.size() < graph.size()) {
+            int best = -1;
+            int bestCost = INF;
+            int count = graph.getNeighbors(current, neighbors);
+            for (int i = 0; i < count; i++) {
+                if (g[neighbors[i]] < bestCost) {
+                    bestCost = g[neighbors[i]];
+                    best = neighbors[i];
+                }
+            }
+            if (best < 0) break;
+            current = best;
+            path.add(graph.nodeAt(current));
+        }
+        return path;
+    }
+}
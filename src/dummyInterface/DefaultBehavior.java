@@ -3,8 +3,35 @@ package dummyInterface;
 import java.util.List;
 
 public class DefaultBehavior implements EnemyBehavior {
+    private boolean bidirectional;
+
+    public DefaultBehavior() {
+        this(false);
+    }
+
+    public DefaultBehavior(boolean bidirectional) {
+        this.bidirectional = bidirectional;
+    }
+
+    public void setBidirectional(boolean bidirectional) {
+        this.bidirectional = bidirectional;
+    }
+
     @Override
     public List<GridGraph.Node> calculatePath(GridGraph graph, GridGraph.Node start, GridGraph.Node target) {
-        return Pathfinding.bfs(graph, start, target);
+        return calculatePathWithTracking(graph, start, target).path;
+    }
+
+    @Override
+    public Pathfinding.PathResult calculatePathWithTracking(GridGraph graph, GridGraph.Node start,
+                                                            GridGraph.Node target) {
+        return bidirectional
+            ? Pathfinding.bidirectionalBfsWithTracking(graph, start, target)
+            : Pathfinding.bfsWithTracking(graph, start, target);
+    }
+
+    @Override
+    public boolean followsFlowField() {
+        return true;
     }
 }
\ No newline at end of file
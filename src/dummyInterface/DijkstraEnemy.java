@@ -9,9 +9,15 @@ public class DijkstraEnemy extends Enemy {
     public void updatePath(GridGraph graph, GridGraph.Node target) {
         GridGraph.Node start = graph.getNode(y, x);
         if (start != null && target != null) {
-            this.currentPath = Pathfinding.dijkstra(graph, start, target);
+            searchPath(bidirectional ? Pathfinding.Algorithm.BIDIRECTIONAL_DIJKSTRA : Pathfinding.Algorithm.DIJKSTRA,
+                graph, start, target);
         } else {
             this.currentPath.clear();
         }
     }
+
+    @Override
+    public boolean followsFlowField() {
+        return true;
+    }
 }
\ No newline at end of file
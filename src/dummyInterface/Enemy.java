@@ -1,6 +1,7 @@
 package dummyInterface;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -11,10 +12,16 @@ public abstract class Enemy {
     protected int x, y;
     protected List<GridGraph.Node> currentPath = new ArrayList<>();
     protected EnemyBehavior behavior;
-    protected Set<GridGraph.Node> lastExploredNodes = new HashSet<>();
+    protected Set<GridGraph.Node> lastExploredNodes = Collections.emptySet(); // replaced, never modified
+    // Search from both ends; the BFS/Dijkstra/A* enemies honour it in updatePath
+    protected boolean bidirectional;
+    // Shared by the game's enemies when set; see searchPath
+    protected PathCache pathCache;
     private String name;
     private Color color;
     private int activationRange = Integer.MAX_VALUE;
+    private String lastPlanner = "";
+    private long lastPlanNanos;
 
     public Enemy(int startX, int startY) {
         this.x = startX;
@@ -27,25 +34,39 @@ public abstract class Enemy {
     public void updatePath(GridGraph graph, GridGraph.Node target) {
         if (target == null) {
             currentPath.clear();
-            lastExploredNodes.clear();
+            lastExploredNodes = Collections.emptySet();
             return;
         }
 
         // Check if player is in activation range
         GridGraph.Node start = graph.getNode(y, x);
         if (start != null && isPlayerInRange(start, target)) {
-            List<GridGraph.Node> path = behavior.calculatePath(graph, start, target);
-            if (path != null) {
-                this.currentPath = path;
-                // No explored nodes available with this method
-                this.lastExploredNodes.clear();
+            Pathfinding.PathResult result = behavior.calculatePathWithTracking(graph, start, target);
+            if (result != null && result.path != null) {
+                this.currentPath = result.path;
+                this.lastExploredNodes = result.explored;
             } else {
                 this.currentPath.clear();
-                this.lastExploredNodes.clear();
+                this.lastExploredNodes = Collections.emptySet();
             }
         } else {
             this.currentPath.clear();
-            this.lastExploredNodes.clear();
+            this.lastExploredNodes = Collections.emptySet();
+        }
+    }
+
+    public boolean followsFlowField() {
+        return behavior.followsFlowField();
+    }
+
+    // Takes the path straight from a field built towards the target; no search involved
+    public void followFlowField(FlowField field) {
+        lastExploredNodes = Collections.emptySet();
+        GridGraph.Node target = field.getTarget();
+        if (isPlayerInRange(new GridGraph.Node(y, x), target)) {
+            this.currentPath = field.pathFrom(y, x);
+        } else {
+            this.currentPath.clear();
         }
     }
 
@@ -68,6 +89,27 @@ public abstract class Enemy {
         }
     }
 
+    // Planning stats, filled in by GameLogic each tick
+    void recordPlan(String planner, long nanos) {
+        this.lastPlanner = planner;
+        this.lastPlanNanos = nanos;
+    }
+
+    public String getLastPlanner() {
+        return lastPlanner;
+    }
+
+    public long getLastPlanNanos() {
+        return lastPlanNanos;
+    }
+
+    // Which search updatePath runs, e.g. "BFS" for a BFSEnemy
+    public String getPlannerName() {
+        return getClass().isAnonymousClass()
+            ? getBehaviorName()
+            : getClass().getSimpleName().replace("Enemy", "");
+    }
+
     // Behavior management
     public void setBehavior(EnemyBehavior behavior) {
         this.behavior = behavior;
@@ -82,11 +124,41 @@ public abstract class Enemy {
         return behavior;
     }
 
+    public void setBidirectional(boolean bidirectional) {
+        this.bidirectional = bidirectional;
+    }
+
+    public boolean isBidirectional() {
+        return bidirectional;
+    }
+
+    public void setPathCache(PathCache pathCache) {
+        this.pathCache = pathCache;
+    }
+
+    // Fills in currentPath with the given search, through the path cache when there is
+    // one; cached paths come without explored cells, fresh searches with them
+    protected void searchPath(Pathfinding.Algorithm algorithm, GridGraph graph,
+                              GridGraph.Node start, GridGraph.Node target) {
+        if (pathCache != null) {
+            this.currentPath = pathCache.findPath(algorithm, graph, start, target);
+            this.lastExploredNodes = Collections.emptySet();
+        } else {
+            Pathfinding.PathResult result = Pathfinding.findPathWithTracking(algorithm, graph, start, target);
+            this.currentPath = result.path;
+            this.lastExploredNodes = result.explored;
+        }
+    }
+
     // Visualization accessors
     public Set<GridGraph.Node> getLastExploredNodes() {
         return new HashSet<>(lastExploredNodes);
     }
 
+    public int getPathLength() {
+        return currentPath.size();
+    }
+
     public List<GridGraph.Node> getCurrentPath() {
         return new ArrayList<>(currentPath);
     }
@@ -1,7 +1,21 @@
 package dummyInterface;
 
+import java.util.Collections;
 import java.util.List;
 
 public interface EnemyBehavior {
     List<GridGraph.Node> calculatePath(GridGraph graph, GridGraph.Node start, GridGraph.Node target);
+
+    // The path plus the cells the search explored, for the explored overlay; behaviours
+    // whose search doesn't track them report none
+    default Pathfinding.PathResult calculatePathWithTracking(GridGraph graph, GridGraph.Node start,
+                                                             GridGraph.Node target) {
+        return new Pathfinding.PathResult(calculatePath(graph, start, target), Collections.emptySet());
+    }
+
+    // True if the behaviour only ever wants a shortest path to the player, so it can
+    // steer by the shared flow field instead of running its own search
+    default boolean followsFlowField() {
+        return false;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,151 @@
+package dummyInterface;
+
+import java.util.AbstractList;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+// Shortest-path field towards one target cell, built with a single BFS from the target.
+// Moves cost the same in both directions, so each cell's BFS parent is its next step
+// towards the target and every enemy can read its move in O(1) instead of searching.
+// A field is immutable once built.
+public class FlowField {
+    private final GridGraph graph;
+    private final int target;
+    private final int[] next;     // next cell towards the target
+    private final int[] distance; // steps to the target + 1, 0 when not reached
+
+    private FlowField(GridGraph graph, int target) {
+        this.graph = graph;
+        this.target = target;
+        this.next = new int[graph.size()];
+        this.distance = new int[graph.size()];
+    }
+
+    // Floods out from the target until every cell in sources has been reached (or the
+    // component is exhausted), so the cost is bounded by the farthest source. A null
+    // sources array floods the whole component.
+    public static FlowField build(GridGraph graph, GridGraph.Node target, int[] sources) {
+        long started = Metrics.searchStart();
+        FlowField field = new FlowField(graph, graph.indexOf(target.row, target.col));
+        if (graph.isWall(field.target)) {
+            return field;
+        }
+
+        BitSet pendingSources = new BitSet(graph.size());
+        int pending = Integer.MAX_VALUE;
+        if (sources != null) {
+            for (int source : sources) {
+                pendingSources.set(source);
+            }
+            pendingSources.clear(field.target);
+            pending = pendingSources.cardinality();
+        }
+
+        int[] queue = new int[graph.size()];
+        int[] neighbors = new int[8];
+        int head = 0, tail = 0;
+        queue[tail++] = field.target;
+        field.distance[field.target] = 1;
+        field.next[field.target] = -1;
+
+        while (head < tail && pending > 0) {
+            int current = queue[head++];
+            int count = graph.getNeighbors(current, neighbors);
+            for (int i = 0; i < count; i++) {
+                int neighbor = neighbors[i];
+                if (field.distance[neighbor] == 0) {
+                    field.distance[neighbor] = field.distance[current] + 1;
+                    field.next[neighbor] = current;
+                    queue[tail++] = neighbor;
+                    if (pendingSources.get(neighbor)) pending--;
+                }
+            }
+        }
+        Metrics.recordSearch(Metrics.Planner.FLOW_FIELD, head, started);
+        return field;
+    }
+
+    public GridGraph.Node getTarget() {
+        return graph.nodeAt(target);
+    }
+
+    public boolean isReachable(int row, int col) {
+        return graph.isInBounds(row, col) && distance[graph.indexOf(row, col)] != 0;
+    }
+
+    // Steps from (row, col) to the target, or -1 if the target can't be reached
+    public int distanceFrom(int row, int col) {
+        return isReachable(row, col) ? distance[graph.indexOf(row, col)] - 1 : -1;
+    }
+
+    public GridGraph.Node nextStep(int row, int col) {
+        if (!isReachable(row, col)) return null;
+        int cell = graph.indexOf(row, col);
+        return cell == target ? null : graph.nodeAt(next[cell]);
+    }
+
+    // Path from (row, col) to the target (start excluded, like the search results). The
+    // list follows the field lazily, so taking the first step and dropping it are O(1).
+    public List<GridGraph.Node> pathFrom(int row, int col) {
+        return new FieldPath(isReachable(row, col) ? graph.indexOf(row, col) : target);
+    }
+
+    private class FieldPath extends AbstractList<GridGraph.Node> {
+        private int from; // path starts at the cell after this one
+
+        FieldPath(int from) {
+            this.from = from;
+        }
+
+        @Override
+        public GridGraph.Node get(int index) {
+            if (index < 0 || index >= size()) throw new IndexOutOfBoundsException("Index: " + index);
+            int cell = next[from];
+            for (int i = 0; i < index; i++) {
+                cell = next[cell];
+            }
+            return graph.nodeAt(cell);
+        }
+
+        @Override
+        public Iterator<GridGraph.Node> iterator() {
+            return new Iterator<>() {
+                private int cell = from;
+                private int remaining = size();
+
+                @Override
+                public boolean hasNext() {
+                    return remaining > 0;
+                }
+
+                @Override
+                public GridGraph.Node next() {
+                    if (remaining <= 0) throw new NoSuchElementException();
+                    remaining--;
+                    cell = next[cell];
+                    return graph.nodeAt(cell);
+                }
+            };
+        }
+
+        @Override
+        public GridGraph.Node remove(int index) {
+            if (index != 0) throw new UnsupportedOperationException("Field paths are consumed from the front");
+            if (isEmpty()) throw new NoSuchElementException();
+            from = next[from];
+            return graph.nodeAt(from);
+        }
+
+        @Override
+        public void clear() {
+            from = target;
+        }
+
+        @Override
+        public int size() {
+            return Math.max(0, distance[from] - 1);
+        }
+    }
+}
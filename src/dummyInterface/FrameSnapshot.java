@@ -0,0 +1,62 @@
+package dummyInterface;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+// Immutable picture of the game after one simulation step. The simulation thread builds
+// it and the UI only ever renders from it, so neither side has to lock the GameLogic.
+public class FrameSnapshot {
+    public final long sequence;
+    public final long publishedNanos;
+    public final GridGraph graph; // read-only snapshot
+    public final int playerX, playerY;
+    public final List<EnemyFrame> enemies;
+    public final GameLogic.GameMode mode;
+    public final GridGraph.Node exitNode; // null unless in ESCAPE mode
+    public final boolean gameOver;
+    public final int remainingTime;
+
+    public static class EnemyFrame {
+        public final int x, y;
+        public final String behaviorName;
+        public final List<GridGraph.Node> path;
+        public final Set<GridGraph.Node> explored;
+
+        EnemyFrame(Enemy enemy, boolean includePath, boolean includeExplored) {
+            this.x = enemy.getX();
+            this.y = enemy.getY();
+            this.behaviorName = enemy.getBehaviorName();
+            // The enemy keeps consuming its path on later ticks, so take a copy
+            this.path = includePath
+                ? Collections.unmodifiableList(new ArrayList<>(enemy.getCurrentPath()))
+                : Collections.emptyList();
+            this.explored = includeExplored
+                ? Collections.unmodifiableSet(enemy.getLastExploredNodes())
+                : Collections.emptySet();
+        }
+    }
+
+    private FrameSnapshot(GameLogic game, long sequence, boolean includePaths, boolean includeExplored) {
+        this.sequence = sequence;
+        this.graph = game.getGraphSnapshot();
+        this.playerX = game.getPlayerX();
+        this.playerY = game.getPlayerY();
+        List<EnemyFrame> enemyFrames = new ArrayList<>();
+        for (Enemy enemy : game.getEnemies()) {
+            enemyFrames.add(new EnemyFrame(enemy, includePaths, includeExplored));
+        }
+        this.enemies = Collections.unmodifiableList(enemyFrames);
+        this.mode = game.getMode();
+        this.exitNode = game.getExitNode();
+        this.gameOver = game.isGameOver();
+        this.remainingTime = game.getRemainingTime();
+        this.publishedNanos = System.nanoTime();
+    }
+
+    // Must be called on the thread that owns the GameLogic
+    static FrameSnapshot capture(GameLogic game, long sequence, boolean includePaths, boolean includeExplored) {
+        return new FrameSnapshot(game, sequence, includePaths, includeExplored);
+    }
+}
@@ -1,12 +1,16 @@
 package dummyInterface;
 
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 
 public class GameLogic {
     public enum Difficulty {
         EASY,  // Only BFS
         MEDIUM, // BFS + Dijkstra
-        HARD   // All 3 algorithms
+        HARD,   // All 3 algorithms
+        EXPERT  // All 3 plus an incremental D* Lite planner
     }
 
     public enum GameMode {
@@ -15,6 +19,13 @@ public class GameLogic {
         TIME_TRIAL  // Survive for X seconds
     }
 
+    // One thread for every game's distance tables; see buildDistanceTables
+    private static final ExecutorService TABLE_BUILDER = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "distance-tables");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     private GridGraph graph;
     private int playerX, playerY;
     private boolean gameOver = false;
@@ -24,6 +35,14 @@ public class GameLogic {
     private GridGraph.Node exitNode;
     private long gameStartTime;
     private int timeTrialDuration = 120; // 2 minutes in seconds
+    private boolean flowFieldEnabled = false;
+    private boolean bidirectional = false;
+    // Shared by all enemies and kept across ticks; null searches afresh every time
+    private PathCache pathCache = new PathCache(PathCache.DEFAULT_CAPACITY);
+    // Enemy planning runs on this pool when set; null plans on the calling thread
+    private ForkJoinPool planningPool;
+    private boolean ownsPlanningPool; // false for a pool handed in by setPlanningPool
+    private GridGraph planningSnapshot;
 
     public GameLogic(int rows, int cols) {
         this.graph = new GridGraph(rows, cols);
@@ -38,7 +57,8 @@ public class GameLogic {
         int[][] preferredPositions = {
             {graph.getCols() - 1, graph.getRows() - 1}, // Bottom-right
             {0, graph.getRows() - 1},                  // Bottom-left
-            {graph.getCols() / 2, graph.getRows() / 2} // Center
+            {graph.getCols() / 2, graph.getRows() / 2}, // Center
+            {graph.getCols() - 1, 0}                   // Top-right
         };
 
         switch (difficulty) {
@@ -54,7 +74,14 @@ public class GameLogic {
                 enemies.add(createEnemy(DijkstraEnemy.class, preferredPositions[1]));
                 enemies.add(createEnemy(AStarEnemy.class, preferredPositions[2]));
                 break;
+            case EXPERT:
+                enemies.add(createEnemy(BFSEnemy.class, preferredPositions[0]));
+                enemies.add(createEnemy(DijkstraEnemy.class, preferredPositions[1]));
+                enemies.add(createEnemy(AStarEnemy.class, preferredPositions[2]));
+                enemies.add(createEnemy(DStarLiteEnemy.class, preferredPositions[3]));
+                break;
         }
+        configureEnemies();
     }
 
     private Enemy createEnemy(Class<? extends Enemy> enemyClass, int[] position) {
@@ -112,6 +139,38 @@ public class GameLogic {
             this.playerX = 0;
             this.playerY = 0;
             initializeEnemies();
+            return;
+        }
+        buildDistanceTables();
+    }
+
+    // Loaded levels stay as they are unless the player edits them, so enemy searches can
+    // lean on tables built for them; a wall change makes the graph stop handing them out.
+    // Building takes a BFS per landmark (and per open cell for next hops), so it runs in
+    // the background on a snapshot and the game searches without tables until it's done.
+    private void buildDistanceTables() {
+        GridGraph target = graph;
+        if (target.getLandmarks() != null
+                && (target.getNextHops() != null || !NextHopTable.fits(target))) {
+            return; // a copy or a cached level that came with them
+        }
+        GridGraph snapshot = target.snapshot();
+        TABLE_BUILDER.execute(() -> {
+            if (target.getVersion() != snapshot.getVersion()) return; // edited already
+            attachDistanceTables(snapshot);
+            target.setLandmarks(snapshot.getLandmarks());
+            target.setNextHops(snapshot.getNextHops());
+        });
+    }
+
+    // Builds whichever tables the graph doesn't already have for its current walls (a
+    // level from the LevelCache comes with them)
+    static void attachDistanceTables(GridGraph graph) {
+        if (graph.getLandmarks() == null) {
+            graph.setLandmarks(LandmarkTable.build(graph, LandmarkTable.DEFAULT_LANDMARKS));
+        }
+        if (graph.getNextHops() == null && NextHopTable.fits(graph)) {
+            graph.setNextHops(NextHopTable.build(graph));
         }
     }
 
@@ -121,26 +180,11 @@ public class GameLogic {
             return false;
         }
 
-        // Run BFS from player to check if enemies are reachable
-        Set<GridGraph.Node> reachable = new HashSet<>();
-        Queue<GridGraph.Node> queue = new LinkedList<>();
-        queue.add(playerNode);
-        reachable.add(playerNode);
-
-        while (!queue.isEmpty()) {
-            GridGraph.Node current = queue.poll();
-            for (GridGraph.Node neighbor : graph.getNeighbors(current)) {
-                if (!reachable.contains(neighbor)) {
-                    reachable.add(neighbor);
-                    queue.add(neighbor);
-                }
-            }
-        }
-
-        // Check if all enemies are in reachable nodes
+        // Every enemy has to share the player's component
+        int playerIndex = graph.indexOf(playerNode.row, playerNode.col);
         for (Enemy enemy : enemies) {
-            GridGraph.Node enemyNode = graph.getNode(enemy.getY(), enemy.getX());
-            if (!reachable.contains(enemyNode)) {
+            if (!graph.isInBounds(enemy.getY(), enemy.getX())
+                    || !graph.sameComponent(playerIndex, graph.indexOf(enemy.getY(), enemy.getX()))) {
                 return false;
             }
         }
@@ -187,6 +231,10 @@ public class GameLogic {
         resetGame();
     }
 
+    public GridGraph.Node getExitNode() {
+        return mode == GameMode.ESCAPE ? exitNode : null;
+    }
+
     public GameMode getMode() {
         return mode;
     }
@@ -257,14 +305,68 @@ public class GameLogic {
 
     public void moveEnemies() {
         if (gameOver) return;
+        long tickStart = Metrics.isEnabled() ? System.nanoTime() : 0;
 
         GridGraph.Node playerNode = graph.getNode(playerY, playerX);
+        // Enemies don't block each other, so planning everyone first and then moving in
+        // list order gives the same result as planning and moving one at a time
+        if (planningPool != null) {
+            GridGraph snapshot = getGraphSnapshot();
+            FlowField field = flowFieldEnabled ? buildFlowField(snapshot, playerNode) : null;
+            planningPool.submit(() ->
+                enemies.parallelStream().forEach(enemy -> planEnemy(enemy, snapshot, playerNode, field))
+            ).join();
+        } else {
+            FlowField field = flowFieldEnabled ? buildFlowField(graph, playerNode) : null;
+            for (Enemy enemy : enemies) {
+                planEnemy(enemy, graph, playerNode, field);
+            }
+        }
         for (Enemy enemy : enemies) {
-            enemy.updatePath(graph, playerNode);
             enemy.move();
         }
         
         checkGameConditions();
+        if (tickStart != 0) {
+            Metrics.TICKS.increment();
+            Metrics.TICK_TIME.record(System.nanoTime() - tickStart);
+        }
+    }
+
+    private static void planEnemy(Enemy enemy, GridGraph graph, GridGraph.Node playerNode, FlowField field) {
+        long start = System.nanoTime();
+        if (field != null && enemy.followsFlowField()) {
+            enemy.followFlowField(field);
+            enemy.recordPlan("FlowField", System.nanoTime() - start);
+        } else {
+            enemy.updatePath(graph, playerNode);
+            enemy.recordPlan(enemy.getPlannerName(), System.nanoTime() - start);
+        }
+        if (Metrics.isEnabled()) {
+            Metrics.recordPlan(enemy.getLastPlanner(), enemy.getLastPlanNanos(), enemy.getPathLength());
+        }
+    }
+
+    // One search from the player shared by every enemy that just wants the shortest path
+    private FlowField buildFlowField(GridGraph map, GridGraph.Node playerNode) {
+        int[] sources = enemies.stream()
+            .filter(Enemy::followsFlowField)
+            .filter(e -> map.isInBounds(e.getY(), e.getX()))
+            .mapToInt(e -> map.indexOf(e.getY(), e.getX()))
+            .toArray();
+        return FlowField.build(map, playerNode, sources);
+    }
+
+    // Read-only copy for planning threads and renderers, retaken only after walls change
+    // or once the background build has attached distance tables
+    public GridGraph getGraphSnapshot() {
+        if (planningSnapshot == null || !planningSnapshot.sharesHistoryWith(graph)
+                || planningSnapshot.getVersion() != graph.getVersion()
+                || planningSnapshot.getLandmarks() != graph.getLandmarks()
+                || planningSnapshot.getNextHops() != graph.getNextHops()) {
+            planningSnapshot = graph.snapshot();
+        }
+        return planningSnapshot;
     }
 
     private void checkGameConditions() {
@@ -305,4 +407,79 @@ public class GameLogic {
     public void setTimeTrialDuration(int seconds) {
         this.timeTrialDuration = seconds;
     }
+
+    public boolean isFlowFieldEnabled() {
+        return flowFieldEnabled;
+    }
+
+    public void setFlowFieldEnabled(boolean enabled) {
+        this.flowFieldEnabled = enabled;
+    }
+
+    public boolean isBidirectional() {
+        return bidirectional;
+    }
+
+    // Switches every enemy's search, and the BFS behaviours', to the bidirectional variant
+    public void setBidirectional(boolean bidirectional) {
+        this.bidirectional = bidirectional;
+        configureEnemies();
+    }
+
+    public PathCache getPathCache() {
+        return pathCache;
+    }
+
+    // Null turns caching off, e.g. while the explored overlay needs every search to run
+    public void setPathCache(PathCache pathCache) {
+        this.pathCache = pathCache;
+        configureEnemies();
+    }
+
+    private void configureEnemies() {
+        for (Enemy enemy : enemies) {
+            enemy.setPathCache(pathCache);
+            enemy.setBidirectional(bidirectional);
+            if (enemy.getBehavior() instanceof DefaultBehavior) {
+                ((DefaultBehavior) enemy.getBehavior()).setBidirectional(bidirectional);
+            } else if (enemy.getBehavior() instanceof LazyBehavior) {
+                ((LazyBehavior) enemy.getBehavior()).setBidirectional(bidirectional);
+            }
+        }
+    }
+
+    public boolean isParallelPlanning() {
+        return planningPool != null;
+    }
+
+    // Plans enemies on a pool of the given size; 1 or less plans on the calling thread.
+    // A pool that already has that many threads is kept, workers and all
+    public void setPlanningThreads(int threads) {
+        if (planningPool != null ? planningPool.getParallelism() == threads : threads <= 1) return;
+        if (planningPool != null && ownsPlanningPool) {
+            planningPool.shutdown();
+        }
+        planningPool = threads > 1 ? new ForkJoinPool(threads) : null;
+        ownsPlanningPool = true;
+    }
+
+    // Plans enemies on a pool the caller keeps and shuts down, e.g. one shared by a run of
+    // games; null plans on the calling thread
+    void setPlanningPool(ForkJoinPool pool) {
+        if (planningPool != null && ownsPlanningPool && planningPool != pool) {
+            planningPool.shutdown();
+        }
+        planningPool = pool;
+        ownsPlanningPool = false;
+    }
+
+    public void addEnemy(Enemy enemy) {
+        enemy.setPathCache(pathCache);
+        enemy.setBidirectional(bidirectional);
+        enemies.add(enemy);
+    }
+
+    public void clearEnemies() {
+        enemies.clear();
+    }
 }
\ No newline at end of file
@@ -1,29 +1,26 @@
 package dummyInterface;
 
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
+import javafx.animation.AnimationTimer;
 import javafx.application.Application;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
 import javafx.scene.Scene;
-import javafx.scene.canvas.Canvas;
-import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.control.*;
 import javafx.scene.input.MouseButton;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.HBox;
+import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
-import javafx.scene.paint.Color;
 import javafx.stage.Stage;
-import javafx.util.Duration;
 
 public class GraphChaseUI extends Application {
     private static final int GRID_SIZE = 15;
     private static final int CELL_SIZE = 40;
-    private GameLogic gameLogic;
+    private static final int VIEWPORT_SIZE = 600;
+    private SimulationLoop simulation;
+    private AnimationTimer renderer;
     private boolean gameOver = false;
-    private boolean showPaths = false;
-    private boolean showExplored = false;
-    private boolean showBehaviorInfo = true;
-    private Timeline gameLoop;
+    private boolean redrawRequested = false;
 
     @Override
     public void start(Stage primaryStage) {
@@ -54,7 +51,7 @@ public class GraphChaseUI extends Application {
     }
 
     private void launchGame(Stage primaryStage, GridGraph customGrid) {
-        gameLogic = new GameLogic(GRID_SIZE, GRID_SIZE);
+        GameLogic gameLogic = new GameLogic(GRID_SIZE, GRID_SIZE);
         
         // If custom grid provided, use it
         if (customGrid != null) {
@@ -63,52 +60,102 @@ public class GraphChaseUI extends Application {
         }
         
         gameOver = false;
-        showPaths = false;
-        showExplored = false;
+
+        // The game logic is owned by the simulation thread from here on; the UI only
+        // sends it commands and renders the frames it publishes
+        if (simulation != null) {
+            simulation.shutdown();
+        }
+        simulation = new SimulationLoop(gameLogic, 500);
+        SimulationLoop sim = simulation;
 
         BorderPane root = new BorderPane();
-        Canvas canvas = new Canvas(GRID_SIZE * CELL_SIZE, GRID_SIZE * CELL_SIZE);
-        GraphicsContext gc = canvas.getGraphicsContext2D();
-        drawGrid(gc);
+        GridGraph startGraph = gameLogic.getGraph();
+        GridRenderer gridRenderer = new GridRenderer(VIEWPORT_SIZE, VIEWPORT_SIZE, CELL_SIZE);
+        MetricsOverlay metricsOverlay = new MetricsOverlay(VIEWPORT_SIZE, VIEWPORT_SIZE);
+        gridRenderer.fitToView(startGraph.getRows(), startGraph.getCols());
+        Label timerLabel = new Label();
+        Label statsLabel = new Label();
 
-        // Game loop - updates every 500ms
-        gameLoop = new Timeline(new KeyFrame(Duration.millis(500), e -> {
-            if (!gameOver) {
-                gameLogic.moveEnemies();
-                if (gameLogic.isGameOver()) {
-                    gameOver = true;
-                    showGameOverDialog();
+        // Render loop - paints the newest frame, at most once per screen refresh
+        if (renderer != null) {
+            renderer.stop();
+        }
+        renderer = new AnimationTimer() {
+            private FrameSnapshot lastDrawn;
+
+            @Override
+            public void handle(long now) {
+                FrameSnapshot frame = sim.latestFrame();
+                if (frame == null) return;
+                if (frame != lastDrawn || redrawRequested) {
+                    redrawRequested = false;
+                    gridRenderer.render(frame);
+                    sim.frameRendered(frame);
+                    updateTimer(timerLabel, frame);
+                    // Only react to the game ending, not to frames that were already over
+                    boolean wasOver = lastDrawn != null && lastDrawn.gameOver;
+                    lastDrawn = frame;
+                    gameOver = frame.gameOver;
+                    if (frame.gameOver && !wasOver) {
+                        boolean survived = frame.mode == GameLogic.GameMode.TIME_TRIAL && frame.remainingTime <= 0;
+                        showGameOverDialog(frame, survived);
+                    }
                 }
-                drawGrid(gc);
+                statsLabel.setText(String.format("Tick %.1f ms (avg %.1f, max %.1f) | Frame latency %.1f ms | Dropped %d"
+                        + " | Render %.2f ms, %d cells",
+                    sim.getLastTickMillis(), sim.getAverageTickMillis(), sim.getMaxTickMillis(),
+                    sim.getLastFrameLatencyMillis(), sim.getDroppedFrames(),
+                    gridRenderer.getLastRenderMillis(), gridRenderer.getLastDirtyCells()));
+                metricsOverlay.update(now);
             }
-        }));
-        gameLoop.setCycleCount(Timeline.INDEFINITE);
-        gameLoop.play();
+        };
+        renderer.start();
+
+        // Game loop - updates every 500ms on the simulation thread
+        sim.start();
+        primaryStage.setOnHidden(e -> {
+            renderer.stop();
+            sim.shutdown();
+            Metrics.setEnabled(false);
+        });
 
-        // Mouse controls
-        canvas.setOnMouseClicked(e -> {
-            if (gameOver) return;
+        // Mouse controls - left moves, right toggles a wall, scroll zooms, middle-drag pans
+        Node gridView = gridRenderer.getView();
+        gridView.setOnMouseClicked(e -> {
+            if (gameOver || !e.isStillSincePress()) return;
 
-            int col = (int) (e.getX() / CELL_SIZE);
-            int row = (int) (e.getY() / CELL_SIZE);
+            int[] cell = gridRenderer.cellAt(e.getX(), e.getY());
+            if (cell == null) return;
+            int row = cell[0];
+            int col = cell[1];
 
             if (e.getButton() == MouseButton.PRIMARY) {
-                gameLogic.movePlayer(row, col);
-                drawGrid(gc);
+                sim.submit(game -> game.movePlayer(row, col));
             } else if (e.getButton() == MouseButton.SECONDARY) {
-                gameLogic.toggleWall(row, col);
-                drawGrid(gc);
+                sim.submit(game -> game.toggleWall(row, col));
             }
         });
+        gridView.setOnScroll(e -> {
+            gridRenderer.zoom(e.getDeltaY() > 0 ? 1 : -1, e.getX(), e.getY());
+            redrawRequested = true;
+        });
+        double[] dragStart = new double[2];
+        gridView.setOnMousePressed(e -> {
+            dragStart[0] = e.getX();
+            dragStart[1] = e.getY();
+        });
+        gridView.setOnMouseDragged(e -> {
+            if (e.getButton() != MouseButton.MIDDLE) return;
+            gridRenderer.pan(dragStart[0] - e.getX(), dragStart[1] - e.getY());
+            dragStart[0] = e.getX();
+            dragStart[1] = e.getY();
+            redrawRequested = true;
+        });
 
         // Game controls
         Button resetButton = new Button("Reset");
-        resetButton.setOnAction(e -> {
-            gameLogic.resetGame();
-            gameOver = false;
-            drawGrid(gc);
-            gameLoop.play();
-        });
+        resetButton.setOnAction(e -> sim.submit(GameLogic::resetGame));
         
         // Level info label
         Label levelInfo = new Label(customGrid != null ? "Custom Level" : "Default Level");
@@ -116,21 +163,54 @@ public class GraphChaseUI extends Application {
         // Visualization toggles
         CheckBox pathToggle = new CheckBox("Show Paths");
         pathToggle.setOnAction(e -> {
-            showPaths = pathToggle.isSelected();
-            drawGrid(gc);
+            gridRenderer.setShowPaths(pathToggle.isSelected());
+            sim.setCapturePaths(pathToggle.isSelected());
+            sim.requestFrame();
         });
 
         CheckBox exploredToggle = new CheckBox("Show Explored");
         exploredToggle.setOnAction(e -> {
-            showExplored = exploredToggle.isSelected();
-            drawGrid(gc);
+            boolean show = exploredToggle.isSelected();
+            gridRenderer.setShowExplored(show);
+            sim.setCaptureExplored(show);
+            // Cached paths come without explored cells, so enemies search afresh while shown
+            PathCache cache = show ? null : new PathCache(PathCache.DEFAULT_CAPACITY);
+            sim.submit(game -> game.setPathCache(cache));
+            sim.requestFrame();
         });
 
         CheckBox behaviorToggle = new CheckBox("Show Behaviors");
         behaviorToggle.setSelected(true);
         behaviorToggle.setOnAction(e -> {
-            showBehaviorInfo = behaviorToggle.isSelected();
-            drawGrid(gc);
+            gridRenderer.setShowBehaviorInfo(behaviorToggle.isSelected());
+            redrawRequested = true;
+        });
+
+        Button fitButton = new Button("Fit");
+        fitButton.setOnAction(e -> {
+            GridGraph graph = sim.latestFrame() != null ? sim.latestFrame().graph : startGraph;
+            gridRenderer.fitToView(graph.getRows(), graph.getCols());
+            redrawRequested = true;
+        });
+
+        CheckBox flowFieldToggle = new CheckBox("Flow Field");
+        flowFieldToggle.setOnAction(e -> {
+            boolean enabled = flowFieldToggle.isSelected();
+            sim.submit(game -> game.setFlowFieldEnabled(enabled));
+        });
+
+        CheckBox bidirectionalToggle = new CheckBox("Bidirectional");
+        bidirectionalToggle.setOnAction(e -> {
+            boolean enabled = bidirectionalToggle.isSelected();
+            sim.submit(game -> game.setBidirectional(enabled));
+        });
+
+        CheckBox metricsToggle = new CheckBox("Metrics");
+        metricsToggle.setOnAction(e -> {
+            boolean enabled = metricsToggle.isSelected();
+            if (enabled) Metrics.reset();
+            Metrics.setEnabled(enabled);
+            metricsOverlay.setShown(enabled);
         });
 
         // Difficulty selection
@@ -138,9 +218,8 @@ public class GraphChaseUI extends Application {
         difficultyBox.getItems().addAll(GameLogic.Difficulty.values());
         difficultyBox.setValue(GameLogic.Difficulty.MEDIUM);
         difficultyBox.setOnAction(e -> {
-            gameLogic.setDifficulty(difficultyBox.getValue());
-            gameOver = false;
-            drawGrid(gc);
+            GameLogic.Difficulty difficulty = difficultyBox.getValue();
+            sim.submit(game -> game.setDifficulty(difficulty));
         });
 
         // Game mode selection
@@ -148,9 +227,8 @@ public class GraphChaseUI extends Application {
         modeBox.getItems().addAll(GameLogic.GameMode.values());
         modeBox.setValue(GameLogic.GameMode.CHASE);
         modeBox.setOnAction(e -> {
-            gameLogic.setMode(modeBox.getValue());
-            gameOver = false;
-            drawGrid(gc);
+            GameLogic.GameMode mode = modeBox.getValue();
+            sim.submit(game -> game.setMode(mode));
         });
 
         // Behavior selection
@@ -159,33 +237,17 @@ public class GraphChaseUI extends Application {
         behaviorBox.setValue("Default");
         behaviorBox.setOnAction(e -> {
             String selected = behaviorBox.getValue();
-            gameLogic.getEnemies().forEach(enemy -> {
+            sim.submit(game -> game.getEnemies().forEach(enemy -> {
                 switch (selected) {
                     case "Aggressive": enemy.setBehavior(new AggressiveBehavior()); break;
                     case "Cautious": enemy.setBehavior(new CautiousBehavior()); break;
                     case "Hunter": enemy.setBehavior(new HunterBehavior()); break;
-                    case "Lazy": enemy.setBehavior(new LazyBehavior()); break;
-                    default: enemy.setBehavior(new DefaultBehavior()); break;
+                    case "Lazy": enemy.setBehavior(new LazyBehavior(game.isBidirectional())); break;
+                    default: enemy.setBehavior(new DefaultBehavior(game.isBidirectional())); break;
                 }
-            });
-            drawGrid(gc);
+            }));
         });
 
-        // Timer display (for TIME_TRIAL mode)
-        Label timerLabel = new Label();
-        Timeline timer = new Timeline(new KeyFrame(Duration.seconds(1), e -> {
-            if (gameLogic.getMode() == GameLogic.GameMode.TIME_TRIAL && !gameOver) {
-                int remaining = gameLogic.getRemainingTime();
-                timerLabel.setText(String.format("Time: %02d:%02d", remaining / 60, remaining % 60));
-                if (remaining <= 0) {
-                    gameOver = true;
-                    showGameOverDialog(true);
-                }
-            }
-        }));
-        timer.setCycleCount(Timeline.INDEFINITE);
-        timer.play();
-
         // Control panel layout
         HBox topControls = new HBox(10,
             new VBox(5, new Label("Difficulty:"), difficultyBox),
@@ -195,143 +257,43 @@ public class GraphChaseUI extends Application {
         );
 
         HBox bottomControls = new HBox(10,
-            resetButton, pathToggle, exploredToggle, behaviorToggle, timerLabel
+            resetButton, fitButton, pathToggle, exploredToggle, behaviorToggle, flowFieldToggle,
+            bidirectionalToggle, metricsToggle, timerLabel
         );
 
-        VBox controls = new VBox(10, topControls, bottomControls);
+        VBox controls = new VBox(10, topControls, bottomControls, statsLabel);
         controls.setStyle("-fx-padding: 10; -fx-alignment: center;");
 
-        root.setCenter(canvas);
+        // Metrics overlay sits on top of the grid and lets mouse events through
+        StackPane gridStack = new StackPane(gridView, metricsOverlay.getView());
+        StackPane.setAlignment(metricsOverlay.getView(), Pos.TOP_LEFT);
+        root.setCenter(gridStack);
         root.setBottom(controls);
 
         Scene gameScene = new Scene(root);
         primaryStage.setScene(gameScene);
-        primaryStage.setMinWidth(GRID_SIZE * CELL_SIZE + 40);
-        primaryStage.setMinHeight(GRID_SIZE * CELL_SIZE + 150);
+        primaryStage.setMinWidth(VIEWPORT_SIZE + 40);
+        primaryStage.setMinHeight(VIEWPORT_SIZE + 170);
     }
 
-    private void drawGrid(GraphicsContext gc) {
-        gc.clearRect(0, 0, GRID_SIZE * CELL_SIZE, GRID_SIZE * CELL_SIZE);
-        GridGraph graph = gameLogic.getGraph();
-
-        // Draw grid cells
-        for (int row = 0; row < GRID_SIZE; row++) {
-            for (int col = 0; col < GRID_SIZE; col++) {
-                double x = col * CELL_SIZE;
-                double y = row * CELL_SIZE;
-
-                gc.setFill(Color.WHITE);
-                gc.fillRect(x, y, CELL_SIZE, CELL_SIZE);
-
-                gc.setStroke(Color.LIGHTGRAY);
-                gc.strokeRect(x, y, CELL_SIZE, CELL_SIZE);
-            }
-        }
-
-        // Draw walls
-        for (int row = 0; row < GRID_SIZE; row++) {
-            for (int col = 0; col < GRID_SIZE; col++) {
-                GridGraph.Node node = graph.getNode(row, col);
-                if (node != null && graph.isWall(node)) {
-                    gc.setFill(Color.BLACK);
-                    gc.fillRect(col * CELL_SIZE, row * CELL_SIZE, CELL_SIZE, CELL_SIZE);
-                }
-            }
-        }
-
-        // Draw exit (for ESCAPE mode)
-        if (gameLogic.getMode() == GameLogic.GameMode.ESCAPE) {
-            GridGraph.Node exitNode = graph.getNode(GRID_SIZE - 1, GRID_SIZE - 1);
-            gc.setFill(Color.GOLD);
-            gc.fillRect(
-                exitNode.col * CELL_SIZE + 5,
-                exitNode.row * CELL_SIZE + 5,
-                CELL_SIZE - 10,
-                CELL_SIZE - 10
-            );
-        }
-
-        // Draw player
-        gc.setFill(Color.BLUE);
-        gc.fillOval(
-            gameLogic.getPlayerX() * CELL_SIZE + 5,
-            gameLogic.getPlayerY() * CELL_SIZE + 5,
-            CELL_SIZE - 10,
-            CELL_SIZE - 10
-        );
-
-        // Draw enemies, paths, and explored nodes
-        for (Enemy enemy : gameLogic.getEnemies()) {
-            // Set color based on behavior
-            if (enemy.getBehavior() instanceof AggressiveBehavior) {
-                gc.setFill(Color.RED);
-            } else if (enemy.getBehavior() instanceof CautiousBehavior) {
-                gc.setFill(Color.GREEN);
-            } else if (enemy.getBehavior() instanceof HunterBehavior) {
-                gc.setFill(Color.PURPLE);
-            } else if (enemy.getBehavior() instanceof LazyBehavior) {
-                gc.setFill(Color.ORANGE);
-            } else {
-                gc.setFill(Color.DARKGRAY); // Default
-            }
-
-            // Draw enemy
-            gc.fillOval(
-                enemy.getX() * CELL_SIZE + 5,
-                enemy.getY() * CELL_SIZE + 5,
-                CELL_SIZE - 10,
-                CELL_SIZE - 10
-            );
-
-            // Draw behavior info
-            if (showBehaviorInfo) {
-                gc.setFill(Color.BLACK);
-                gc.fillText(enemy.getBehaviorName(), 
-                    enemy.getX() * CELL_SIZE + 5,
-                    enemy.getY() * CELL_SIZE + 15);
-            }
-
-            // Draw explored nodes if enabled
-            if (showExplored) {
-                gc.setFill(Color.color(0.8, 0.8, 0.8, 0.3));
-                for (GridGraph.Node node : enemy.getLastExploredNodes()) {
-                    gc.fillRect(
-                        node.col * CELL_SIZE + 2,
-                        node.row * CELL_SIZE + 2,
-                        CELL_SIZE - 4,
-                        CELL_SIZE - 4
-                    );
-                }
-            }
-
-            // Draw path if enabled
-            if (showPaths) {
-                gc.setFill(Color.color(0, 0, 0, 0.2));
-                for (GridGraph.Node node : enemy.getCurrentPath()) {
-                    gc.fillRect(
-                        node.col * CELL_SIZE + CELL_SIZE / 4.0,
-                        node.row * CELL_SIZE + CELL_SIZE / 4.0,
-                        CELL_SIZE / 2.0,
-                        CELL_SIZE / 2.0
-                    );
-                }
-            }
+    // Timer display (for TIME_TRIAL mode)
+    private void updateTimer(Label timerLabel, FrameSnapshot frame) {
+        if (frame.mode == GameLogic.GameMode.TIME_TRIAL) {
+            int remaining = frame.remainingTime;
+            timerLabel.setText(String.format("Time: %02d:%02d", remaining / 60, remaining % 60));
+        } else {
+            timerLabel.setText("");
         }
     }
 
-    private void showGameOverDialog() {
-        showGameOverDialog(false);
-    }
-
-    private void showGameOverDialog(boolean won) {
-        gameLoop.stop();
+    private void showGameOverDialog(FrameSnapshot frame, boolean won) {
         Alert alert = new Alert(Alert.AlertType.INFORMATION);
         alert.setTitle("Game Over");
         
         if (won) {
             alert.setHeaderText("You Won!");
             alert.setContentText("You survived the time trial!");
-        } else if (gameLogic.getMode() == GameLogic.GameMode.ESCAPE) {
+        } else if (frame.mode == GameLogic.GameMode.ESCAPE) {
             alert.setHeaderText("You Escaped!");
             alert.setContentText("You reached the exit safely!");
         } else {
@@ -339,7 +301,8 @@ public class GraphChaseUI extends Application {
             alert.setContentText("The enemy caught the player!");
         }
         
-        alert.showAndWait();
+        // show() rather than showAndWait(): nested event loops aren't allowed mid-animation
+        alert.show();
     }
 
     public static void main(String[] args) {
@@ -1,89 +1,335 @@
 package dummyInterface;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class GridGraph {
+    // 8-directional movement offsets
+    private static final int[] DIR_ROW = {-1, -1, -1, 0, 0, 1, 1, 1};
+    private static final int[] DIR_COL = {-1, 0, 1, -1, 1, -1, 0, 1};
+
+    // How many recent wall changes are remembered for incremental planners
+    private static final int CHANGE_LOG_SIZE = 256;
+    private static final AtomicLong NEXT_SOURCE_ID = new AtomicLong();
+
     private final int rows, cols;
-    private final Node[][] nodes;
-    private final Map<Node, Set<Node>> adjacencyList = new HashMap<>();
-    private final Set<Node> walls = new HashSet<>();
+    // One bit per cell, cell index = row * cols + col
+    private final long[] walls;
+    // Bumped on every wall change; changeLog holds the last changed cells as a ring
+    private long version;
+    private final int[] changeLog;
+    // Shared by a graph and its snapshots, so planners can tell they describe the same map
+    private final long sourceId;
+    private final boolean frozen;
+    // Distance tables built for a static level; shared with snapshots and only handed
+    // out while the walls are as they were when the tables were built
+    private volatile LandmarkTable landmarks;
+    private volatile NextHopTable nextHops;
+    // Built on first use and kept up to date by setWall. Snapshots and copies take a
+    // chunk-sharing copy if the graph has one, and otherwise build their own when asked
+    private volatile ComponentIndex components;
 
     public GridGraph(int rows, int cols) {
+        if (rows < 0 || cols < 0 || (long) rows * cols > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid grid size: " + rows + "x" + cols);
+        }
         this.rows = rows;
         this.cols = cols;
-        nodes = new Node[rows][cols];
+        this.walls = new long[(rows * cols + 63) >>> 6];
+        this.changeLog = new int[CHANGE_LOG_SIZE];
+        this.sourceId = NEXT_SOURCE_ID.incrementAndGet();
+        this.frozen = false;
+    }
 
-        // Initialize all nodes
-        for (int row = 0; row < rows; row++) {
-            for (int col = 0; col < cols; col++) {
-                nodes[row][col] = new Node(row, col);
-                adjacencyList.put(nodes[row][col], new HashSet<>());
-            }
+    // Wraps wall bits filled in by a loader (same layout as the walls field); the graph
+    // takes ownership of the array and starts with an empty change history
+    GridGraph(int rows, int cols, long[] walls) {
+        if (rows < 0 || cols < 0 || (long) rows * cols > Integer.MAX_VALUE
+                || walls.length != (rows * cols + 63) >>> 6) {
+            throw new IllegalArgumentException("Invalid grid size: " + rows + "x" + cols);
         }
+        this.rows = rows;
+        this.cols = cols;
+        this.walls = walls;
+        this.changeLog = new int[CHANGE_LOG_SIZE];
+        this.sourceId = NEXT_SOURCE_ID.incrementAndGet();
+        this.frozen = false;
+    }
 
-        // Create initial edges (8-directional movement)
-        for (int row = 0; row < rows; row++) {
-            for (int col = 0; col < cols; col++) {
-                Node current = getNode(row, col);
-                // 8-directional movement
-                int[][] directions = {
-                    {-1,-1}, {-1,0}, {-1,1},
-                    {0,-1},          {0,1},
-                    {1,-1},  {1,0},  {1,1}
-                };
-                
-                for (int[] dir : directions) {
-                    int newRow = row + dir[0];
-                    int newCol = col + dir[1];
-                    
-                    if (isInBounds(newRow, newCol)) {
-                        Node neighbor = getNode(newRow, newCol);
-                        adjacencyList.get(current).add(neighbor);
-                        adjacencyList.get(neighbor).add(current);
-                    }
+    // The wall bits themselves, for serialisers; callers must not modify the array
+    long[] wallWords() {
+        return walls;
+    }
+
+    private GridGraph(GridGraph source, boolean frozen) {
+        this.rows = source.rows;
+        this.cols = source.cols;
+        this.components = source.copyComponents();
+        this.walls = source.walls.clone();
+        this.changeLog = source.changeLog.clone();
+        this.version = source.version;
+        this.sourceId = frozen ? source.sourceId : NEXT_SOURCE_ID.incrementAndGet();
+        this.frozen = frozen;
+        this.landmarks = source.landmarks;
+        this.nextHops = source.nextHops;
+    }
+
+    // Read-only copy of the current walls (and change history) that other threads can
+    // search while this graph keeps changing
+    public GridGraph snapshot() {
+        return new GridGraph(this, true);
+    }
+
+    // Editable copy of the current walls. It starts with this graph's version and tables,
+    // so replaying a level doesn't rebuild them, but it is a map of its own from then on.
+    public GridGraph copy() {
+        return new GridGraph(this, false);
+    }
+
+    public boolean isSnapshot() {
+        return frozen;
+    }
+
+    // Null unless a table was attached and no wall has changed since it was built
+    public LandmarkTable getLandmarks() {
+        LandmarkTable table = landmarks;
+        return table != null && table.getVersion() == version ? table : null;
+    }
+
+    public void setLandmarks(LandmarkTable table) {
+        if (table != null && !table.matches(this)) {
+            throw new IllegalArgumentException("Landmark table was built for another map");
+        }
+        this.landmarks = table;
+    }
+
+    public NextHopTable getNextHops() {
+        NextHopTable table = nextHops;
+        return table != null && table.getVersion() == version ? table : null;
+    }
+
+    public void setNextHops(NextHopTable table) {
+        if (table != null && !table.matches(this)) {
+            throw new IllegalArgumentException("Next-hop table was built for another map");
+        }
+        this.nextHops = table;
+    }
+
+    // True if both cells are open and a path joins them. O(1): labels are kept per
+    // component and updated as walls change, so nobody needs a BFS to find out.
+    public boolean sameComponent(int a, int b) {
+        return components().same(a, b);
+    }
+
+    public boolean sameComponent(Node a, Node b) {
+        if (a == null || b == null || !isInBounds(a.row, a.col) || !isInBounds(b.row, b.col)) return false;
+        return sameComponent(indexOf(a.row, a.col), indexOf(b.row, b.col));
+    }
+
+    // Open cells in the cell's component, 0 for a wall
+    public int componentSize(int index) {
+        return components().componentSize(index);
+    }
+
+    ComponentIndex components() {
+        ComponentIndex index = components;
+        if (index == null) {
+            synchronized (this) {
+                if (components == null) {
+                    components = ComponentIndex.build(this);
                 }
+                index = components;
             }
         }
+        return index;
+    }
+
+    private synchronized ComponentIndex copyComponents() {
+        return components == null ? null : components.copy();
+    }
+
+    // Labels saved alongside the walls (by LevelCache), to skip the first build
+    synchronized void setComponents(ComponentIndex index) {
+        components = index;
+    }
+
+    // True if both graphs are this map or snapshots of it, so versions are comparable
+    public boolean sharesHistoryWith(GridGraph other) {
+        return other != null && other.sourceId == sourceId;
     }
 
     public Node getNode(int row, int col) {
         if (row < 0 || row >= rows || col < 0 || col >= cols) {
             return null;
         }
-        return nodes[row][col];
+        return new Node(row, col);
     }
 
     public Set<Node> getNeighbors(Node node) {
-        if (node == null || walls.contains(node)) {
-            return new HashSet<>();
+        Set<Node> neighbors = new HashSet<>();
+        if (node == null || !isInBounds(node.row, node.col) || isWall(node)) {
+            return neighbors;
+        }
+        for (int d = 0; d < DIR_ROW.length; d++) {
+            int newRow = node.row + DIR_ROW[d];
+            int newCol = node.col + DIR_COL[d];
+            if (isInBounds(newRow, newCol) && !isWall(indexOf(newRow, newCol))) {
+                neighbors.add(new Node(newRow, newCol));
+            }
         }
-        Set<Node> neighbors = new HashSet<>(adjacencyList.getOrDefault(node, new HashSet<>()));
-        neighbors.removeIf(walls::contains);
         return neighbors;
     }
 
+    // Allocation-free variant for search loops: writes the open neighbours of a cell
+    // into buffer (length >= 8) and returns how many were written
+    public int getNeighbors(int index, int[] buffer) {
+        if (Metrics.isEnabled()) {
+            Metrics.NEIGHBOR_CALLS.increment();
+        }
+        if (isWall(index)) {
+            return 0;
+        }
+        int row = index / cols;
+        int col = index - row * cols;
+        int count = 0;
+        for (int d = 0; d < DIR_ROW.length; d++) {
+            int newRow = row + DIR_ROW[d];
+            int newCol = col + DIR_COL[d];
+            if (newRow >= 0 && newRow < rows && newCol >= 0 && newCol < cols) {
+                int neighbor = index + DIR_ROW[d] * cols + DIR_COL[d];
+                if (!isWall(neighbor)) {
+                    buffer[count++] = neighbor;
+                }
+            }
+        }
+        return count;
+    }
+
+    // Writes every in-bounds cell around index into buffer, walls included
+    public int getAdjacentCells(int index, int[] buffer) {
+        int row = index / cols;
+        int col = index - row * cols;
+        int count = 0;
+        for (int d = 0; d < DIR_ROW.length; d++) {
+            int newRow = row + DIR_ROW[d];
+            int newCol = col + DIR_COL[d];
+            if (newRow >= 0 && newRow < rows && newCol >= 0 && newCol < cols) {
+                buffer[count++] = index + DIR_ROW[d] * cols + DIR_COL[d];
+            }
+        }
+        return count;
+    }
+
+    // How many of the cells around index are walls; the edge of the map doesn't count
+    public int countAdjacentWalls(int index) {
+        int row = index / cols;
+        int col = index - row * cols;
+        int count = 0;
+        if (row > 0 && row < rows - 1 && col > 0 && col < cols - 1) {
+            // Away from the edges all eight cells exist, so no bounds checks
+            for (int d = 0; d < DIR_ROW.length; d++) {
+                if (isWall(index + DIR_ROW[d] * cols + DIR_COL[d])) count++;
+            }
+            return count;
+        }
+        for (int d = 0; d < DIR_ROW.length; d++) {
+            int newRow = row + DIR_ROW[d];
+            int newCol = col + DIR_COL[d];
+            if (newRow >= 0 && newRow < rows && newCol >= 0 && newCol < cols
+                    && isWall(index + DIR_ROW[d] * cols + DIR_COL[d])) {
+                count++;
+            }
+        }
+        return count;
+    }
+
     public boolean isWall(Node node) {
-        return walls.contains(node);
+        if (node == null || !isInBounds(node.row, node.col)) return false;
+        return isWall(indexOf(node.row, node.col));
     }
 
     public void setWall(Node node, boolean isWall) {
-        if (node == null) return;
+        if (node == null || !isInBounds(node.row, node.col)) return;
+        setWall(indexOf(node.row, node.col), isWall);
+    }
+
+    // Index-based access for callers that work on raw cell indices
+    public boolean isWall(int index) {
+        return (walls[index >>> 6] & (1L << index)) != 0;
+    }
+
+    public void setWall(int index, boolean isWall) {
+        if (frozen) {
+            throw new IllegalStateException("Graph snapshots are read-only");
+        }
+        if (isWall(index) == isWall) return;
+        if (isWall) {
+            walls[index >>> 6] |= 1L << index;
+        } else {
+            walls[index >>> 6] &= ~(1L << index);
+        }
+        changeLog[(int) (version % CHANGE_LOG_SIZE)] = index;
+        version++;
+        updateComponents(index, isWall);
+    }
+
+    private synchronized void updateComponents(int index, boolean isWall) {
+        if (components == null) return;
         if (isWall) {
-            walls.add(node);
+            components.wallAdded(this, index);
         } else {
-            walls.remove(node);
+            components.wallRemoved(this, index);
+        }
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    // Copies the cells whose walls changed after the given version into out (oldest first)
+    // and returns how many there were, or -1 if some of them have dropped out of the log
+    public int getChangesSince(long since, int[] out) {
+        long count = version - since;
+        if (count < 0 || count > CHANGE_LOG_SIZE || count > out.length) {
+            return -1;
         }
+        for (int i = 0; i < count; i++) {
+            out[i] = changeLog[(int) ((since + i) % CHANGE_LOG_SIZE)];
+        }
+        return (int) count;
+    }
+
+    public int indexOf(int row, int col) {
+        return row * cols + col;
+    }
+
+    public int rowOf(int index) {
+        return index / cols;
+    }
+
+    public int colOf(int index) {
+        return index % cols;
+    }
+
+    public Node nodeAt(int index) {
+        return new Node(index / cols, index % cols);
+    }
+
+    public int size() {
+        return rows * cols;
     }
 
     public Set<Node> getAllNodes() {
         Set<Node> allNodes = new HashSet<>();
-        for (Node[] row : nodes) {
-            Collections.addAll(allNodes, row);
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                allNodes.add(new Node(row, col));
+            }
         }
         return allNodes;
     }
 
-    private boolean isInBounds(int row, int col) {
+    public boolean isInBounds(int row, int col) {
         return row >= 0 && row < rows && col >= 0 && col < cols;
     }
 
@@ -95,14 +341,14 @@ public class GridGraph {
         return cols;
     }
 
+    // Nodes are immutable value objects; two nodes for the same cell are equal.
+    // Search state lives in per-search scratch arrays, never on the node.
     public static class Node {
         public final int row, col;
-        public int distance; // For Dijkstra's algorithm
 
         public Node(int row, int col) {
             this.row = row;
             this.col = col;
-            this.distance = Integer.MAX_VALUE;
         }
 
         @Override
@@ -115,7 +361,7 @@ public class GridGraph {
 
         @Override
         public int hashCode() {
-            return Objects.hash(row, col);
+            return 31 * row + col;
         }
     }
-}
\ No newline at end of file
+}
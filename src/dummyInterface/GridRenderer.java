@@ -0,0 +1,412 @@
+package dummyInterface;
+
+import javafx.scene.Node;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Draws FrameSnapshots onto two stacked canvases. The background layer (cells, grid
+// lines, walls) is only redrawn for walls that changed since the last frame, read from
+// the graph's change log. The overlay layer (explored cells, paths, exit, actors) is
+// diffed per cell, so a frame only repaints the cells whose contents changed. Only the
+// cells inside the viewport are ever drawn, so the grid can be far larger than the window.
+public class GridRenderer {
+    private static final int MIN_CELL_SIZE = 2;
+    private static final int MAX_CELL_SIZE = 64;
+
+    // Overlay contents of a cell, packed into a long so two frames can be compared cheaply
+    private static final long EXIT = 1L;
+    private static final long PLAYER = 1L << 1;
+    private static final int EXPLORED_SHIFT = 2;  // 4 bits: explored sets covering the cell
+    private static final int PATH_SHIFT = 6;      // 4 bits: paths through the cell
+    private static final int ENEMY_SHIFT = 10;    // 4 bits: enemies standing on the cell
+    private static final int BEHAVIOR_SHIFT = 14; // 8 bits: behaviour of the top enemy
+    private static final int LABEL_SHIFT = 22;    // 1 bit: behaviour label drawn
+
+    private final Canvas background;
+    private final Canvas overlay;
+    private final Pane view;
+
+    private int cellSize;
+    private double offsetX, offsetY;
+    private boolean showPaths = false;
+    private boolean showExplored = false;
+    private boolean showBehaviorInfo = true;
+
+    private GridGraph drawnGraph;
+    private long drawnVersion;
+    private boolean viewChanged = true;
+    private final int[] changes = new int[256];
+
+    private long[] painted = new long[0];   // what the overlay currently shows per cell
+    private long[] contents = new long[0];  // what the current frame wants per cell
+    private int[] paintedCells = new int[0];
+    private int paintedCount;
+    private int[] touchedCells = new int[0];
+    private int touchedCount;
+    private final List<String> behaviorNames = new ArrayList<>();
+
+    private long lastRenderNanos;
+    private int lastDirtyCells;
+
+    public GridRenderer(double width, double height, int cellSize) {
+        this.background = new Canvas(width, height);
+        this.overlay = new Canvas(width, height);
+        this.view = new Pane(background, overlay);
+        this.view.setPrefSize(width, height);
+        this.cellSize = clampCellSize(cellSize);
+    }
+
+    public Node getView() {
+        return view;
+    }
+
+    public int getCellSize() {
+        return cellSize;
+    }
+
+    // Time spent issuing draw calls for the last frame
+    public double getLastRenderMillis() {
+        return lastRenderNanos / 1e6;
+    }
+
+    // Background and overlay cells repainted by the last frame
+    public int getLastDirtyCells() {
+        return lastDirtyCells;
+    }
+
+    public void setShowPaths(boolean showPaths) {
+        this.showPaths = showPaths;
+    }
+
+    public void setShowExplored(boolean showExplored) {
+        this.showExplored = showExplored;
+    }
+
+    public void setShowBehaviorInfo(boolean showBehaviorInfo) {
+        this.showBehaviorInfo = showBehaviorInfo;
+    }
+
+    // Forces the next frame to repaint everything in view
+    public void invalidate() {
+        viewChanged = true;
+    }
+
+    // Cell under a point of the view as {row, col}, or null outside the grid
+    public int[] cellAt(double x, double y) {
+        if (drawnGraph == null) return null;
+        int row = (int) Math.floor((y + offsetY) / cellSize);
+        int col = (int) Math.floor((x + offsetX) / cellSize);
+        return drawnGraph.isInBounds(row, col) ? new int[]{row, col} : null;
+    }
+
+    // Zooms by whole pixels per cell, keeping the point under (pivotX, pivotY) in place
+    public void zoom(int steps, double pivotX, double pivotY) {
+        int newSize = clampCellSize(cellSize + steps * Math.max(1, cellSize / 8));
+        if (newSize == cellSize) return;
+        double scale = (double) newSize / cellSize;
+        offsetX = (offsetX + pivotX) * scale - pivotX;
+        offsetY = (offsetY + pivotY) * scale - pivotY;
+        cellSize = newSize;
+        clampOffsets();
+        viewChanged = true;
+    }
+
+    public void pan(double dx, double dy) {
+        offsetX += dx;
+        offsetY += dy;
+        clampOffsets();
+        viewChanged = true;
+    }
+
+    // Largest cell size that fits the whole grid in the view
+    public void fitToView(int rows, int cols) {
+        cellSize = clampCellSize((int) Math.min(background.getWidth() / cols, background.getHeight() / rows));
+        offsetX = 0;
+        offsetY = 0;
+        viewChanged = true;
+    }
+
+    public void render(FrameSnapshot frame) {
+        long start = System.nanoTime();
+        GridGraph graph = frame.graph;
+        int dirty = 0;
+
+        if (drawnGraph == null || !drawnGraph.sharesHistoryWith(graph)
+                || drawnGraph.getRows() != graph.getRows() || drawnGraph.getCols() != graph.getCols()) {
+            resize(graph.size());
+            viewChanged = true;
+        }
+        drawnGraph = graph;
+        clampOffsets();
+
+        if (viewChanged) {
+            dirty += drawBackground(graph);
+            overlay.getGraphicsContext2D().clearRect(0, 0, overlay.getWidth(), overlay.getHeight());
+            for (int i = 0; i < paintedCount; i++) {
+                painted[paintedCells[i]] = 0;
+            }
+            paintedCount = 0;
+            viewChanged = false;
+        } else if (graph.getVersion() != drawnVersion) {
+            int count = graph.getChangesSince(drawnVersion, changes);
+            if (count < 0) {
+                dirty += drawBackground(graph);
+            } else {
+                GraphicsContext gc = background.getGraphicsContext2D();
+                for (int i = 0; i < count; i++) {
+                    int cell = changes[i];
+                    if (isVisible(graph.rowOf(cell), graph.colOf(cell))) {
+                        drawBackgroundCell(gc, graph, cell);
+                        dirty++;
+                    }
+                }
+            }
+        }
+        drawnVersion = graph.getVersion();
+
+        dirty += updateOverlay(frame);
+        lastDirtyCells = dirty;
+        lastRenderNanos = System.nanoTime() - start;
+        if (Metrics.isEnabled()) {
+            Metrics.RENDER_TIME.record(lastRenderNanos);
+        }
+    }
+
+    private void resize(int cellCount) {
+        painted = new long[cellCount];
+        contents = new long[cellCount];
+        paintedCells = new int[cellCount];
+        touchedCells = new int[cellCount];
+        paintedCount = 0;
+        touchedCount = 0;
+    }
+
+    private int drawBackground(GridGraph graph) {
+        GraphicsContext gc = background.getGraphicsContext2D();
+        gc.setFill(Color.WHITE);
+        gc.fillRect(0, 0, background.getWidth(), background.getHeight());
+
+        int firstRow = firstVisibleRow(), lastRow = lastVisibleRow(graph);
+        int firstCol = firstVisibleCol(), lastCol = lastVisibleCol(graph);
+        gc.setFill(Color.BLACK);
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int col = firstCol; col <= lastCol; col++) {
+                if (graph.isWall(graph.indexOf(row, col))) {
+                    gc.fillRect(screenX(col), screenY(row), cellSize, cellSize);
+                }
+            }
+        }
+
+        // Grid lines only while they are far enough apart to be useful
+        if (cellSize >= 6 && lastRow >= firstRow && lastCol >= firstCol) {
+            gc.setStroke(Color.LIGHTGRAY);
+            double left = screenX(firstCol), right = screenX(lastCol + 1);
+            double top = screenY(firstRow), bottom = screenY(lastRow + 1);
+            for (int row = firstRow; row <= lastRow + 1; row++) {
+                gc.strokeLine(left, screenY(row) + 0.5, right, screenY(row) + 0.5);
+            }
+            for (int col = firstCol; col <= lastCol + 1; col++) {
+                gc.strokeLine(screenX(col) + 0.5, top, screenX(col) + 0.5, bottom);
+            }
+        }
+        return Math.max(0, lastRow - firstRow + 1) * Math.max(0, lastCol - firstCol + 1);
+    }
+
+    private void drawBackgroundCell(GraphicsContext gc, GridGraph graph, int cell) {
+        double x = screenX(graph.colOf(cell));
+        double y = screenY(graph.rowOf(cell));
+        gc.setFill(graph.isWall(cell) ? Color.BLACK : Color.WHITE);
+        gc.fillRect(x, y, cellSize, cellSize);
+        if (cellSize >= 6) {
+            gc.setStroke(Color.LIGHTGRAY);
+            gc.strokeRect(x + 0.5, y + 0.5, cellSize, cellSize);
+        }
+    }
+
+    // Works out what every cell should show this frame and repaints the ones that differ
+    private int updateOverlay(FrameSnapshot frame) {
+        GridGraph graph = frame.graph;
+        if (frame.exitNode != null) {
+            addContents(graph, frame.exitNode.row, frame.exitNode.col, EXIT);
+        }
+        addContents(graph, frame.playerY, frame.playerX, PLAYER);
+
+        boolean labels = showBehaviorInfo && cellSize >= 24;
+        for (FrameSnapshot.EnemyFrame enemy : frame.enemies) {
+            if (showExplored) {
+                for (GridGraph.Node node : enemy.explored) {
+                    addCount(graph, node.row, node.col, EXPLORED_SHIFT);
+                }
+            }
+            if (showPaths) {
+                for (GridGraph.Node node : enemy.path) {
+                    addCount(graph, node.row, node.col, PATH_SHIFT);
+                }
+            }
+            if (addCount(graph, enemy.y, enemy.x, ENEMY_SHIFT)) {
+                int cell = graph.indexOf(enemy.y, enemy.x);
+                long behavior = behaviorIndex(enemy.behaviorName);
+                contents[cell] = (contents[cell] & ~(0xFFL << BEHAVIOR_SHIFT))
+                    | (behavior << BEHAVIOR_SHIFT)
+                    | (labels ? 1L << LABEL_SHIFT : 0);
+            }
+        }
+
+        GraphicsContext gc = overlay.getGraphicsContext2D();
+        int dirty = 0;
+        // Cells that were painted last frame but may now be empty
+        for (int i = 0; i < paintedCount; i++) {
+            int cell = paintedCells[i];
+            if (painted[cell] != contents[cell]) {
+                repaintOverlayCell(gc, graph, cell, contents[cell]);
+                dirty++;
+            }
+        }
+        // Cells that have something on them this frame
+        for (int i = 0; i < touchedCount; i++) {
+            int cell = touchedCells[i];
+            if (painted[cell] != contents[cell]) {
+                repaintOverlayCell(gc, graph, cell, contents[cell]);
+                dirty++;
+            }
+        }
+
+        // This frame's cells become the painted set; reset the scratch contents
+        paintedCount = 0;
+        for (int i = 0; i < touchedCount; i++) {
+            int cell = touchedCells[i];
+            paintedCells[paintedCount++] = cell;
+            contents[cell] = 0;
+        }
+        touchedCount = 0;
+        return dirty;
+    }
+
+    private void addContents(GridGraph graph, int row, int col, long bits) {
+        if (!graph.isInBounds(row, col)) return;
+        int cell = graph.indexOf(row, col);
+        if (contents[cell] == 0) touchedCells[touchedCount++] = cell;
+        contents[cell] |= bits;
+    }
+
+    // Bumps a 4-bit counter; counts saturate since more overlap looks the same anyway
+    private boolean addCount(GridGraph graph, int row, int col, int shift) {
+        if (!graph.isInBounds(row, col)) return false;
+        int cell = graph.indexOf(row, col);
+        if (contents[cell] == 0) touchedCells[touchedCount++] = cell;
+        if (((contents[cell] >>> shift) & 0xF) < 0xF) {
+            contents[cell] += 1L << shift;
+        }
+        return true;
+    }
+
+    private void repaintOverlayCell(GraphicsContext gc, GridGraph graph, int cell, long bits) {
+        painted[cell] = bits;
+        int row = graph.rowOf(cell);
+        int col = graph.colOf(cell);
+        if (!isVisible(row, col)) return;
+
+        double x = screenX(col);
+        double y = screenY(row);
+        gc.clearRect(x, y, cellSize, cellSize);
+        if (bits == 0) return;
+
+        double inset = cellSize >= 16 ? 5 : cellSize / 8.0;
+        double margin = cellSize >= 16 ? 2 : 0;
+        int explored = (int) ((bits >>> EXPLORED_SHIFT) & 0xF);
+        for (int i = 0; i < explored; i++) {
+            gc.setFill(Color.color(0.8, 0.8, 0.8, 0.3));
+            gc.fillRect(x + margin, y + margin, cellSize - 2 * margin, cellSize - 2 * margin);
+        }
+        int paths = (int) ((bits >>> PATH_SHIFT) & 0xF);
+        for (int i = 0; i < paths; i++) {
+            gc.setFill(Color.color(0, 0, 0, 0.2));
+            gc.fillRect(x + cellSize / 4.0, y + cellSize / 4.0, cellSize / 2.0, cellSize / 2.0);
+        }
+        if ((bits & EXIT) != 0) {
+            gc.setFill(Color.GOLD);
+            gc.fillRect(x + inset, y + inset, cellSize - 2 * inset, cellSize - 2 * inset);
+        }
+        if ((bits & PLAYER) != 0) {
+            gc.setFill(Color.BLUE);
+            gc.fillOval(x + inset, y + inset, cellSize - 2 * inset, cellSize - 2 * inset);
+        }
+        if (((bits >>> ENEMY_SHIFT) & 0xF) != 0) {
+            String behavior = behaviorNames.get((int) ((bits >>> BEHAVIOR_SHIFT) & 0xFF));
+            gc.setFill(behaviorColor(behavior));
+            gc.fillOval(x + inset, y + inset, cellSize - 2 * inset, cellSize - 2 * inset);
+            if ((bits & (1L << LABEL_SHIFT)) != 0) {
+                gc.setFill(Color.BLACK);
+                gc.fillText(behavior, x + 5, y + 15, cellSize - 6);
+            }
+        }
+    }
+
+    private int behaviorIndex(String behaviorName) {
+        int index = behaviorNames.indexOf(behaviorName);
+        if (index < 0) {
+            if (behaviorNames.size() == 256) return 0; // out of slots, reuse the first name
+            behaviorNames.add(behaviorName);
+            index = behaviorNames.size() - 1;
+        }
+        return index;
+    }
+
+    static Color behaviorColor(String behaviorName) {
+        switch (behaviorName) {
+            case "Aggressive": return Color.RED;
+            case "Cautious": return Color.GREEN;
+            case "Hunter": return Color.PURPLE;
+            case "Lazy": return Color.ORANGE;
+            default: return Color.DARKGRAY; // Default
+        }
+    }
+
+    private boolean isVisible(int row, int col) {
+        double x = screenX(col), y = screenY(row);
+        return x + cellSize > 0 && y + cellSize > 0
+            && x < background.getWidth() && y < background.getHeight();
+    }
+
+    private double screenX(int col) {
+        return col * cellSize - offsetX;
+    }
+
+    private double screenY(int row) {
+        return row * cellSize - offsetY;
+    }
+
+    private int firstVisibleRow() {
+        return Math.max(0, (int) Math.floor(offsetY / cellSize));
+    }
+
+    private int firstVisibleCol() {
+        return Math.max(0, (int) Math.floor(offsetX / cellSize));
+    }
+
+    private int lastVisibleRow(GridGraph graph) {
+        return Math.min(graph.getRows() - 1, (int) Math.floor((offsetY + background.getHeight() - 1) / cellSize));
+    }
+
+    private int lastVisibleCol(GridGraph graph) {
+        return Math.min(graph.getCols() - 1, (int) Math.floor((offsetX + background.getWidth() - 1) / cellSize));
+    }
+
+    private void clampOffsets() {
+        if (drawnGraph == null) return;
+        double maxX = Math.max(0, drawnGraph.getCols() * cellSize - background.getWidth());
+        double maxY = Math.max(0, drawnGraph.getRows() * cellSize - background.getHeight());
+        // Whole pixels, so repainted cells line up exactly with what is already drawn
+        offsetX = Math.round(Math.max(0, Math.min(maxX, offsetX)));
+        offsetY = Math.round(Math.max(0, Math.min(maxY, offsetY)));
+    }
+
+    private static int clampCellSize(int size) {
+        return Math.max(MIN_CELL_SIZE, Math.min(MAX_CELL_SIZE, size));
+    }
+}
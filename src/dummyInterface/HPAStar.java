@@ -0,0 +1,566 @@
+package dummyInterface;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Hierarchical A* (HPA*). The grid is cut into square clusters. Where two clusters touch,
+// each maximal run of open cell pairs across the border is an entrance with one or two
+// transitions (a cell on each side). Each cluster stores the distances between its own
+// transition cells, measured without leaving the cluster. A query links start and goal to
+// their clusters' transitions, runs A* over this small abstract graph and then fills in
+// each hop with a search confined to one cluster.
+// Diagonal steps that cross a border where no straight pair is open get a transition of
+// their own, so every grid path has an abstract counterpart and no route is missed. Paths
+// are near-optimal: a route must pass through the chosen transitions.
+// Wall changes are read from GridGraph's change log and only the clusters around the
+// changed cells are rebuilt.
+public class HPAStar {
+    public static final int DEFAULT_CLUSTER_SIZE = 16;
+
+    private static final int INF = Integer.MAX_VALUE;
+    // An entrance longer than this gets a transition at each end instead of one mid-way
+    private static final int LONG_ENTRANCE = 6;
+
+    private GridGraph graph;
+    private final int clusterSize;
+    private final int clusterRows;
+    private final int clusterCols;
+    private final Cluster[] clusters;
+    private final int[] changes = new int[256];
+    private long syncedVersion;
+
+    // Breadth-first search confined to one cluster, in cluster-local cell numbers
+    private final int[] localDistance;
+    private final int[] localParent;
+    private final int[] localQueue;
+    private final long[] localHeap; // (priority << 32 | cell) entries, stale ones skipped
+    private int localVisited;
+
+    private long expansions;
+    private long abstractExpansions;
+    private long clustersBuilt;
+
+    // Transition cells of one cluster. partners[i] are the cells in neighbouring clusters
+    // one step from nodes[i]; distances is a nodes x nodes matrix, INF where there is no
+    // path inside the cluster. paths holds refined node-to-node routes (same layout) as
+    // queries need them, and goes away with the cluster when it is rebuilt.
+    private static class Cluster {
+        int[] nodes = new int[0];
+        int[][] partners = new int[0][];
+        int[] distances = new int[0];
+        int[][] paths = new int[0][];
+
+        int indexOf(int cell) {
+            for (int i = 0; i < nodes.length; i++) {
+                if (nodes[i] == cell) return i;
+            }
+            return -1;
+        }
+    }
+
+    public HPAStar(GridGraph graph) {
+        this(graph, DEFAULT_CLUSTER_SIZE);
+    }
+
+    public HPAStar(GridGraph graph, int clusterSize) {
+        if (clusterSize < 2 || clusterSize > 128) {
+            throw new IllegalArgumentException("Cluster size must be between 2 and 128: " + clusterSize);
+        }
+        this.graph = graph;
+        this.clusterSize = clusterSize;
+        this.clusterRows = (graph.getRows() + clusterSize - 1) / clusterSize;
+        this.clusterCols = (graph.getCols() + clusterSize - 1) / clusterSize;
+        this.clusters = new Cluster[clusterRows * clusterCols];
+        this.localDistance = new int[clusterSize * clusterSize];
+        this.localParent = new int[clusterSize * clusterSize];
+        this.localQueue = new int[clusterSize * clusterSize];
+        this.localHeap = new long[8 * clusterSize * clusterSize + 1];
+        rebuildAll();
+    }
+
+    public GridGraph getGraph() {
+        return graph;
+    }
+
+    // Same rule as DStarLite: a newer copy of the same map is fine while its log covers
+    // the changes since the last sync
+    public boolean canPlanOn(GridGraph other) {
+        return other == graph
+            || (graph.sharesHistoryWith(other) && other.getVersion() >= syncedVersion);
+    }
+
+    public List<GridGraph.Node> plan(GridGraph current, GridGraph.Node from, GridGraph.Node to) {
+        if (!canPlanOn(current)) {
+            throw new IllegalArgumentException("Planner was built for a different map");
+        }
+        this.graph = current;
+        return plan(from, to);
+    }
+
+    // Cells expanded over the planner's lifetime: abstract nodes plus the cells the
+    // cluster-local searches visited while linking start/goal and refining paths
+    public long getExpansions() {
+        return expansions;
+    }
+
+    // The part of getExpansions() spent in the abstract graph
+    public long getAbstractExpansions() {
+        return abstractExpansions;
+    }
+
+    // Cluster (re)builds over the planner's lifetime, including the initial build
+    public long getClustersBuilt() {
+        return clustersBuilt;
+    }
+
+    public int getClusterCount() {
+        return clusters.length;
+    }
+
+    public int getAbstractNodeCount() {
+        int count = 0;
+        for (Cluster cluster : clusters) {
+            count += cluster.nodes.length;
+        }
+        return count;
+    }
+
+    // Path from one cell to another, excluding the start, as Pathfinding's searches return
+    public List<GridGraph.Node> plan(GridGraph.Node from, GridGraph.Node to) {
+        long started = Metrics.searchStart();
+        long before = expansions;
+        List<GridGraph.Node> path = search(from, to);
+        Metrics.recordSearch(Metrics.Planner.HPA_STAR, expansions - before, started);
+        return path;
+    }
+
+    private List<GridGraph.Node> search(GridGraph.Node from, GridGraph.Node to) {
+        if (from == null || to == null
+                || !graph.isInBounds(from.row, from.col) || !graph.isInBounds(to.row, to.col)) {
+            return new ArrayList<>();
+        }
+        syncWalls();
+        int start = graph.indexOf(from.row, from.col);
+        int goal = graph.indexOf(to.row, to.col);
+        if (graph.isWall(start) || graph.isWall(goal)) {
+            return new ArrayList<>();
+        }
+        if (start == goal) {
+            return new ArrayList<>();
+        }
+
+        int startCluster = clusterOf(start);
+        int goalCluster = clusterOf(goal);
+        // Distances from start and goal to their clusters' transitions (and to each other)
+        int[] startLinks = linkDistances(startCluster, start);
+        int[] goalLinks = linkDistances(goalCluster, goal);
+        int direct = INF;
+        if (startCluster == goalCluster) {
+            direct = localPath(startCluster, start, goal);
+            expansions += localVisited;
+        }
+
+        int[] hops = abstractSearch(start, goal, startCluster, goalCluster, startLinks, goalLinks, direct);
+        if (hops == null) {
+            return new ArrayList<>();
+        }
+
+        List<GridGraph.Node> path = new ArrayList<>();
+        for (int i = 1; i < hops.length; i++) {
+            appendHop(path, hops[i - 1], hops[i]);
+        }
+        return path;
+    }
+
+    // A* over transition cells, keyed by grid cell so the shared scratch arrays can hold
+    // it; returns the cells visited from start to goal, or null if there is no route
+    private int[] abstractSearch(int start, int goal, int startCluster, int goalCluster,
+                                 int[] startLinks, int[] goalLinks, int direct) {
+        SearchScratch scratch = SearchScratch.acquire(graph.size());
+        IndexedMinHeap open = scratch.heap;
+        scratch.reach(start, 0, -1);
+        open.insertOrUpdate(start, priority(0, heuristic(start, goal)));
+
+        while (!open.isEmpty()) {
+            int current = open.poll();
+            if (current == goal) break;
+            scratch.close(current);
+            expansions++;
+            abstractExpansions++;
+            int g = scratch.gScore[current];
+
+            if (current == start) {
+                Cluster cluster = clusters[startCluster];
+                for (int i = 0; i < cluster.nodes.length; i++) {
+                    relax(scratch, current, cluster.nodes[i], g, startLinks[i], goal);
+                }
+                relax(scratch, current, goal, g, direct, goal);
+            }
+            int clusterIndex = clusterOf(current);
+            Cluster cluster = clusters[clusterIndex];
+            int node = cluster.indexOf(current);
+            if (node >= 0) {
+                int count = cluster.nodes.length;
+                for (int i = 0; i < count; i++) {
+                    if (i != node) {
+                        relax(scratch, current, cluster.nodes[i], g, cluster.distances[node * count + i], goal);
+                    }
+                }
+                for (int partner : cluster.partners[node]) {
+                    relax(scratch, current, partner, g, 1, goal);
+                }
+                if (clusterIndex == goalCluster) {
+                    relax(scratch, current, goal, g, goalLinks[node], goal);
+                }
+            }
+        }
+        if (!scratch.isReached(goal)) {
+            return null;
+        }
+
+        int length = 0;
+        for (int cell = goal; cell != -1; cell = scratch.cameFrom[cell]) {
+            length++;
+        }
+        int[] hops = new int[length];
+        for (int cell = goal; cell != -1; cell = scratch.cameFrom[cell]) {
+            hops[--length] = cell;
+        }
+        return hops;
+    }
+
+    private void relax(SearchScratch scratch, int from, int to, int g, int cost, int goal) {
+        if (cost == INF || scratch.isClosed(to)) return;
+        int tentativeG = g + cost;
+        if (tentativeG < scratch.g(to)) {
+            scratch.reach(to, tentativeG, from);
+            scratch.heap.insertOrUpdate(to, priority(tentativeG, heuristic(to, goal)));
+        }
+    }
+
+    // Octile moves all cost 1 here, so Chebyshev distance never overestimates and the
+    // abstract search finds the shortest route through the transitions
+    private int heuristic(int cell, int goal) {
+        return Math.max(Math.abs(graph.rowOf(cell) - graph.rowOf(goal)),
+                        Math.abs(graph.colOf(cell) - graph.colOf(goal)));
+    }
+
+    // f first, then deeper nodes first among equal f
+    private static long priority(int g, int h) {
+        return ((long) (g + h) << 32) - g;
+    }
+
+    // Grid steps from one hop to the next: a border crossing is a single step, anything
+    // else stays inside one cluster
+    private void appendHop(List<GridGraph.Node> path, int from, int to) {
+        int clusterIndex = clusterOf(from);
+        if (clusterIndex != clusterOf(to)) {
+            path.add(graph.nodeAt(to));
+            return;
+        }
+        Cluster cluster = clusters[clusterIndex];
+        int fromNode = cluster.indexOf(from);
+        int toNode = cluster.indexOf(to);
+        int key = fromNode * cluster.nodes.length + toNode;
+        // Only routes between two transitions are worth keeping; start and goal change
+        if (fromNode >= 0 && toNode >= 0 && cluster.paths[key] != null) {
+            for (int cell : cluster.paths[key]) {
+                path.add(graph.nodeAt(cell));
+            }
+            return;
+        }
+
+        localPath(clusterIndex, from, to);
+        expansions += localVisited;
+        int r0 = clusterRow(clusterIndex) * clusterSize;
+        int c0 = clusterCol(clusterIndex) * clusterSize;
+        int source = local(from, r0, c0);
+        int[] cells = new int[localDistance[local(to, r0, c0)]];
+        int i = cells.length;
+        for (int cell = local(to, r0, c0); cell != source; cell = localParent[cell]) {
+            cells[--i] = graph.indexOf(r0 + cell / clusterSize, c0 + cell % clusterSize);
+        }
+        for (int cell : cells) {
+            path.add(graph.nodeAt(cell));
+        }
+        if (fromNode >= 0 && toNode >= 0) {
+            cluster.paths[key] = cells;
+        }
+    }
+
+    // Distances from cell to every transition of its cluster, staying inside the cluster
+    private int[] linkDistances(int clusterIndex, int cell) {
+        Cluster cluster = clusters[clusterIndex];
+        localSearch(clusterIndex, cell);
+        expansions += localVisited;
+        int r0 = clusterRow(clusterIndex) * clusterSize;
+        int c0 = clusterCol(clusterIndex) * clusterSize;
+        int[] links = new int[cluster.nodes.length];
+        for (int i = 0; i < links.length; i++) {
+            links[i] = localDistance[local(cluster.nodes[i], r0, c0)];
+        }
+        return links;
+    }
+
+    // A* from one cell to another without leaving their cluster, filling localDistance/
+    // localParent along the way; returns the distance, or INF if there is no such path
+    private int localPath(int clusterIndex, int from, int to) {
+        int r0 = clusterRow(clusterIndex) * clusterSize;
+        int c0 = clusterCol(clusterIndex) * clusterSize;
+        int height = Math.min(clusterSize, graph.getRows() - r0);
+        int width = Math.min(clusterSize, graph.getCols() - c0);
+        Arrays.fill(localDistance, INF);
+        int source = local(from, r0, c0);
+        int goal = local(to, r0, c0);
+        int goalRow = goal / clusterSize, goalCol = goal % clusterSize;
+        int size = 0;
+        int visited = 0;
+        localDistance[source] = 0;
+        localParent[source] = -1;
+        size = heapPush(size, localKey(0, source, goalRow, goalCol) << 32 | source);
+        while (size > 0) {
+            long entry = localHeap[0];
+            size = heapPop(size);
+            int current = (int) entry;
+            int g = localDistance[current];
+            if ((entry >>> 32) != localKey(g, current, goalRow, goalCol)) continue; // stale
+            visited++;
+            if (current == goal) break;
+            int row = current / clusterSize;
+            int col = current % clusterSize;
+            for (int dr = -1; dr <= 1; dr++) {
+                for (int dc = -1; dc <= 1; dc++) {
+                    int r = row + dr, c = col + dc;
+                    if ((dr == 0 && dc == 0) || r < 0 || r >= height || c < 0 || c >= width) continue;
+                    int next = r * clusterSize + c;
+                    if (localDistance[next] <= g + 1 || graph.isWall(graph.indexOf(r0 + r, c0 + c))) continue;
+                    localDistance[next] = g + 1;
+                    localParent[next] = current;
+                    size = heapPush(size, localKey(g + 1, next, goalRow, goalCol) << 32 | next);
+                }
+            }
+        }
+        localVisited = visited;
+        return localDistance[goal];
+    }
+
+    // f = g + Chebyshev distance, scaled so ties go to the larger g
+    private long localKey(int g, int cell, int goalRow, int goalCol) {
+        int h = Math.max(Math.abs(cell / clusterSize - goalRow), Math.abs(cell % clusterSize - goalCol));
+        return (long) (g + h) * (clusterSize * clusterSize) + (clusterSize * clusterSize - 1 - g);
+    }
+
+    private int heapPush(int size, long entry) {
+        int slot = size++;
+        while (slot > 0 && localHeap[(slot - 1) >>> 1] > entry) {
+            localHeap[slot] = localHeap[(slot - 1) >>> 1];
+            slot = (slot - 1) >>> 1;
+        }
+        localHeap[slot] = entry;
+        return size;
+    }
+
+    private int heapPop(int size) {
+        long last = localHeap[--size];
+        int slot = 0;
+        while (2 * slot + 1 < size) {
+            int child = 2 * slot + 1;
+            if (child + 1 < size && localHeap[child + 1] < localHeap[child]) child++;
+            if (last <= localHeap[child]) break;
+            localHeap[slot] = localHeap[child];
+            slot = child;
+        }
+        localHeap[slot] = last;
+        return size;
+    }
+
+    // Breadth-first search from one cell over all the open cells of its cluster, filling
+    // localDistance/localParent
+    private void localSearch(int clusterIndex, int from) {
+        int r0 = clusterRow(clusterIndex) * clusterSize;
+        int c0 = clusterCol(clusterIndex) * clusterSize;
+        int height = Math.min(clusterSize, graph.getRows() - r0);
+        int width = Math.min(clusterSize, graph.getCols() - c0);
+        Arrays.fill(localDistance, INF);
+        int source = local(from, r0, c0);
+        int head = 0, tail = 0;
+        localQueue[tail++] = source;
+        localDistance[source] = 0;
+        localParent[source] = -1;
+        while (head < tail) {
+            int current = localQueue[head++];
+            int row = current / clusterSize;
+            int col = current % clusterSize;
+            for (int dr = -1; dr <= 1; dr++) {
+                for (int dc = -1; dc <= 1; dc++) {
+                    int r = row + dr, c = col + dc;
+                    if ((dr == 0 && dc == 0) || r < 0 || r >= height || c < 0 || c >= width) continue;
+                    int next = r * clusterSize + c;
+                    if (localDistance[next] != INF || graph.isWall(graph.indexOf(r0 + r, c0 + c))) continue;
+                    localDistance[next] = localDistance[current] + 1;
+                    localParent[next] = current;
+                    localQueue[tail++] = next;
+                }
+            }
+        }
+        localVisited = head;
+    }
+
+    private void syncWalls() {
+        if (graph.getVersion() == syncedVersion) return;
+        int count = graph.getChangesSince(syncedVersion, changes);
+        if (count < 0) {
+            rebuildAll();
+            return;
+        }
+        syncedVersion = graph.getVersion();
+        // A changed cell alters its own cluster's distances and, on a border, the
+        // entrances it takes part in, which live in the clusters around it
+        boolean[] dirty = new boolean[clusters.length];
+        for (int i = 0; i < count; i++) {
+            int row = graph.rowOf(changes[i]);
+            int col = graph.colOf(changes[i]);
+            for (int dr = -1; dr <= 1; dr++) {
+                for (int dc = -1; dc <= 1; dc++) {
+                    if (graph.isInBounds(row + dr, col + dc)) {
+                        dirty[((row + dr) / clusterSize) * clusterCols + (col + dc) / clusterSize] = true;
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < clusters.length; i++) {
+            if (dirty[i]) buildCluster(i);
+        }
+    }
+
+    private void rebuildAll() {
+        syncedVersion = graph.getVersion();
+        for (int i = 0; i < clusters.length; i++) {
+            buildCluster(i);
+        }
+    }
+
+    // Finds the cluster's transitions on all four sides and corners, then the distances
+    // between them. Both clusters at a border work out its entrances the same way, so
+    // rebuilding one never leaves its neighbour inconsistent.
+    private void buildCluster(int index) {
+        clustersBuilt++;
+        int cr = clusterRow(index), cc = clusterCol(index);
+        int top = cr * clusterSize, left = cc * clusterSize;
+        int bottom = Math.min(top + clusterSize, graph.getRows()) - 1;
+        int right = Math.min(left + clusterSize, graph.getCols()) - 1;
+        List<int[]> transitions = new ArrayList<>(); // {inside, outside}
+
+        if (cr > 0) border(transitions, top, left, 0, 1, -1, 0, right - left + 1);
+        if (bottom + 1 < graph.getRows()) border(transitions, bottom, left, 0, 1, 1, 0, right - left + 1);
+        if (cc > 0) border(transitions, top, left, 1, 0, 0, -1, bottom - top + 1);
+        if (right + 1 < graph.getCols()) border(transitions, top, right, 1, 0, 0, 1, bottom - top + 1);
+        corner(transitions, top, left, -1, -1);
+        corner(transitions, top, right, -1, 1);
+        corner(transitions, bottom, left, 1, -1);
+        corner(transitions, bottom, right, 1, 1);
+
+        Cluster cluster = new Cluster();
+        List<Integer> nodes = new ArrayList<>();
+        List<List<Integer>> partners = new ArrayList<>();
+        for (int[] transition : transitions) {
+            int at = nodes.indexOf(transition[0]);
+            if (at < 0) {
+                at = nodes.size();
+                nodes.add(transition[0]);
+                partners.add(new ArrayList<>());
+            }
+            if (!partners.get(at).contains(transition[1])) partners.get(at).add(transition[1]);
+        }
+        int count = nodes.size();
+        cluster.nodes = new int[count];
+        cluster.partners = new int[count][];
+        for (int i = 0; i < count; i++) {
+            cluster.nodes[i] = nodes.get(i);
+            List<Integer> list = partners.get(i);
+            cluster.partners[i] = new int[list.size()];
+            for (int j = 0; j < list.size(); j++) {
+                cluster.partners[i][j] = list.get(j);
+            }
+        }
+        cluster.distances = new int[count * count];
+        cluster.paths = new int[count * count][];
+        for (int i = 0; i < count; i++) {
+            localSearch(index, cluster.nodes[i]);
+            for (int j = 0; j < count; j++) {
+                cluster.distances[i * count + j] = localDistance[local(cluster.nodes[j], top, left)];
+            }
+        }
+        clusters[index] = cluster;
+    }
+
+    // Entrances along one side. The side runs length cells from (row, col) in steps of
+    // (stepRow, stepCol); the neighbouring cluster lies at (outRow, outCol) from each cell.
+    private void border(List<int[]> transitions, int row, int col, int stepRow, int stepCol,
+                        int outRow, int outCol, int length) {
+        int runStart = -1;
+        for (int i = 0; i <= length; i++) {
+            boolean pair = i < length && open(row + i * stepRow, col + i * stepCol)
+                && open(row + i * stepRow + outRow, col + i * stepCol + outCol);
+            if (pair && runStart < 0) {
+                runStart = i;
+            } else if (!pair && runStart >= 0) {
+                int runLength = i - runStart;
+                if (runLength > LONG_ENTRANCE) {
+                    addStraight(transitions, row, col, stepRow, stepCol, outRow, outCol, runStart);
+                    addStraight(transitions, row, col, stepRow, stepCol, outRow, outCol, i - 1);
+                } else {
+                    addStraight(transitions, row, col, stepRow, stepCol, outRow, outCol, runStart + runLength / 2);
+                }
+                runStart = -1;
+            }
+        }
+        // Diagonal crossings with no open straight pair next to them
+        for (int i = 0; i + 1 < length; i++) {
+            int r = row + i * stepRow, c = col + i * stepCol;
+            int nr = r + stepRow, nc = c + stepCol;
+            boolean inside = open(r, c), insideNext = open(nr, nc);
+            boolean outside = open(r + outRow, c + outCol), outsideNext = open(nr + outRow, nc + outCol);
+            if (inside && outsideNext && !outside && !insideNext) {
+                transitions.add(new int[]{graph.indexOf(r, c), graph.indexOf(nr + outRow, nc + outCol)});
+            }
+            if (insideNext && outside && !inside && !outsideNext) {
+                transitions.add(new int[]{graph.indexOf(nr, nc), graph.indexOf(r + outRow, c + outCol)});
+            }
+        }
+    }
+
+    private void addStraight(List<int[]> transitions, int row, int col, int stepRow, int stepCol,
+                             int outRow, int outCol, int i) {
+        int r = row + i * stepRow, c = col + i * stepCol;
+        transitions.add(new int[]{graph.indexOf(r, c), graph.indexOf(r + outRow, c + outCol)});
+    }
+
+    // A diagonal step out through a cluster corner when both cells beside it are walls
+    private void corner(List<int[]> transitions, int row, int col, int dr, int dc) {
+        if (open(row, col) && open(row + dr, col + dc) && !open(row + dr, col) && !open(row, col + dc)) {
+            transitions.add(new int[]{graph.indexOf(row, col), graph.indexOf(row + dr, col + dc)});
+        }
+    }
+
+    private boolean open(int row, int col) {
+        return graph.isInBounds(row, col) && !graph.isWall(graph.indexOf(row, col));
+    }
+
+    private int clusterOf(int cell) {
+        return (graph.rowOf(cell) / clusterSize) * clusterCols + graph.colOf(cell) / clusterSize;
+    }
+
+    private int clusterRow(int cluster) {
+        return cluster / clusterCols;
+    }
+
+    private int clusterCol(int cluster) {
+        return cluster % clusterCols;
+    }
+
+    private int local(int cell, int r0, int c0) {
+        return (graph.rowOf(cell) - r0) * clusterSize + graph.colOf(cell) - c0;
+    }
+}
@@ -0,0 +1,26 @@
+package dummyInterface;
+
+public class HPAStarEnemy extends Enemy {
+    private HPAStar planner;
+
+    public HPAStarEnemy(int startX, int startY) {
+        super(startX, startY);
+    }
+
+    @Override
+    public void updatePath(GridGraph graph, GridGraph.Node target) {
+        GridGraph.Node start = graph.getNode(y, x);
+        if (start != null && target != null) {
+            if (planner == null || !planner.canPlanOn(graph)) {
+                planner = new HPAStar(graph);
+            }
+            this.currentPath = planner.plan(graph, start, target);
+        } else {
+            this.currentPath.clear();
+        }
+    }
+
+    public long getExpansions() {
+        return planner == null ? 0 : planner.getExpansions();
+    }
+}
@@ -0,0 +1,433 @@
+package dummyInterface;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+// Runs GameLogic without any UI, as fast as it will go, and reports throughput,
+// per-planner timing percentiles and allocation. Usable in batch jobs (no display needed):
+//   java dummyInterface.HeadlessRunner [options]
+//     --map <file>          text maze of 0/1 rows (see MazeIO)
+//     --image <file>        image converted with ImageProcessor (--size cells a side)
+//     --size <n>            grid size for --image or an empty map (default 64)
+//     --difficulty <d>      EASY, MEDIUM, HARD or EXPERT (default MEDIUM)
+//     --mode <m>            CHASE, ESCAPE or TIME_TRIAL (default CHASE)
+//     --enemies <n>         replace the difficulty's enemies with n of its enemy types
+//     --player <policy>     still, random, flee or script:<file> (default random)
+//     --ticks <n>           ticks to simulate (default 1000)
+//     --warmup <n>          ticks to run before measuring (default 100)
+//     --threads <n>         planning threads, one pool for the whole run (default 1)
+//     --flowfield           let enemies share one flow field
+//     --no-path-cache       search afresh every tick instead of sharing a PathCache
+//     --seed <n>            seed for the player policy and enemy placement (default 1)
+//     --metrics <file>      record Metrics over the measured ticks and write them as
+//                           JSON if the name ends in .json, CSV otherwise
+// A game that ends is restarted on the same map and counted.
+public class HeadlessRunner {
+    private static final int[] DIR_ROW = {-1, -1, -1, 0, 0, 1, 1, 1};
+    private static final int[] DIR_COL = {-1, 0, 1, -1, 1, -1, 0, 1};
+
+    private String mapFile;
+    private String imageFile;
+    private int size = 64;
+    private GameLogic.Difficulty difficulty = GameLogic.Difficulty.MEDIUM;
+    private GameLogic.GameMode mode = GameLogic.GameMode.CHASE;
+    private int enemyCount = -1;
+    private String playerPolicy = "random";
+    private int ticks = 1000;
+    private int warmup = 100;
+    private int threads = 1;
+    private boolean flowField;
+    private PathCache pathCache = new PathCache(PathCache.DEFAULT_CAPACITY);
+    private long seed = 1;
+    private String metricsFile;
+
+    private GridGraph map;
+    private Random random;
+    private List<int[]> script;
+    private int scriptPosition;
+    private int gamesEnded;
+    // Shared by every game of the run, so restarts don't replace its workers
+    private ForkJoinPool planningPool;
+    // Workers of planningPool still running, and what the ones that have exited allocated
+    private final Set<Thread> planningWorkers = new HashSet<>();
+    private long exitedWorkerBytes;
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        HeadlessRunner runner = new HeadlessRunner();
+        try {
+            runner.parseArgs(args);
+            runner.run();
+        } catch (IllegalArgumentException | IOException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private void parseArgs(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if (option.equals("--flowfield")) {
+                flowField = true;
+                continue;
+            }
+            if (option.equals("--no-path-cache")) {
+                pathCache = null;
+                continue;
+            }
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + option);
+            }
+            String value = args[++i];
+            switch (option) {
+                case "--map": mapFile = value; break;
+                case "--image": imageFile = value; break;
+                case "--size": size = Integer.parseInt(value); break;
+                case "--difficulty": difficulty = GameLogic.Difficulty.valueOf(value.toUpperCase(Locale.ROOT)); break;
+                case "--mode": mode = GameLogic.GameMode.valueOf(value.toUpperCase(Locale.ROOT)); break;
+                case "--enemies": enemyCount = Integer.parseInt(value); break;
+                case "--player": playerPolicy = value; break;
+                case "--ticks": ticks = Integer.parseInt(value); break;
+                case "--warmup": warmup = Integer.parseInt(value); break;
+                case "--threads": threads = Integer.parseInt(value); break;
+                case "--seed": seed = Long.parseLong(value); break;
+                case "--metrics": metricsFile = value; break;
+                default: throw new IllegalArgumentException("Unknown option: " + option);
+            }
+        }
+    }
+
+    private void run() throws IOException {
+        map = loadMap();
+        // Built once here instead of by every restart: each game plays on a copy of the
+        // map, and copies keep its tables
+        GameLogic.attachDistanceTables(map);
+        random = new Random(seed);
+        if (playerPolicy.startsWith("script:")) {
+            script = loadScript(playerPolicy.substring("script:".length()));
+        } else if (!playerPolicy.equals("still") && !playerPolicy.equals("random") && !playerPolicy.equals("flee")) {
+            throw new IllegalArgumentException("Unknown player policy: " + playerPolicy);
+        }
+
+        if (threads > 1) {
+            planningPool = new ForkJoinPool(threads, PlanningWorker::new, null, false);
+        }
+        GameLogic game = newGame();
+        for (int i = 0; i < warmup; i++) {
+            game = tick(game, null, null);
+        }
+        gamesEnded = 0;
+        if (metricsFile != null) {
+            Metrics.reset();
+            Metrics.setEnabled(true);
+        }
+
+        Map<String, LatencyHistogram> planTimes = new LinkedHashMap<>();
+        LatencyHistogram tickTimes = new LatencyHistogram();
+        long gcCount = gcCount(), gcMillis = gcMillis();
+        long allocated = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < ticks; i++) {
+            game = tick(game, tickTimes, planTimes);
+        }
+        long elapsed = System.nanoTime() - start;
+        Metrics.setEnabled(false);
+        allocated = allocatedBytes() - allocated;
+        gcCount = gcCount() - gcCount;
+        gcMillis = gcMillis() - gcMillis;
+        if (planningPool != null) {
+            planningPool.shutdown();
+        }
+
+        double seconds = elapsed / 1e9;
+        System.out.printf("Map %dx%d, %s, %s, %d enemies, player %s%s%s%n",
+            map.getRows(), map.getCols(), difficulty, mode, game.getEnemies().size(), playerPolicy,
+            flowField ? ", flow field" : "", threads > 1 ? ", " + threads + " planning threads" : "");
+        System.out.printf("%d ticks in %.2f s: %.1f ticks/s, %d game(s) ended%n", ticks, seconds, ticks / seconds, gamesEnded);
+        System.out.println();
+        System.out.printf("%-12s %10s %10s %10s %10s %10s %10s%n", "timing (us)", "count", "mean", "p50", "p90", "p99", "max");
+        printRow("tick", tickTimes);
+        for (Map.Entry<String, LatencyHistogram> entry : planTimes.entrySet()) {
+            printRow(entry.getKey(), entry.getValue());
+        }
+        System.out.println();
+        if (allocated >= 0) {
+            System.out.printf("Allocated %.1f MB (%.1f MB/s, %.1f KB/tick) on the game thread%s%n",
+                allocated / 1e6, allocated / 1e6 / seconds, allocated / 1e3 / ticks,
+                threads > 1 ? " and the planning pool" : "");
+        } else {
+            System.out.println("Allocation counting is not supported by this JVM");
+        }
+        System.out.printf("GC: %d collection(s), %d ms%n", gcCount, gcMillis);
+        if (pathCache != null) {
+            System.out.printf("Path cache: %d hit(s) (%d from part of a path), %d miss(es), %d eviction(s), %d invalidation(s)%n",
+                pathCache.getHits(), pathCache.getSuffixHits(), pathCache.getMisses(), pathCache.getEvictions(),
+                pathCache.getInvalidations());
+        }
+        if (metricsFile != null) {
+            writeMetrics();
+        }
+    }
+
+    private void writeMetrics() throws IOException {
+        try (Writer out = Files.newBufferedWriter(Paths.get(metricsFile))) {
+            if (metricsFile.toLowerCase(Locale.ROOT).endsWith(".json")) {
+                Metrics.writeJson(out);
+            } else {
+                Metrics.writeCsv(out);
+            }
+        }
+        System.out.println("Metrics written to " + metricsFile);
+    }
+
+    // One simulation step: the player moves, then the enemies; a finished game is restarted
+    private GameLogic tick(GameLogic game, LatencyHistogram tickTimes, Map<String, LatencyHistogram> planTimes) {
+        long start = System.nanoTime();
+        movePlayer(game);
+        // Walking into an enemy ends the game before anyone plans
+        boolean planned = !game.isGameOver();
+        game.moveEnemies();
+        if (tickTimes != null) {
+            tickTimes.record(System.nanoTime() - start);
+            for (Enemy enemy : planned ? game.getEnemies() : new ArrayList<Enemy>()) {
+                planTimes.computeIfAbsent(enemy.getLastPlanner(), k -> new LatencyHistogram())
+                    .record(enemy.getLastPlanNanos());
+            }
+        }
+        if (game.isGameOver()) {
+            gamesEnded++;
+            return newGame();
+        }
+        return game;
+    }
+
+    private void movePlayer(GameLogic game) {
+        if (game.isGameOver()) return;
+        GridGraph graph = game.getGraph();
+        int row = game.getPlayerY();
+        int col = game.getPlayerX();
+
+        if (script != null) {
+            int[] step = script.get(scriptPosition++ % script.size());
+            row += step[0];
+            col += step[1];
+        } else if (playerPolicy.equals("random")) {
+            int[] neighbors = new int[8];
+            int count = graph.getNeighbors(graph.indexOf(row, col), neighbors);
+            if (count == 0) return;
+            int next = neighbors[random.nextInt(count)];
+            row = graph.rowOf(next);
+            col = graph.colOf(next);
+        } else if (playerPolicy.equals("flee")) {
+            // Step to the open neighbour furthest from the nearest enemy
+            int bestRow = row, bestCol = col;
+            int bestDistance = distanceToNearestEnemy(game, row, col);
+            for (int d = 0; d < DIR_ROW.length; d++) {
+                int r = row + DIR_ROW[d], c = col + DIR_COL[d];
+                if (!graph.isInBounds(r, c) || graph.isWall(graph.indexOf(r, c))) continue;
+                int distance = distanceToNearestEnemy(game, r, c);
+                if (distance > bestDistance) {
+                    bestDistance = distance;
+                    bestRow = r;
+                    bestCol = c;
+                }
+            }
+            row = bestRow;
+            col = bestCol;
+        }
+
+        if ((row != game.getPlayerY() || col != game.getPlayerX())
+                && graph.isInBounds(row, col) && !graph.isWall(graph.indexOf(row, col))) {
+            game.movePlayer(row, col);
+        }
+    }
+
+    private static int distanceToNearestEnemy(GameLogic game, int row, int col) {
+        int nearest = Integer.MAX_VALUE;
+        for (Enemy enemy : game.getEnemies()) {
+            nearest = Math.min(nearest, Math.max(Math.abs(enemy.getY() - row), Math.abs(enemy.getX() - col)));
+        }
+        return nearest;
+    }
+
+    private GameLogic newGame() {
+        GameLogic game = new GameLogic(map.getRows(), map.getCols());
+        // setDifficulty/setMode reset the game, so they go before the map
+        game.setDifficulty(difficulty);
+        game.setMode(mode);
+        GridGraph graph = map.copy();
+        game.setGraph(graph);
+        if (game.getGraph() != graph) {
+            throw new IllegalArgumentException("Map was rejected: the player can't reach every enemy");
+        }
+        if (enemyCount >= 0) {
+            placeEnemies(game);
+        }
+        game.setFlowFieldEnabled(flowField);
+        // One cache across restarts, since they replay the same map
+        game.setPathCache(pathCache);
+        game.setPlanningPool(planningPool);
+        return game;
+    }
+
+    // Spreads the difficulty's enemy types over random cells the player can reach
+    private void placeEnemies(GameLogic game) {
+        List<Class<? extends Enemy>> types = new ArrayList<>();
+        types.add(BFSEnemy.class);
+        if (difficulty != GameLogic.Difficulty.EASY) types.add(DijkstraEnemy.class);
+        if (difficulty == GameLogic.Difficulty.HARD || difficulty == GameLogic.Difficulty.EXPERT) {
+            types.add(AStarEnemy.class);
+        }
+        if (difficulty == GameLogic.Difficulty.EXPERT) types.add(DStarLiteEnemy.class);
+
+        GridGraph graph = game.getGraph();
+        FlowField reach = FlowField.build(graph, graph.getNode(game.getPlayerY(), game.getPlayerX()), null);
+        int minDistance = Math.min(10, Math.max(graph.getRows(), graph.getCols()) / 4);
+        Random placement = new Random(seed);
+        game.clearEnemies();
+        int placed = 0;
+        int attempts = 0;
+        while (placed < enemyCount) {
+            if (++attempts > 100 * (enemyCount + 100)) {
+                throw new IllegalArgumentException("Could not find room for " + enemyCount + " enemies");
+            }
+            int row = placement.nextInt(graph.getRows());
+            int col = placement.nextInt(graph.getCols());
+            if (reach.distanceFrom(row, col) < minDistance) continue;
+            try {
+                game.addEnemy(types.get(placed % types.size()).getConstructor(int.class, int.class).newInstance(col, row));
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            }
+            placed++;
+        }
+    }
+
+    private GridGraph loadMap() throws IOException {
+        if (mapFile != null) {
+            GridGraph loaded = MazeIO.loadMaze(mapFile);
+            if (loaded.size() == 0) throw new IllegalArgumentException("Empty map: " + mapFile);
+            return loaded;
+        }
+        if (imageFile != null) {
+            BufferedImage image = ImageIO.read(new File(imageFile));
+            if (image == null) throw new IllegalArgumentException("Not an image: " + imageFile);
+            return ImageProcessor.createGridFromImage(image, size);
+        }
+        return new GridGraph(size, size);
+    }
+
+    // Script steps, one per tick and looped: U, D, L, R, UL, UR, DL, DR or . to stay
+    private static List<int[]> loadScript(String file) throws IOException {
+        List<int[]> steps = new ArrayList<>();
+        for (String token : new String(Files.readAllBytes(Paths.get(file))).trim().split("\\s+")) {
+            if (token.isEmpty()) continue;
+            int dRow = 0, dCol = 0;
+            for (char c : token.toUpperCase(Locale.ROOT).toCharArray()) {
+                switch (c) {
+                    case 'U': dRow = -1; break;
+                    case 'D': dRow = 1; break;
+                    case 'L': dCol = -1; break;
+                    case 'R': dCol = 1; break;
+                    case '.': break;
+                    default: throw new IllegalArgumentException("Bad script step: " + token);
+                }
+            }
+            steps.add(new int[]{dRow, dCol});
+        }
+        if (steps.isEmpty()) throw new IllegalArgumentException("Empty script: " + file);
+        return steps;
+    }
+
+    private static void printRow(String name, LatencyHistogram histogram) {
+        System.out.printf("%-12s %10d %10.1f %10.1f %10.1f %10.1f %10.1f%n", name, histogram.getCount(),
+            histogram.getMean() / 1e3, histogram.getValueAtPercentile(50) / 1e3,
+            histogram.getValueAtPercentile(90) / 1e3, histogram.getValueAtPercentile(99) / 1e3,
+            histogram.getMax() / 1e3);
+    }
+
+    // Bytes allocated so far by the threads that run the game: this one and the planning
+    // pool's workers, counting workers the pool has since retired. -1 if the JVM can't tell
+    private long allocatedBytes() {
+        com.sun.management.ThreadMXBean threadBean = allocationBean();
+        if (threadBean == null) return -1;
+        long total = threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        synchronized (planningWorkers) {
+            total += exitedWorkerBytes;
+            for (Thread worker : planningWorkers) {
+                total += Math.max(0, threadBean.getThreadAllocatedBytes(worker.getId()));
+            }
+        }
+        return total;
+    }
+
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) return null;
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+        if (!threadBean.isThreadAllocatedMemorySupported()) return null;
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+        return threadBean;
+    }
+
+    // Pool thread that registers itself with allocatedBytes, and on exit hands over what it
+    // allocated (the JVM forgets a thread's count once it has ended)
+    private final class PlanningWorker extends ForkJoinWorkerThread {
+        PlanningWorker(ForkJoinPool pool) {
+            super(pool);
+        }
+
+        @Override
+        protected void onStart() {
+            super.onStart();
+            synchronized (planningWorkers) {
+                planningWorkers.add(this);
+            }
+        }
+
+        @Override
+        protected void onTermination(Throwable exception) {
+            com.sun.management.ThreadMXBean threadBean = allocationBean();
+            synchronized (planningWorkers) {
+                if (threadBean != null) {
+                    exitedWorkerBytes += Math.max(0, threadBean.getThreadAllocatedBytes(getId()));
+                }
+                planningWorkers.remove(this);
+            }
+            super.onTermination(exception);
+        }
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long gcMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += Math.max(0, gc.getCollectionTime());
+        }
+        return millis;
+    }
+}
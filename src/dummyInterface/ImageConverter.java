@@ -0,0 +1,377 @@
+package dummyInterface;
+
+import java.awt.color.ColorSpace;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.Raster;
+import java.awt.image.SampleModel;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Turns an image into a square wall bitmap in two data-parallel stages on a ForkJoinPool:
+// luminance() box-averages the source pixels that fall in each grid cell, reading the
+// DataBuffer directly for the usual 8-bit RGB and grey layouts (and getRGB for anything
+// else, so custom image types work too), then threshold() marks the dark cells. Both split
+// the grid into rectangles of roughly equal work until they are small enough to run on
+// one worker. Cells come out row-major, index = row * gridSize + col, like GridGraph.
+// A converter is configured with setters and can be reused from several threads as long
+// as nobody changes its settings meanwhile.
+public class ImageConverter {
+    public enum Threshold {
+        FIXED,    // darker than a set level
+        OTSU,     // level picked from the image's histogram to best split dark from light
+        ADAPTIVE  // darker than the average around the cell, for unevenly lit photos
+    }
+
+    // Source pixels (or cells, for thresholding) one task handles without splitting
+    private static final long GRAIN = 1 << 15;
+
+    private Threshold threshold = Threshold.FIXED;
+    private float level = 0.5f;
+    private int radius;              // ADAPTIVE window radius in cells, 0 = gridSize / 16
+    private float sensitivity = 0.15f;
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+
+    public Threshold getThreshold() {
+        return threshold;
+    }
+
+    public void setThreshold(Threshold threshold) {
+        this.threshold = threshold;
+    }
+
+    // Brightness below which a cell is dark with FIXED, 0 to 1
+    public void setLevel(float level) {
+        if (!(level >= 0 && level <= 1)) {
+            throw new IllegalArgumentException("Level must be between 0 and 1: " + level);
+        }
+        this.level = level;
+    }
+
+    // ADAPTIVE: cells are compared with the average of the (2 * radius + 1)^2 cells around
+    // them and are dark when they're more than sensitivity (a fraction) below it
+    public void setAdaptiveWindow(int radius, float sensitivity) {
+        if (radius < 0 || !(sensitivity >= 0 && sensitivity < 1)) {
+            throw new IllegalArgumentException("Invalid adaptive window: " + radius + ", " + sensitivity);
+        }
+        this.radius = radius;
+        this.sensitivity = sensitivity;
+    }
+
+    public void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    // Every setting that changes the output, e.g. for keying stored results
+    public String describe() {
+        switch (threshold) {
+            case FIXED:
+                return "fixed:" + level;
+            case ADAPTIVE:
+                return "adaptive:" + radius + ":" + sensitivity;
+            default:
+                return "otsu";
+        }
+    }
+
+    public boolean[] wallBitmap(BufferedImage image, int gridSize) {
+        return threshold(luminance(image, gridSize), gridSize);
+    }
+
+    // Brightness of each cell, 0 (black) to 1 (white), averaged over the source pixels it
+    // covers. A source smaller than the grid repeats pixels instead.
+    public float[] luminance(BufferedImage image, int gridSize) {
+        float[] luminance = new float[gridSize * gridSize];
+        luminance(image, gridSize, 0, gridSize, luminance);
+        return luminance;
+    }
+
+    // Fills in grid rows [row0, row1) of out, so callers can convert a big image in bands
+    // and look at (or abandon) what's done so far in between
+    public void luminance(BufferedImage image, int gridSize, int row0, int row1, float[] out) {
+        if (gridSize < 1 || row0 < 0 || row1 > gridSize || row0 > row1) {
+            throw new IllegalArgumentException("Invalid rows " + row0 + "-" + row1 + " of " + gridSize);
+        }
+        if (row0 == row1) return;
+        PixelReader reader = new PixelReader(image);
+        int width = image.getWidth(), height = image.getHeight();
+        int[] colStart = boxEdges(width, gridSize);
+        int[] rowStart = boxEdges(height, gridSize);
+        long pixelsPerCell = Math.max(1, (long) width * height / ((long) gridSize * gridSize));
+
+        pool.invoke(new TileTask(row0, row1, 0, gridSize, pixelsPerCell, (tileRow0, tileRow1, col0, col1) -> {
+            int x0 = colStart[col0], x1 = end(colStart, col1 - 1);
+            int[] samples = new int[x1 - x0];
+            long[] sums = new long[col1 - col0];
+            for (int row = tileRow0; row < tileRow1; row++) {
+                Arrays.fill(sums, 0);
+                int y0 = rowStart[row], y1 = end(rowStart, row);
+                for (int y = y0; y < y1; y++) {
+                    reader.read(y, x0, x1, samples);
+                    for (int col = col0; col < col1; col++) {
+                        long sum = 0;
+                        for (int x = colStart[col], xEnd = end(colStart, col); x < xEnd; x++) {
+                            sum += samples[x - x0];
+                        }
+                        sums[col - col0] += sum;
+                    }
+                }
+                for (int col = col0; col < col1; col++) {
+                    long pixels = (long) (y1 - y0) * (end(colStart, col) - colStart[col]);
+                    out[row * gridSize + col] = sums[col - col0] / (pixels * 255000f);
+                }
+            }
+        }));
+    }
+
+    // Dark cells of a luminance grid from luminance(), by the configured threshold
+    public boolean[] threshold(float[] luminance, int gridSize) {
+        boolean[] dark = new boolean[gridSize * gridSize];
+        switch (threshold) {
+            case FIXED:
+                fixed(luminance, gridSize, level, dark);
+                break;
+            case OTSU:
+                fixed(luminance, gridSize, otsuLevel(luminance), dark);
+                break;
+            case ADAPTIVE:
+                adaptive(luminance, gridSize, dark);
+                break;
+        }
+        return dark;
+    }
+
+    private void fixed(float[] luminance, int gridSize, float cutoff, boolean[] dark) {
+        pool.invoke(new TileTask(0, gridSize, 0, gridSize, 1, (row0, row1, col0, col1) -> {
+            for (int row = row0; row < row1; row++) {
+                for (int i = row * gridSize + col0, end = row * gridSize + col1; i < end; i++) {
+                    dark[i] = luminance[i] < cutoff;
+                }
+            }
+        }));
+    }
+
+    // Otsu's method: the level that maximises the variance between the dark and the
+    // light cells, over a 256-bin histogram. The histogram pass is a single sweep over
+    // the grid, cheap next to reading the source.
+    static float otsuLevel(float[] luminance) {
+        long[] histogram = new long[256];
+        for (float value : luminance) {
+            histogram[Math.min(255, (int) (value * 256))]++;
+        }
+        long total = luminance.length;
+        double sumAll = 0;
+        for (int i = 0; i < 256; i++) {
+            sumAll += (double) i * histogram[i];
+        }
+        long below = 0;
+        double sumBelow = 0, bestVariance = -1;
+        int best = 128;
+        for (int i = 0; i < 256; i++) {
+            below += histogram[i];
+            sumBelow += (double) i * histogram[i];
+            long above = total - below;
+            if (below == 0 || above == 0) continue;
+            double meanBelow = sumBelow / below;
+            double meanAbove = (sumAll - sumBelow) / above;
+            double variance = (double) below * above * (meanBelow - meanAbove) * (meanBelow - meanAbove);
+            if (variance > bestVariance) {
+                bestVariance = variance;
+                best = i + 1; // bins up to i are dark
+            }
+        }
+        return best / 256f;
+    }
+
+    // Mean over a window from a summed-area table, built row by row (each row is a
+    // prefix sum plus the row above, so rows depend on each other and stay serial)
+    private void adaptive(float[] luminance, int gridSize, boolean[] dark) {
+        int r = radius > 0 ? radius : Math.max(1, gridSize / 16);
+        int stride = gridSize + 1;
+        double[] table = new double[stride * stride];
+        for (int row = 0; row < gridSize; row++) {
+            double rowSum = 0;
+            for (int col = 0; col < gridSize; col++) {
+                rowSum += luminance[row * gridSize + col];
+                table[(row + 1) * stride + col + 1] = table[row * stride + col + 1] + rowSum;
+            }
+        }
+        float keep = 1 - sensitivity;
+        pool.invoke(new TileTask(0, gridSize, 0, gridSize, 1, (row0, row1, col0, col1) -> {
+            for (int row = row0; row < row1; row++) {
+                int top = Math.max(0, row - r), bottom = Math.min(gridSize, row + r + 1);
+                for (int col = col0; col < col1; col++) {
+                    int left = Math.max(0, col - r), right = Math.min(gridSize, col + r + 1);
+                    double sum = table[bottom * stride + right] - table[top * stride + right]
+                            - table[bottom * stride + left] + table[top * stride + left];
+                    double mean = sum / ((bottom - top) * (right - left));
+                    dark[row * gridSize + col] = luminance[row * gridSize + col] < mean * keep;
+                }
+            }
+        }));
+    }
+
+    // First source pixel of each cell's box along one axis
+    private static int[] boxEdges(int length, int cells) {
+        int[] start = new int[cells + 1];
+        for (int i = 0; i <= cells; i++) {
+            start[i] = (int) ((long) i * length / cells);
+        }
+        return start;
+    }
+
+    // One past the last source pixel of cell i's box; at least one pixel wide
+    private static int end(int[] start, int i) {
+        return Math.max(start[i] + 1, start[i + 1]);
+    }
+
+    private interface TileBody {
+        void run(int row0, int row1, int col0, int col1);
+    }
+
+    // Halves the longer side of its rectangle of cells until the work left (cells times
+    // cost per cell) is under GRAIN, then runs the body on it
+    private static class TileTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int row0, row1, col0, col1;
+        private final long costPerCell;
+        private final TileBody body;
+
+        TileTask(int row0, int row1, int col0, int col1, long costPerCell, TileBody body) {
+            this.row0 = row0;
+            this.row1 = row1;
+            this.col0 = col0;
+            this.col1 = col1;
+            this.costPerCell = costPerCell;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute() {
+            int rows = row1 - row0, cols = col1 - col0;
+            if ((long) rows * cols * costPerCell <= GRAIN || (rows == 1 && cols == 1)) {
+                body.run(row0, row1, col0, col1);
+            } else if (rows >= cols) {
+                int mid = row0 + rows / 2;
+                invokeAll(new TileTask(row0, mid, col0, col1, costPerCell, body),
+                          new TileTask(mid, row1, col0, col1, costPerCell, body));
+            } else {
+                int mid = col0 + cols / 2;
+                invokeAll(new TileTask(row0, row1, col0, mid, costPerCell, body),
+                          new TileTask(row0, row1, mid, col1, costPerCell, body));
+            }
+        }
+    }
+
+    // Reads luminance (0.299 R + 0.587 G + 0.114 B, scaled to 0..255000) for a run of
+    // pixels in one source row. Packed int and interleaved byte layouts with 8-bit
+    // samples are read straight from the DataBuffer; everything else goes through
+    // getRGB. Grey images count their sample as the luminance. Alpha is ignored.
+    private static class PixelReader {
+        private static final int PACKED = 0, INTERLEAVED = 1, GREY = 2, GENERIC = 3;
+
+        private final BufferedImage image;
+        private final int layout;
+        private int[] ints;
+        private byte[] bytes;
+        private int offset, scanline, pixelStride;
+        private int translateX, translateY;
+        private int redMask, greenMask, blueMask, redShift, greenShift, blueShift;
+        private int redOffset, greenOffset, blueOffset;
+
+        PixelReader(BufferedImage image) {
+            this.image = image;
+            this.layout = inspect(image.getRaster(), image.getColorModel());
+        }
+
+        private int inspect(Raster raster, ColorModel colorModel) {
+            SampleModel model = raster.getSampleModel();
+            DataBuffer buffer = raster.getDataBuffer();
+            if (colorModel.isAlphaPremultiplied() || buffer.getNumBanks() != 1) return GENERIC;
+            for (int size : model.getSampleSize()) {
+                if (size != 8) return GENERIC;
+            }
+            ColorSpace space = colorModel.getColorSpace();
+            translateX = raster.getSampleModelTranslateX();
+            translateY = raster.getSampleModelTranslateY();
+            offset = buffer.getOffset();
+
+            if (buffer instanceof DataBufferInt && model instanceof SinglePixelPackedSampleModel
+                    && space.isCS_sRGB() && model.getNumBands() >= 3) {
+                SinglePixelPackedSampleModel packed = (SinglePixelPackedSampleModel) model;
+                int[] masks = packed.getBitMasks();
+                int[] shifts = packed.getBitOffsets();
+                ints = ((DataBufferInt) buffer).getData();
+                scanline = packed.getScanlineStride();
+                redMask = masks[0];
+                greenMask = masks[1];
+                blueMask = masks[2];
+                redShift = shifts[0];
+                greenShift = shifts[1];
+                blueShift = shifts[2];
+                return PACKED;
+            }
+            if (buffer instanceof DataBufferByte && model instanceof ComponentSampleModel) {
+                ComponentSampleModel component = (ComponentSampleModel) model;
+                int[] bandOffsets = component.getBandOffsets();
+                bytes = ((DataBufferByte) buffer).getData();
+                scanline = component.getScanlineStride();
+                pixelStride = component.getPixelStride();
+                if (space.isCS_sRGB() && bandOffsets.length >= 3) {
+                    redOffset = bandOffsets[0];
+                    greenOffset = bandOffsets[1];
+                    blueOffset = bandOffsets[2];
+                    return INTERLEAVED;
+                }
+                if (space.getType() == ColorSpace.TYPE_GRAY && bandOffsets.length <= 2) {
+                    redOffset = bandOffsets[0];
+                    return GREY;
+                }
+            }
+            return GENERIC;
+        }
+
+        void read(int y, int x0, int x1, int[] out) {
+            int row = offset + (y - translateY) * scanline;
+            switch (layout) {
+                case PACKED:
+                    for (int x = x0; x < x1; x++) {
+                        int pixel = ints[row + x - translateX];
+                        out[x - x0] = luminance((pixel & redMask) >>> redShift,
+                                                (pixel & greenMask) >>> greenShift,
+                                                (pixel & blueMask) >>> blueShift);
+                    }
+                    break;
+                case INTERLEAVED:
+                    for (int x = x0, i = row + (x0 - translateX) * pixelStride; x < x1; x++, i += pixelStride) {
+                        out[x - x0] = luminance(bytes[i + redOffset] & 0xFF,
+                                                bytes[i + greenOffset] & 0xFF,
+                                                bytes[i + blueOffset] & 0xFF);
+                    }
+                    break;
+                case GREY:
+                    for (int x = x0, i = row + (x0 - translateX) * pixelStride + redOffset; x < x1; x++, i += pixelStride) {
+                        out[x - x0] = (bytes[i] & 0xFF) * 1000;
+                    }
+                    break;
+                default:
+                    image.getRGB(x0, y, x1 - x0, 1, out, 0, x1 - x0);
+                    for (int i = 0; i < x1 - x0; i++) {
+                        int rgb = out[i];
+                        out[i] = luminance((rgb >> 16) & 0xFF, (rgb >> 8) & 0xFF, rgb & 0xFF);
+                    }
+            }
+        }
+
+        private static int luminance(int red, int green, int blue) {
+            return red * 299 + green * 587 + blue * 114;
+        }
+    }
+}
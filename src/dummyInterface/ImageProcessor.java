@@ -1,18 +1,26 @@
 package dummyInterface;
 
 import java.awt.image.BufferedImage;
-import java.awt.Color;
-import java.util.*;
+import java.util.function.IntConsumer;
 
 public class ImageProcessor {
     public static GridGraph createGridFromImage(BufferedImage image, int gridSize) {
-        // Scale the image to match grid size
-        BufferedImage scaledImage = scaleImage(image, gridSize, gridSize);
-        
-        // Create an empty grid
-        GridGraph grid = new GridGraph(gridSize, gridSize);
-        int wallCount = 0;
+        return createGridFromImage(image, gridSize, new ImageConverter());
+    }
+
+    public static GridGraph createGridFromImage(BufferedImage image, int gridSize, ImageConverter converter) {
+        return placeWalls(converter.wallBitmap(image, gridSize), gridSize);
+    }
+
+    // Walls the dark cells of a bitmap from ImageConverter, leaving open whichever ones
+    // would cut a start position off; the bitmap itself is left as it was
+    public static GridGraph placeWalls(boolean[] wallBitmap, int gridSize) {
+        return placeWalls(wallBitmap, gridSize, null);
+    }
 
+    // As above, calling rowDone (if not null) with each grid row once it's decided; it
+    // may throw to abandon the grid
+    public static GridGraph placeWalls(boolean[] wallBitmap, int gridSize, IntConsumer rowDone) {
         // Define critical positions that must remain open (player and enemy starts)
         int[][] criticalPositions = {
             {0, 0}, // Player start
@@ -21,39 +29,16 @@ public class ImageProcessor {
             {gridSize / 2, gridSize / 2} // AStarEnemy
         };
 
-        // Process each pixel to determine potential walls
-        for (int y = 0; y < gridSize; y++) {
-            for (int x = 0; x < gridSize; x++) {
-                // Skip critical positions
-                boolean isCritical = false;
-                for (int[] pos : criticalPositions) {
-                    if (y == pos[0] && x == pos[1]) {
-                        isCritical = true;
-                        break;
-                    }
-                }
-                if (isCritical) continue;
-
-                Color pixelColor = new Color(scaledImage.getRGB(x, y));
-                float brightness = (pixelColor.getRed() * 0.299f + 
-                                   pixelColor.getGreen() * 0.587f + 
-                                   pixelColor.getBlue() * 0.114f) / 255f;
-
-                // If pixel is dark, try to add a wall
-                if (brightness < 0.5f) {
-                    GridGraph.Node node = grid.getNode(y, x);
-                    // Temporarily set wall
-                    grid.setWall(node, true);
-                    // Check if grid remains connected
-                    if (!isGridConnected(grid, criticalPositions)) {
-                        grid.setWall(node, false); // Revert if it disconnects
-                    } else {
-                        wallCount++;
-                    }
-                }
-            }
+        // Critical positions are never wall candidates
+        boolean[] dark = wallBitmap.clone();
+        for (int[] pos : criticalPositions) {
+            dark[pos[0] * gridSize + pos[1]] = false;
         }
 
+        WallPlacer placer = new WallPlacer(gridSize, dark, criticalPositions);
+        GridGraph grid = placer.place(rowDone);
+        int wallCount = placer.wallCount;
+
         // Log grid details
         System.out.println("Grid created from image: " + gridSize + "x" + gridSize);
         System.out.println("Walls: " + wallCount + " (" + (wallCount * 100.0 / (gridSize * gridSize)) + "%)");
@@ -62,41 +47,126 @@ public class ImageProcessor {
         return grid;
     }
 
-    private static boolean isGridConnected(GridGraph grid, int[][] criticalPositions) {
-        // Run BFS from player start (0,0) to ensure all critical positions are reachable
-        GridGraph.Node start = grid.getNode(0, 0);
-        if (start == null || grid.isWall(start)) return false;
-
-        Set<GridGraph.Node> reachable = new HashSet<>();
-        Queue<GridGraph.Node> queue = new LinkedList<>();
-        queue.add(start);
-        reachable.add(start);
-
-        while (!queue.isEmpty()) {
-            GridGraph.Node current = queue.poll();
-            for (GridGraph.Node neighbor : grid.getNeighbors(current)) {
-                if (!reachable.contains(neighbor)) {
-                    reachable.add(neighbor);
-                    queue.add(neighbor);
+    // Turns dark cells into walls in row-major order, keeping each one only if every
+    // critical position can still reach the player start - the same walls as trying each
+    // cell and running a BFS over the whole grid, in one pass. When a cell is decided,
+    // every cell after it is still open, and those form one connected block that holds
+    // the last critical position. So the criticals stay connected exactly when each
+    // decided critical's component (among decided open cells, kept in a union-find as
+    // cells are only ever added) still touches that block. Each component counts its
+    // cells next to an undecided cell; a cell drops out of that count once its last
+    // neighbour in row-major order is decided, and a dark cell can't be a wall if that
+    // would leave a component with a critical position and no such cells.
+    private static class WallPlacer {
+        private final int gridSize;
+        private final int size;
+        private final boolean[] dark;
+        private final long[] walls;
+
+        // Union-find over decided open cells; the counts and flags are valid at roots
+        private final int[] parent;
+        private final int[] componentSize;
+        private final int[] touching;        // cells with an undecided neighbour
+        private final boolean[] hasCritical;
+
+        int wallCount;
+
+        WallPlacer(int gridSize, boolean[] dark, int[][] criticalPositions) {
+            this.gridSize = gridSize;
+            this.size = gridSize * gridSize;
+            this.dark = dark;
+            this.walls = new long[(size + 63) >>> 6];
+            this.parent = new int[size];
+            this.componentSize = new int[size];
+            this.touching = new int[size];
+            this.hasCritical = new boolean[size];
+            for (int[] pos : criticalPositions) {
+                hasCritical[pos[0] * gridSize + pos[1]] = true;
+            }
+        }
+
+        GridGraph place(IntConsumer rowDone) {
+            for (int cell = 0; cell < size; cell++) {
+                int row = cell / gridSize, col = cell - row * gridSize;
+                if (col == 0 && row > 0 && rowDone != null) rowDone.accept(row - 1);
+                // Neighbours whose last undecided neighbour is this cell stop touching
+                // the undecided block, whichever way it's decided
+                boolean cut = leaves(row - 1, col - 1, cell) | leaves(row - 1, col, cell) | leaves(row, col - 1, cell);
+                if (dark[cell] && !cut) {
+                    walls[cell >>> 6] |= 1L << cell;
+                    wallCount++;
+                } else {
+                    open(cell, row, col);
                 }
             }
+            if (rowDone != null && gridSize > 0) rowDone.accept(gridSize - 1);
+            return new GridGraph(gridSize, gridSize, walls);
+        }
+
+        // Drops cell (row, col) from its component's count if its last neighbour is
+        // `decided`; true if that leaves a component with a critical position cut off
+        private boolean leaves(int row, int col, int decided) {
+            if (row < 0 || col < 0 || col >= gridSize) return false;
+            int cell = row * gridSize + col;
+            if (isWall(cell) || lastNeighbor(row, col) != decided) return false;
+            int root = find(cell);
+            return --touching[root] == 0 && hasCritical[root];
+        }
+
+        private void open(int cell, int row, int col) {
+            parent[cell] = cell;
+            componentSize[cell] = 1;
+            touching[cell] = lastNeighbor(row, col) > cell ? 1 : 0;
+            // Decided neighbours: the three above and the one to the left
+            for (int d = 0; d < 4; d++) {
+                int r = row + JumpTable.DIR_ROW[d], c = col + JumpTable.DIR_COL[d];
+                if (r < 0 || c < 0 || c >= gridSize) continue;
+                int neighbor = r * gridSize + c;
+                if (!isWall(neighbor)) union(cell, neighbor);
+            }
+        }
+
+        // Highest-numbered neighbour of a cell, or -1 for the last cell
+        private int lastNeighbor(int row, int col) {
+            if (row + 1 < gridSize) return (row + 1) * gridSize + Math.min(col + 1, gridSize - 1);
+            return col + 1 < gridSize ? row * gridSize + col + 1 : -1;
+        }
+
+        private int find(int cell) {
+            while (parent[cell] != cell) {
+                parent[cell] = parent[parent[cell]];
+                cell = parent[cell];
+            }
+            return cell;
         }
 
-        // Check if all critical positions are reachable
+        private void union(int a, int b) {
+            a = find(a);
+            b = find(b);
+            if (a == b) return;
+            if (componentSize[a] < componentSize[b]) {
+                int swap = a;
+                a = b;
+                b = swap;
+            }
+            parent[b] = a;
+            componentSize[a] += componentSize[b];
+            touching[a] += touching[b];
+            hasCritical[a] |= hasCritical[b];
+        }
+
+        private boolean isWall(int cell) {
+            return (walls[cell >>> 6] & (1L << cell)) != 0;
+        }
+    }
+
+    private static boolean isGridConnected(GridGraph grid, int[][] criticalPositions) {
+        // Every critical position has to share the player start's component
         for (int[] pos : criticalPositions) {
-            GridGraph.Node node = grid.getNode(pos[0], pos[1]);
-            if (node == null || !reachable.contains(node)) {
+            if (!grid.isInBounds(pos[0], pos[1]) || !grid.sameComponent(0, grid.indexOf(pos[0], pos[1]))) {
                 return false;
             }
         }
         return true;
     }
-
-    private static BufferedImage scaleImage(BufferedImage original, int width, int height) {
-        BufferedImage scaled = new BufferedImage(width, height, original.getType());
-        java.awt.Graphics2D g2d = scaled.createGraphics();
-        g2d.drawImage(original, 0, 0, width, height, null);
-        g2d.dispose();
-        return scaled;
-    }
-}
\ No newline at end of file
+}
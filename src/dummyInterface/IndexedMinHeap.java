@@ -0,0 +1,136 @@
+package dummyInterface;
+
+import java.util.Arrays;
+
+// Binary min-heap over cell indices with O(log n) decrease-key. Each cell is in the
+// heap at most once; position[] maps a cell to its heap slot so updates never scan.
+class IndexedMinHeap {
+    private int[] heap;
+    private long[] keys;
+    private final int[] position; // heap slot + 1, 0 when the cell is not queued
+    private int size;
+
+    IndexedMinHeap(int cellCount) {
+        int capacity = Math.max(16, Math.min(cellCount, 1024));
+        this.heap = new int[capacity];
+        this.keys = new long[capacity];
+        this.position = new int[cellCount];
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean contains(int cell) {
+        return position[cell] != 0;
+    }
+
+    long keyOf(int cell) {
+        return keys[position[cell] - 1];
+    }
+
+    long peekKey() {
+        return keys[0];
+    }
+
+    int peek() {
+        return heap[0];
+    }
+
+    // Inserts the cell, or moves it to the new key if it is already queued
+    void insertOrUpdate(int cell, long key) {
+        int slot = position[cell] - 1;
+        if (slot < 0) {
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, size * 2);
+                keys = Arrays.copyOf(keys, size * 2);
+            }
+            slot = size++;
+            heap[slot] = cell;
+            keys[slot] = key;
+            position[cell] = slot + 1;
+            siftUp(slot);
+        } else if (key < keys[slot]) {
+            keys[slot] = key;
+            siftUp(slot);
+        } else if (key > keys[slot]) {
+            keys[slot] = key;
+            siftDown(slot);
+        }
+    }
+
+    int poll() {
+        int top = heap[0];
+        removeAt(0);
+        return top;
+    }
+
+    void remove(int cell) {
+        int slot = position[cell] - 1;
+        if (slot >= 0) {
+            removeAt(slot);
+        }
+    }
+
+    void clear() {
+        // Only queued cells have a non-zero position, so this is O(size) rather than O(cells)
+        for (int i = 0; i < size; i++) {
+            position[heap[i]] = 0;
+        }
+        size = 0;
+    }
+
+    private void removeAt(int slot) {
+        position[heap[slot]] = 0;
+        size--;
+        if (slot == size) return;
+        heap[slot] = heap[size];
+        keys[slot] = keys[size];
+        position[heap[slot]] = slot + 1;
+        if (slot > 0 && keys[slot] < keys[(slot - 1) >>> 1]) {
+            siftUp(slot);
+        } else {
+            siftDown(slot);
+        }
+    }
+
+    private void siftUp(int slot) {
+        int cell = heap[slot];
+        long key = keys[slot];
+        while (slot > 0) {
+            int parent = (slot - 1) >>> 1;
+            if (keys[parent] <= key) break;
+            heap[slot] = heap[parent];
+            keys[slot] = keys[parent];
+            position[heap[slot]] = slot + 1;
+            slot = parent;
+        }
+        heap[slot] = cell;
+        keys[slot] = key;
+        position[cell] = slot + 1;
+    }
+
+    private void siftDown(int slot) {
+        int cell = heap[slot];
+        long key = keys[slot];
+        int half = size >>> 1;
+        while (slot < half) {
+            int child = 2 * slot + 1;
+            if (child + 1 < size && keys[child + 1] < keys[child]) {
+                child++;
+            }
+            if (key <= keys[child]) break;
+            heap[slot] = heap[child];
+            keys[slot] = keys[child];
+            position[heap[slot]] = slot + 1;
+            slot = child;
+        }
+        heap[slot] = cell;
+        keys[slot] = key;
+        position[cell] = slot + 1;
+    }
+}
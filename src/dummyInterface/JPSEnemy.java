@@ -0,0 +1,30 @@
+package dummyInterface;
+
+public class JPSEnemy extends Enemy {
+    private final Pathfinding.Algorithm algorithm;
+
+    public JPSEnemy(int startX, int startY) {
+        this(startX, startY, Pathfinding.Algorithm.JPS_PLUS);
+    }
+
+    // JPS or JPS_PLUS; the table-driven one pays for itself once the map stops changing
+    public JPSEnemy(int startX, int startY, Pathfinding.Algorithm algorithm) {
+        super(startX, startY);
+        this.algorithm = algorithm;
+    }
+
+    @Override
+    public void updatePath(GridGraph graph, GridGraph.Node target) {
+        GridGraph.Node start = graph.getNode(y, x);
+        if (start != null && target != null) {
+            searchPath(algorithm, graph, start, target);
+        } else {
+            this.currentPath.clear();
+        }
+    }
+
+    @Override
+    public boolean followsFlowField() {
+        return true;
+    }
+}
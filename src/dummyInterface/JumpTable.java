@@ -0,0 +1,241 @@
+package dummyInterface;
+
+import java.util.Arrays;
+
+// Jump point search primitives plus the JPS+ table of precomputed jumps.
+// Moves are 8-directional with every step costing 1, and a diagonal may pass between two
+// walls as GridGraph allows, so the pruning and forced-neighbour rules are the original
+// corner-cutting ones (Harabor & Grastien 2011).
+// The table holds, for every cell and direction, what a jump from that cell would find
+// when no goal is involved: a value v > 0 means the next jump point is v steps away, and
+// v <= 0 means there are -v open steps before a wall or the edge. One table per planning
+// thread; acquire() brings it up to date with the graph's change log.
+class JumpTable {
+    private static final ThreadLocal<JumpTable> POOL = ThreadLocal.withInitial(JumpTable::new);
+
+    // Same order as GridGraph's neighbour offsets
+    static final int[] DIR_ROW = {-1, -1, -1, 0, 0, 1, 1, 1};
+    static final int[] DIR_COL = {-1, 0, 1, -1, 1, -1, 0, 1};
+
+    private GridGraph graph;
+    private long syncedVersion;
+    private int[][] distance = new int[8][0];
+    private final int[] changes = new int[256];
+    // Diagonal entries whose inputs a partial update changed, per diagonal direction
+    private final int[][] seeds = new int[8][64];
+    private final int[] seedCount = new int[8];
+    private long rebuilds;
+    private long partialUpdates;
+
+    static JumpTable acquire(GridGraph graph) {
+        JumpTable table = POOL.get();
+        table.sync(graph);
+        return table;
+    }
+
+    int get(int direction, int cell) {
+        return distance[direction][cell];
+    }
+
+    // Full builds / change-log updates done by this thread's table
+    long getRebuilds() {
+        return rebuilds;
+    }
+
+    long getPartialUpdates() {
+        return partialUpdates;
+    }
+
+    static int direction(int dr, int dc) {
+        int index = (dr + 1) * 3 + dc + 1;
+        return index > 4 ? index - 1 : index;
+    }
+
+    // True if moving by (dr, dc) into (row, col) makes a neighbour reachable that the
+    // parent could not have reached as cheaply without passing through this cell
+    static boolean hasForced(GridGraph graph, int row, int col, int dr, int dc) {
+        if (dr == 0) {
+            return (!open(graph, row - 1, col) && open(graph, row - 1, col + dc))
+                || (!open(graph, row + 1, col) && open(graph, row + 1, col + dc));
+        }
+        if (dc == 0) {
+            return (!open(graph, row, col - 1) && open(graph, row + dr, col - 1))
+                || (!open(graph, row, col + 1) && open(graph, row + dr, col + 1));
+        }
+        return (!open(graph, row, col - dc) && open(graph, row + dr, col - dc))
+            || (!open(graph, row - dr, col) && open(graph, row - dr, col + dc));
+    }
+
+    static boolean open(GridGraph graph, int row, int col) {
+        return graph.isInBounds(row, col) && !graph.isWall(graph.indexOf(row, col));
+    }
+
+    private void sync(GridGraph current) {
+        if (graph == null || !graph.sharesHistoryWith(current) || current.getVersion() < syncedVersion) {
+            rebuild(current);
+            return;
+        }
+        graph = current;
+        if (current.getVersion() == syncedVersion) return;
+        int count = current.getChangesSince(syncedVersion, changes);
+        if (count < 0) {
+            rebuild(current);
+            return;
+        }
+        syncedVersion = current.getVersion();
+        partialUpdates++;
+        // Whether a cell is a jump point for a straight move depends on the rows (or
+        // columns) either side of it, so a change touches three rows and three columns.
+        // A diagonal entry reads the walls around the cell one step ahead and the straight
+        // entries there, so it is redone if either of those changed, and so is every entry
+        // behind it on its ray until one comes out the same as before.
+        Arrays.fill(seedCount, 0);
+        boolean[] rowsDone = new boolean[graph.getRows()];
+        boolean[] colsDone = new boolean[graph.getCols()];
+        for (int i = 0; i < count; i++) {
+            int row = graph.rowOf(changes[i]);
+            int col = graph.colOf(changes[i]);
+            for (int d = -1; d <= 1; d++) {
+                if (row + d >= 0 && row + d < rowsDone.length && !rowsDone[row + d]) {
+                    rowsDone[row + d] = true;
+                    buildRow(row + d, 1, true);
+                    buildRow(row + d, -1, true);
+                }
+                if (col + d >= 0 && col + d < colsDone.length && !colsDone[col + d]) {
+                    colsDone[col + d] = true;
+                    buildColumn(col + d, 1, true);
+                    buildColumn(col + d, -1, true);
+                }
+            }
+            for (int dr = -1; dr <= 1; dr += 2) {
+                for (int dc = -1; dc <= 1; dc += 2) {
+                    for (int r = row - dr - 1; r <= row - dr + 1; r++) {
+                        for (int c = col - dc - 1; c <= col - dc + 1; c++) {
+                            addSeed(dr, dc, r, c);
+                        }
+                    }
+                }
+            }
+        }
+        for (int dr = -1; dr <= 1; dr += 2) {
+            for (int dc = -1; dc <= 1; dc += 2) {
+                updateDiagonal(dr, dc);
+            }
+        }
+    }
+
+    private void rebuild(GridGraph current) {
+        graph = current;
+        syncedVersion = current.getVersion();
+        rebuilds++;
+        if (distance[0].length != current.size()) {
+            for (int d = 0; d < 8; d++) {
+                distance[d] = new int[current.size()];
+            }
+        }
+        for (int row = 0; row < graph.getRows(); row++) {
+            buildRow(row, 1, false);
+            buildRow(row, -1, false);
+        }
+        for (int col = 0; col < graph.getCols(); col++) {
+            buildColumn(col, 1, false);
+            buildColumn(col, -1, false);
+        }
+        buildDiagonals();
+    }
+
+    // Walks the row against the direction of travel so each cell can extend the one ahead.
+    // With seed set, the diagonal entries that read a changed entry are queued for redoing.
+    private void buildRow(int row, int dc, boolean seed) {
+        int[] table = distance[direction(0, dc)];
+        int cols = graph.getCols();
+        int start = dc > 0 ? cols - 1 : 0;
+        for (int col = start; col >= 0 && col < cols; col -= dc) {
+            int cell = graph.indexOf(row, col);
+            int value = step(table, row, col, 0, dc);
+            if (seed && table[cell] != value) {
+                addSeed(-1, dc, row + 1, col - dc);
+                addSeed(1, dc, row - 1, col - dc);
+            }
+            table[cell] = value;
+        }
+    }
+
+    private void buildColumn(int col, int dr, boolean seed) {
+        int[] table = distance[direction(dr, 0)];
+        int rows = graph.getRows();
+        int start = dr > 0 ? rows - 1 : 0;
+        for (int row = start; row >= 0 && row < rows; row -= dr) {
+            int cell = graph.indexOf(row, col);
+            int value = step(table, row, col, dr, 0);
+            if (seed && table[cell] != value) {
+                addSeed(dr, -1, row - dr, col + 1);
+                addSeed(dr, 1, row - dr, col - 1);
+            }
+            table[cell] = value;
+        }
+    }
+
+    private void addSeed(int dr, int dc, int row, int col) {
+        if (!graph.isInBounds(row, col)) return;
+        int direction = direction(dr, dc);
+        if (seedCount[direction] == seeds[direction].length) {
+            seeds[direction] = Arrays.copyOf(seeds[direction], seedCount[direction] * 2);
+        }
+        seeds[direction][seedCount[direction]++] = graph.indexOf(row, col);
+    }
+
+    // Redoes the queued entries for one diagonal direction. Seeds go in the order
+    // buildDiagonals would visit them, so the entry one step ahead is always final, and
+    // each walks back along its ray only while entries keep changing.
+    private void updateDiagonal(int dr, int dc) {
+        int direction = direction(dr, dc);
+        int[] table = distance[direction];
+        int[] queued = seeds[direction];
+        int count = seedCount[direction];
+        Arrays.sort(queued, 0, count);
+        for (int i = 0; i < count; i++) {
+            // The cell ahead has a larger index when moving down, so those go largest first
+            int cell = dr > 0 ? queued[count - 1 - i] : queued[i];
+            int row = graph.rowOf(cell), col = graph.colOf(cell);
+            while (graph.isInBounds(row, col)) {
+                int index = graph.indexOf(row, col);
+                int value = step(table, row, col, dr, dc);
+                if (table[index] == value) break;
+                table[index] = value;
+                row -= dr;
+                col -= dc;
+            }
+        }
+    }
+
+    private void buildDiagonals() {
+        int rows = graph.getRows();
+        int cols = graph.getCols();
+        for (int dr = -1; dr <= 1; dr += 2) {
+            for (int dc = -1; dc <= 1; dc += 2) {
+                int[] table = distance[direction(dr, dc)];
+                int start = dr > 0 ? rows - 1 : 0;
+                for (int row = start; row >= 0 && row < rows; row -= dr) {
+                    for (int col = 0; col < cols; col++) {
+                        table[graph.indexOf(row, col)] = step(table, row, col, dr, dc);
+                    }
+                }
+            }
+        }
+    }
+
+    // Table entry for (row, col) from the entry of the cell one step ahead
+    private int step(int[] table, int row, int col, int dr, int dc) {
+        int nextRow = row + dr, nextCol = col + dc;
+        if (!open(graph, nextRow, nextCol)) return 0;
+        int next = graph.indexOf(nextRow, nextCol);
+        if (hasForced(graph, nextRow, nextCol, dr, dc)) return 1;
+        if (dr != 0 && dc != 0
+                && (distance[direction(dr, 0)][next] > 0 || distance[direction(0, dc)][next] > 0)) {
+            return 1;
+        }
+        int ahead = table[next];
+        return ahead > 0 ? ahead + 1 : ahead - 1;
+    }
+}
@@ -0,0 +1,168 @@
+package dummyInterface;
+
+import java.util.Arrays;
+
+// Exact distances from a few landmark cells to every cell, for the ALT heuristic: by the
+// triangle inequality |d(L, n) - d(L, goal)| never overestimates d(n, goal), and the
+// largest of these over the landmarks is usually far tighter than Chebyshev distance
+// around walls. Landmarks are picked farthest-first inside the largest open region.
+// Built once for a map that won't change; GridGraph only hands the table out while the
+// walls are as they were when it was built.
+public class LandmarkTable {
+    public static final int DEFAULT_LANDMARKS = 8;
+
+    private final int rows, cols;
+    private final long version;
+    private final int[] landmarks;
+    // distances[cell * landmarks.length + i], -1 where landmark i can't reach the cell
+    private final int[] distances;
+
+    private LandmarkTable(GridGraph graph, int[] landmarks, int[] distances) {
+        this.rows = graph.getRows();
+        this.cols = graph.getCols();
+        this.version = graph.getVersion();
+        this.landmarks = landmarks;
+        this.distances = distances;
+    }
+
+    public static LandmarkTable build(GridGraph graph, int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("Need at least one landmark: " + count);
+        }
+        int size = graph.size();
+        if ((long) size * count > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Too many cells for " + count + " landmarks: " + size);
+        }
+        int[] queue = new int[size];
+        int[] distance = new int[size];
+        int seed = largestRegionCell(graph, queue, distance);
+        if (seed < 0) {
+            return new LandmarkTable(graph, new int[0], new int[0]);
+        }
+
+        // Farthest-first: the first landmark is the cell farthest from the seed, each
+        // next one the cell farthest from all landmarks so far
+        int[] nearest = new int[size];
+        Arrays.fill(nearest, -1);
+        int[] chosen = new int[count];
+        int[][] tables = new int[count][];
+        // The last cell in BFS order is as far from the seed as any
+        int next = queue[bfs(graph, seed, queue, distance) - 1];
+        int chosenCount = 0;
+        while (chosenCount < count && next >= 0) {
+            chosen[chosenCount] = next;
+            bfs(graph, next, queue, distance);
+            tables[chosenCount++] = distance.clone();
+            next = -1;
+            for (int cell = 0; cell < size; cell++) {
+                if (distance[cell] < 0) continue;
+                if (nearest[cell] < 0 || distance[cell] < nearest[cell]) nearest[cell] = distance[cell];
+                if (nearest[cell] > 0 && (next < 0 || nearest[cell] > nearest[next])) next = cell;
+            }
+        }
+
+        int[] distances = new int[size * chosenCount];
+        for (int cell = 0; cell < size; cell++) {
+            for (int i = 0; i < chosenCount; i++) {
+                distances[cell * chosenCount + i] = tables[i][cell];
+            }
+        }
+        return new LandmarkTable(graph, Arrays.copyOf(chosen, chosenCount), distances);
+    }
+
+    // A table saved by LevelCache, for a graph with the walls it was built on
+    static LandmarkTable restore(GridGraph graph, int[] landmarks, int[] distances) {
+        if ((long) graph.size() * landmarks.length != distances.length) {
+            throw new IllegalArgumentException("Landmark table doesn't fit a " + graph.getRows() + "x" + graph.getCols() + " map");
+        }
+        return new LandmarkTable(graph, landmarks, distances);
+    }
+
+    int[] landmarkCells() {
+        return landmarks;
+    }
+
+    int[] distanceData() {
+        return distances;
+    }
+
+    // Lower bound on the path length between two cells; 0 if no landmark reaches both
+    public int lowerBound(int cell, int goal) {
+        int count = landmarks.length;
+        int from = cell * count;
+        int to = goal * count;
+        int bound = 0;
+        for (int i = 0; i < count; i++) {
+            int a = distances[from + i];
+            int b = distances[to + i];
+            if (a < 0 || b < 0) continue;
+            int difference = a > b ? a - b : b - a;
+            if (difference > bound) bound = difference;
+        }
+        return bound;
+    }
+
+    // Built for a map of this shape; GridGraph checks the version
+    boolean matches(GridGraph graph) {
+        return graph.getRows() == rows && graph.getCols() == cols;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int getLandmarkCount() {
+        return landmarks.length;
+    }
+
+    public long getMemoryBytes() {
+        return 4L * (distances.length + landmarks.length);
+    }
+
+    // BFS distances from source into distance (-1 if unreached); returns the cells reached
+    private static int bfs(GridGraph graph, int source, int[] queue, int[] distance) {
+        Arrays.fill(distance, -1);
+        int[] neighbors = new int[8];
+        int head = 0, tail = 0;
+        distance[source] = 0;
+        queue[tail++] = source;
+        while (head < tail) {
+            int current = queue[head++];
+            int count = graph.getNeighbors(current, neighbors);
+            for (int i = 0; i < count; i++) {
+                if (distance[neighbors[i]] < 0) {
+                    distance[neighbors[i]] = distance[current] + 1;
+                    queue[tail++] = neighbors[i];
+                }
+            }
+        }
+        return tail;
+    }
+
+    // A cell of the largest open region, or -1 if every cell is a wall
+    private static int largestRegionCell(GridGraph graph, int[] queue, int[] region) {
+        Arrays.fill(region, -1);
+        int[] neighbors = new int[8];
+        int best = -1, bestSize = 0;
+        for (int cell = 0; cell < graph.size(); cell++) {
+            if (region[cell] >= 0 || graph.isWall(cell)) continue;
+            int head = 0, tail = 0;
+            region[cell] = 0;
+            queue[tail++] = cell;
+            while (head < tail) {
+                int count = graph.getNeighbors(queue[head++], neighbors);
+                for (int i = 0; i < count; i++) {
+                    if (region[neighbors[i]] < 0) {
+                        region[neighbors[i]] = 0;
+                        queue[tail++] = neighbors[i];
+                    }
+                }
+            }
+            if (tail > bestSize) {
+                bestSize = tail;
+                best = cell;
+            }
+        }
+        return best;
+    }
+}
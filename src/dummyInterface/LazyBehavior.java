@@ -1,21 +1,48 @@
 package dummyInterface;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class LazyBehavior implements EnemyBehavior {
     private static final int ACTIVATION_DISTANCE = 5;
-    
+    private boolean bidirectional;
+
+    public LazyBehavior() {
+        this(false);
+    }
+
+    public LazyBehavior(boolean bidirectional) {
+        this.bidirectional = bidirectional;
+    }
+
+    public void setBidirectional(boolean bidirectional) {
+        this.bidirectional = bidirectional;
+    }
+
     @Override
     public List<GridGraph.Node> calculatePath(GridGraph graph, GridGraph.Node start, GridGraph.Node target) {
+        return calculatePathWithTracking(graph, start, target).path;
+    }
+
+    @Override
+    public Pathfinding.PathResult calculatePathWithTracking(GridGraph graph, GridGraph.Node start,
+                                                            GridGraph.Node target) {
         // Calculate Manhattan distance
         int distance = Math.abs(start.row - target.row) + Math.abs(start.col - target.col);
         
         if (distance <= ACTIVATION_DISTANCE) {
-            return Pathfinding.bfs(graph, start, target);
+            return bidirectional
+                ? Pathfinding.bidirectionalBfsWithTracking(graph, start, target)
+                : Pathfinding.bfsWithTracking(graph, start, target);
         }
         
         // Stay put if player is far away
-        return new ArrayList<>();
+        return new Pathfinding.PathResult(new ArrayList<>(), Collections.emptySet());
+    }
+
+    @Override
+    public boolean followsFlowField() {
+        return true;
     }
 }
\ No newline at end of file
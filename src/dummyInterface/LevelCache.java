@@ -0,0 +1,309 @@
+package dummyInterface;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+// Levels built from images, kept on disk so picking the same image again skips the whole
+// import. Entries are keyed by a SHA-256 of the image file's bytes, the grid size and
+// the converter settings (ImageConverter.describe()), and stored as two files: the walls
+// as a binary maze (MazeIO) and a gzipped tables file with the component labels and the
+// distance tables GameLogic would otherwise build at launch. Tables are skipped when
+// they'd take more than a quarter of the cache. Once the directory grows past its size
+// limit the least recently used entries go first. An entry that can't be read counts as
+// a miss and is deleted. Thread-safe; meant to be used from the import thread.
+public class LevelCache {
+    public static final long DEFAULT_MAX_BYTES = 128L << 20;
+
+    // Part of every key; bump when the import pipeline starts producing different grids
+    private static final int FORMAT = 1;
+    private static final int TABLES_MAGIC = 0x47434C54; // "GCLT"
+    private static final int HAS_LANDMARKS = 1, HAS_NEXT_HOPS = 2, HAS_COMPONENTS = 4;
+    private static final String MAZE_SUFFIX = ".gcmz";
+    private static final String TABLES_SUFFIX = ".tables";
+    private static final int BUFFER_SIZE = 64 << 10;
+
+    private final Path directory;
+    private final long maxBytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public LevelCache(Path directory, long maxBytes) throws IOException {
+        if (maxBytes < 1) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maxBytes);
+        }
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        Files.createDirectories(directory);
+    }
+
+    public static Path defaultDirectory() {
+        return Paths.get(System.getProperty("user.home"), ".graphchase", "levels");
+    }
+
+    // Everything that decides the grid an image turns into, as a file-name-safe string
+    public String key(File image, int gridSize, ImageConverter converter) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // every JRE has SHA-256
+        }
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream in = Files.newInputStream(image.toPath())) {
+            for (int read; (read = in.read(buffer)) > 0; ) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        digest.update((FORMAT + "|" + gridSize + "|" + converter.describe()).getBytes(StandardCharsets.UTF_8));
+        StringBuilder key = new StringBuilder();
+        for (byte b : digest.digest()) {
+            key.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return key.toString();
+    }
+
+    // The cached grid with its saved tables attached, or null on a miss
+    public synchronized GridGraph load(String key) {
+        Path maze = directory.resolve(key + MAZE_SUFFIX);
+        if (!Files.isRegularFile(maze)) {
+            misses++;
+            return null;
+        }
+        try {
+            GridGraph graph = MazeIO.loadMaze(maze.toString());
+            Path tables = directory.resolve(key + TABLES_SUFFIX);
+            if (Files.isRegularFile(tables)) {
+                readTables(tables, graph);
+                Files.setLastModifiedTime(tables, FileTime.fromMillis(System.currentTimeMillis()));
+            }
+            Files.setLastModifiedTime(maze, FileTime.fromMillis(System.currentTimeMillis()));
+            hits++;
+            return graph;
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Dropping unreadable level cache entry " + key + ": " + e.getMessage());
+            remove(key);
+            misses++;
+            return null;
+        }
+    }
+
+    // Saves a grid and the tables attached to it under key, then trims the cache. Files
+    // are written aside and moved into place, so a crash never leaves half an entry.
+    public synchronized void store(String key, GridGraph graph) throws IOException {
+        Path maze = directory.resolve(key + MAZE_SUFFIX);
+        Path tables = directory.resolve(key + TABLES_SUFFIX);
+        Path temp = Files.createTempFile(directory, key, ".tmp");
+        try {
+            MazeIO.saveLevel(new MazeIO.Level(graph), temp.toString(), MazeIO.Encoding.AUTO);
+            Files.move(temp, maze, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            if (writeTables(temp, graph)) {
+                Files.move(temp, tables, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } else {
+                Files.deleteIfExists(tables);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        trim(key);
+    }
+
+    public synchronized void clear() throws IOException {
+        for (Entry entry : entries().values()) {
+            remove(entry.key);
+        }
+    }
+
+    public synchronized long getSizeBytes() throws IOException {
+        long total = 0;
+        for (Entry entry : entries().values()) {
+            total += entry.bytes;
+        }
+        return total;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    // Deletes least recently used entries until the cache fits, never the one just stored
+    private void trim(String keep) throws IOException {
+        Map<String, Entry> entries = entries();
+        long total = 0;
+        for (Entry entry : entries.values()) {
+            total += entry.bytes;
+        }
+        if (total <= maxBytes) return;
+        List<Entry> oldestFirst = new ArrayList<>(entries.values());
+        oldestFirst.sort((a, b) -> Long.compare(a.lastUsed, b.lastUsed));
+        for (Entry entry : oldestFirst) {
+            if (total <= maxBytes) break;
+            if (entry.key.equals(keep)) continue;
+            remove(entry.key);
+            total -= entry.bytes;
+            evictions++;
+        }
+    }
+
+    private Map<String, Entry> entries() throws IOException {
+        Map<String, Entry> entries = new HashMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                String key;
+                if (name.endsWith(MAZE_SUFFIX)) {
+                    key = name.substring(0, name.length() - MAZE_SUFFIX.length());
+                } else if (name.endsWith(TABLES_SUFFIX)) {
+                    key = name.substring(0, name.length() - TABLES_SUFFIX.length());
+                } else {
+                    continue;
+                }
+                Entry entry = entries.computeIfAbsent(key, Entry::new);
+                entry.bytes += Files.size(file);
+                entry.lastUsed = Math.max(entry.lastUsed, Files.getLastModifiedTime(file).toMillis());
+            }
+        }
+        return entries;
+    }
+
+    private void remove(String key) {
+        try {
+            Files.deleteIfExists(directory.resolve(key + MAZE_SUFFIX));
+            Files.deleteIfExists(directory.resolve(key + TABLES_SUFFIX));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Tables file: magic, format, rows, cols, flags, then per flag the landmark cells and
+    // distances, the next-hop bytes and the component labels; all inside one gzip
+    // stream, whose CRC catches damage. Returns false if there was nothing worth writing.
+    private boolean writeTables(Path path, GridGraph graph) throws IOException {
+        LandmarkTable landmarks = graph.getLandmarks();
+        NextHopTable nextHops = graph.getNextHops();
+        long budget = maxBytes / 4;
+        int flags = (landmarks != null && landmarks.getMemoryBytes() <= budget ? HAS_LANDMARKS : 0)
+                  | (nextHops != null && nextHops.getMemoryBytes() <= budget ? HAS_NEXT_HOPS : 0)
+                  | (4L * graph.size() <= budget ? HAS_COMPONENTS : 0);
+        if (flags == 0) return false;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(Files.newOutputStream(path), BUFFER_SIZE), BUFFER_SIZE))) {
+            out.writeInt(TABLES_MAGIC);
+            out.writeInt(FORMAT);
+            out.writeInt(graph.getRows());
+            out.writeInt(graph.getCols());
+            out.writeInt(flags);
+            if ((flags & HAS_LANDMARKS) != 0) {
+                writeInts(out, landmarks.landmarkCells());
+                writeInts(out, landmarks.distanceData());
+            }
+            if ((flags & HAS_NEXT_HOPS) != 0) {
+                byte[] hops = nextHops.hopData();
+                out.writeInt(hops.length);
+                out.write(hops);
+            }
+            if ((flags & HAS_COMPONENTS) != 0) {
+                writeInts(out, graph.components().labels());
+            }
+        }
+        return true;
+    }
+
+    private static void readTables(Path path, GridGraph graph) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(path), BUFFER_SIZE), BUFFER_SIZE))) {
+            if (in.readInt() != TABLES_MAGIC || in.readInt() != FORMAT) {
+                throw new IOException("Not a level tables file");
+            }
+            if (in.readInt() != graph.getRows() || in.readInt() != graph.getCols()) {
+                throw new IOException("Tables are for another map size");
+            }
+            int flags = in.readInt();
+            if ((flags & HAS_LANDMARKS) != 0) {
+                int[] cells = readInts(in, graph.size());
+                int[] distances = readInts(in, (int) Math.min(Integer.MAX_VALUE, (long) cells.length * graph.size()));
+                graph.setLandmarks(LandmarkTable.restore(graph, cells, distances));
+            }
+            if ((flags & HAS_NEXT_HOPS) != 0) {
+                int length = in.readInt();
+                if (length < 0) throw new IOException("Corrupt tables file");
+                byte[] hops = new byte[length];
+                in.readFully(hops);
+                graph.setNextHops(NextHopTable.restore(graph, hops));
+            }
+            if ((flags & HAS_COMPONENTS) != 0) {
+                graph.setComponents(ComponentIndex.restore(graph, readInts(in, graph.size())));
+            }
+            if (in.read() >= 0) {
+                throw new IOException("Corrupt tables file: trailing data");
+            }
+        }
+    }
+
+    // Length, then the values big-endian, converted a buffer at a time
+    private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        out.writeInt(values.length);
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        for (int i = 0; i < values.length; ) {
+            int count = Math.min(values.length - i, BUFFER_SIZE / 4);
+            buffer.clear();
+            buffer.asIntBuffer().put(values, i, count);
+            out.write(buffer.array(), 0, count * 4);
+            i += count;
+        }
+    }
+
+    private static int[] readInts(DataInputStream in, int maxLength) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > maxLength) throw new IOException("Corrupt tables file");
+        int[] values = new int[length];
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        for (int i = 0; i < length; ) {
+            int count = Math.min(length - i, BUFFER_SIZE / 4);
+            in.readFully(buffer.array(), 0, count * 4);
+            buffer.clear();
+            buffer.asIntBuffer().get(values, i, count);
+            i += count;
+        }
+        return values;
+    }
+
+    private static class Entry {
+        final String key;
+        long bytes;
+        long lastUsed;
+
+        Entry(String key) {
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package dummyInterface;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.event.IIOReadProgressListener;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Builds levels from image files on a background thread, one import at a time, so the UI
+// stays responsive. An import goes through four phases (decode, scale, threshold,
+// connectivity repair), reports how far along each one is, sends a small preview of the
+// grid whenever more of it is known, and can be cancelled at any point. Listener calls
+// come from the import thread; UI code has to hand them over to its own thread.
+// With a LevelCache set, an image imported before comes straight from the cache, and new
+// imports get their distance tables built here and are saved to it.
+public class LevelImporter {
+    public enum Phase { DECODE, SCALE, THRESHOLD, REPAIR }
+
+    public interface Listener {
+        // fraction of the phase done, 0 to 1
+        void progress(Phase phase, double fraction);
+
+        // size x size shades, 0 (wall) to 1 (open), row-major; negative where the grid
+        // isn't known yet. The array is the listener's to keep.
+        void preview(float[] shades, int size);
+    }
+
+    public static final int PREVIEW_SIZE = 64; // cells a side at most
+
+    // Rows converted between progress reports and cancellation checks while scaling
+    private static final int SCALE_BANDS = 32;
+
+    private final ImageConverter converter;
+    private final ExecutorService executor;
+    private volatile LevelCache cache;
+
+    public LevelImporter(ImageConverter converter) {
+        this.converter = converter;
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "level-import");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Queues an import; the returned handle completes with the grid, with the error that
+    // stopped it, or with a CancellationException once cancelled
+    public Import start(File file, int gridSize, Listener listener) {
+        Import job = new Import(file, gridSize, listener);
+        executor.execute(job::run);
+        return job;
+    }
+
+    public void setCache(LevelCache cache) {
+        this.cache = cache;
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public class Import {
+        private final File file;
+        private final int gridSize;
+        private final Listener listener;
+        private final CompletableFuture<GridGraph> result = new CompletableFuture<>();
+        private volatile boolean cancelled;
+        private volatile ImageReader reader;
+
+        private Import(File file, int gridSize, Listener listener) {
+            this.file = file;
+            this.gridSize = gridSize;
+            this.listener = listener;
+        }
+
+        public CompletableFuture<GridGraph> result() {
+            return result;
+        }
+
+        // Stops the import at its next check; decoding is aborted straight away
+        public void cancel() {
+            cancelled = true;
+            ImageReader current = reader;
+            if (current != null) {
+                current.abort();
+            }
+            result.completeExceptionally(new CancellationException("Import cancelled: " + file.getName()));
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        private void run() {
+            if (cancelled) return;
+            try {
+                LevelCache levels = cache;
+                String key = null;
+                if (levels != null) {
+                    long start = System.nanoTime();
+                    key = levels.key(file, gridSize, converter);
+                    GridGraph cached = levels.load(key);
+                    if (cached != null) {
+                        System.out.printf("Level cache hit for %s, loaded in %.1f ms%n",
+                            file.getName(), (System.nanoTime() - start) / 1e6);
+                        listener.preview(preview(shades(cached), gridSize), previewSize());
+                        result.complete(cached);
+                        return;
+                    }
+                }
+
+                BufferedImage image = decode();
+                System.out.println("Image loaded successfully: " + file.getName()
+                    + " (" + image.getWidth() + "x" + image.getHeight() + ")");
+
+                float[] luminance = new float[gridSize * gridSize];
+                int band = Math.max(1, (gridSize + SCALE_BANDS - 1) / SCALE_BANDS);
+                for (int row = 0; row < gridSize; row += band) {
+                    checkCancelled();
+                    int end = Math.min(gridSize, row + band);
+                    converter.luminance(image, gridSize, row, end, luminance);
+                    listener.progress(Phase.SCALE, (double) end / gridSize);
+                    listener.preview(preview(luminance, end), previewSize());
+                }
+                image = null; // the source can be collected while the rest runs
+
+                checkCancelled();
+                listener.progress(Phase.THRESHOLD, 0);
+                boolean[] dark = converter.threshold(luminance, gridSize);
+                float[] shades = new float[dark.length];
+                for (int i = 0; i < dark.length; i++) {
+                    shades[i] = dark[i] ? 0 : 1;
+                }
+                listener.progress(Phase.THRESHOLD, 1);
+                listener.preview(preview(shades, gridSize), previewSize());
+
+                checkCancelled();
+                GridGraph grid = ImageProcessor.placeWalls(dark, gridSize, row -> {
+                    checkCancelled();
+                    listener.progress(Phase.REPAIR, (row + 1.0) / gridSize);
+                });
+                listener.preview(preview(shades(grid), gridSize), previewSize());
+
+                if (levels != null) {
+                    checkCancelled();
+                    GameLogic.attachDistanceTables(grid);
+                    try {
+                        levels.store(key, grid);
+                    } catch (IOException e) {
+                        // The level itself is fine, it just won't be cached
+                        System.out.println("Could not cache level " + file.getName() + ": " + e.getMessage());
+                    }
+                }
+                result.complete(grid);
+            } catch (CancellationException e) {
+                // cancel() has already completed the result
+            } catch (Exception | OutOfMemoryError e) {
+                result.completeExceptionally(e);
+            }
+        }
+
+        private BufferedImage decode() throws IOException {
+            listener.progress(Phase.DECODE, 0);
+            try (ImageInputStream input = ImageIO.createImageInputStream(file)) {
+                if (input == null) {
+                    throw new IOException("Could not open " + file);
+                }
+                Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+                if (!readers.hasNext()) {
+                    throw new IOException("Could not read image file: " + file.getName());
+                }
+                ImageReader imageReader = readers.next();
+                try {
+                    imageReader.setInput(input, true, true);
+                    imageReader.addIIOReadProgressListener(new DecodeProgress());
+                    reader = imageReader;
+                    checkCancelled(); // cancel() may have missed the reader
+                    BufferedImage image = imageReader.read(0);
+                    checkCancelled();
+                    listener.progress(Phase.DECODE, 1);
+                    return image;
+                } finally {
+                    reader = null;
+                    imageReader.dispose();
+                }
+            }
+        }
+
+        private float[] shades(GridGraph grid) {
+            float[] shades = new float[grid.size()];
+            for (int i = 0; i < shades.length; i++) {
+                shades[i] = grid.isWall(i) ? 0 : 1;
+            }
+            return shades;
+        }
+
+        private void checkCancelled() {
+            if (cancelled) {
+                throw new CancellationException();
+            }
+        }
+
+        private int previewSize() {
+            return Math.min(gridSize, PREVIEW_SIZE);
+        }
+
+        // Averages the first rowsReady rows of a grid of shades down to the preview size;
+        // preview cells with nothing known under them yet stay negative
+        private float[] preview(float[] values, int rowsReady) {
+            int size = previewSize();
+            float[] sums = new float[size * size];
+            int[] counts = new int[size * size];
+            for (int row = 0; row < rowsReady; row++) {
+                int previewRow = (int) ((long) row * size / gridSize);
+                for (int col = 0; col < gridSize; col++) {
+                    int cell = previewRow * size + (int) ((long) col * size / gridSize);
+                    sums[cell] += values[row * gridSize + col];
+                    counts[cell]++;
+                }
+            }
+            for (int i = 0; i < sums.length; i++) {
+                sums[i] = counts[i] == 0 ? -1 : sums[i] / counts[i];
+            }
+            return sums;
+        }
+
+        private class DecodeProgress implements IIOReadProgressListener {
+            @Override
+            public void imageProgress(ImageReader source, float percentageDone) {
+                listener.progress(Phase.DECODE, percentageDone / 100);
+            }
+
+            @Override
+            public void sequenceStarted(ImageReader source, int minIndex) {
+            }
+
+            @Override
+            public void sequenceComplete(ImageReader source) {
+            }
+
+            @Override
+            public void imageStarted(ImageReader source, int imageIndex) {
+            }
+
+            @Override
+            public void imageComplete(ImageReader source) {
+            }
+
+            @Override
+            public void thumbnailStarted(ImageReader source, int imageIndex, int thumbnailIndex) {
+            }
+
+            @Override
+            public void thumbnailProgress(ImageReader source, float percentageDone) {
+            }
+
+            @Override
+            public void thumbnailComplete(ImageReader source) {
+            }
+
+            @Override
+            public void readAborted(ImageReader source) {
+            }
+        }
+    }
+}
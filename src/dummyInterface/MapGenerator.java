@@ -0,0 +1,213 @@
+package dummyInterface;
+
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+// Seeded map generators for benchmarks. The same kind, size and seed always give the
+// same walls, so timings can be compared between commits.
+public class MapGenerator {
+    public enum Kind {
+        OPEN,     // no walls at all
+        RANDOM,   // 25% of cells walled independently
+        MAZE,     // perfect maze: corridors one cell wide, exactly one route between cells
+        CAVE,     // cellular-automaton caves: large blobs of rock and open space
+        IMAGE     // synthetic picture thresholded like ImageProcessor does
+    }
+
+    // Start/goal pairs a benchmark searches between, drawn from a seeded generator
+    static final int QUERY_PAIRS = 16;
+
+    public static GridGraph generate(Kind kind, int size, long seed) {
+        switch (kind) {
+            case RANDOM: return randomObstacles(size, 0.25, seed);
+            case MAZE: return perfectMaze(size, seed);
+            case CAVE: return cave(size, seed);
+            case IMAGE: return imageDerived(size, seed);
+            case OPEN:
+            default: return new GridGraph(size, size);
+        }
+    }
+
+    public static GridGraph randomObstacles(int size, double density, long seed) {
+        GridGraph graph = new GridGraph(size, size);
+        Random random = new Random(seed);
+        for (int cell = 0; cell < graph.size(); cell++) {
+            if (random.nextDouble() < density) {
+                graph.setWall(cell, true);
+            }
+        }
+        return graph;
+    }
+
+    // Iterative depth-first backtracker on the odd cells; everything else starts as wall.
+    // Corridor corners are wall-only so diagonal moves can't cut through the maze.
+    public static GridGraph perfectMaze(int size, long seed) {
+        GridGraph graph = new GridGraph(size, size);
+        for (int cell = 0; cell < graph.size(); cell++) {
+            graph.setWall(cell, true);
+        }
+        int rooms = (size - 1) / 2; // rooms per side, at odd coordinates
+        if (rooms <= 0) {
+            for (int cell = 0; cell < graph.size(); cell++) {
+                graph.setWall(cell, false);
+            }
+            return graph;
+        }
+
+        Random random = new Random(seed);
+        boolean[] visited = new boolean[rooms * rooms];
+        int[] stack = new int[rooms * rooms];
+        int[] options = new int[4];
+        int top = 0;
+        stack[top++] = 0;
+        visited[0] = true;
+        graph.setWall(graph.indexOf(1, 1), false);
+        while (top > 0) {
+            int room = stack[top - 1];
+            int r = room / rooms, c = room % rooms;
+            int count = 0;
+            if (r > 0 && !visited[room - rooms]) options[count++] = room - rooms;
+            if (r < rooms - 1 && !visited[room + rooms]) options[count++] = room + rooms;
+            if (c > 0 && !visited[room - 1]) options[count++] = room - 1;
+            if (c < rooms - 1 && !visited[room + 1]) options[count++] = room + 1;
+            if (count == 0) {
+                top--;
+                continue;
+            }
+            int next = options[random.nextInt(count)];
+            int nr = next / rooms, nc = next % rooms;
+            // Open the next room and the wall between the two
+            graph.setWall(graph.indexOf(2 * nr + 1, 2 * nc + 1), false);
+            graph.setWall(graph.indexOf(r + nr + 1, c + nc + 1), false);
+            visited[next] = true;
+            stack[top++] = next;
+        }
+        return graph;
+    }
+
+    // 45% random rock smoothed by four rounds of the 4-5 rule: a cell becomes rock when
+    // at least 5 of the 9 cells around and including it are rock (outside counts as rock)
+    public static GridGraph cave(int size, long seed) {
+        Random random = new Random(seed);
+        boolean[] rock = new boolean[size * size];
+        boolean[] next = new boolean[size * size];
+        for (int i = 0; i < rock.length; i++) {
+            rock[i] = random.nextDouble() < 0.45;
+        }
+        for (int round = 0; round < 4; round++) {
+            for (int r = 0; r < size; r++) {
+                for (int c = 0; c < size; c++) {
+                    int count = 0;
+                    for (int dr = -1; dr <= 1; dr++) {
+                        for (int dc = -1; dc <= 1; dc++) {
+                            int nr = r + dr, nc = c + dc;
+                            if (nr < 0 || nr >= size || nc < 0 || nc >= size || rock[nr * size + nc]) count++;
+                        }
+                    }
+                    next[r * size + c] = count >= 5;
+                }
+            }
+            boolean[] swap = rock;
+            rock = next;
+            next = swap;
+        }
+        GridGraph graph = new GridGraph(size, size);
+        for (int i = 0; i < rock.length; i++) {
+            if (rock[i]) graph.setWall(i, true);
+        }
+        return graph;
+    }
+
+    // Draws a seeded picture (soft gradient plus dark blobs and strokes) and walls every
+    // dark pixel. Unlike ImageProcessor it doesn't repair connectivity, which would cost
+    // far more than the searches being measured on large maps.
+    public static GridGraph imageDerived(int size, long seed) {
+        BufferedImage image = syntheticImage(size, seed);
+        GridGraph graph = new GridGraph(size, size);
+        int[] row = new int[size];
+        for (int y = 0; y < size; y++) {
+            image.getRGB(0, y, size, 1, row, 0, size);
+            for (int x = 0; x < size; x++) {
+                int rgb = row[x];
+                float brightness = (((rgb >> 16) & 0xFF) * 0.299f
+                                  + ((rgb >> 8) & 0xFF) * 0.587f
+                                  + (rgb & 0xFF) * 0.114f) / 255f;
+                if (brightness < 0.5f) {
+                    graph.setWall(graph.indexOf(y, x), true);
+                }
+            }
+        }
+        return graph;
+    }
+
+    public static BufferedImage syntheticImage(int size, long seed) {
+        BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        Random random = new Random(seed);
+        g.setPaint(new GradientPaint(0, 0, new Color(230, 230, 230), size, size, new Color(150, 150, 150)));
+        g.fillRect(0, 0, size, size);
+        int shapes = Math.max(4, size / 4);
+        for (int i = 0; i < shapes; i++) {
+            int shade = random.nextInt(110);
+            g.setColor(new Color(shade, shade, shade));
+            int w = 1 + random.nextInt(Math.max(1, size / 10));
+            int h = 1 + random.nextInt(Math.max(1, size / 10));
+            int x = random.nextInt(size);
+            int y = random.nextInt(size);
+            if (random.nextBoolean()) {
+                g.fillOval(x, y, w, h);
+            } else {
+                g.fillRect(x, y, w, Math.max(1, h / 4));
+            }
+        }
+        g.dispose();
+        return image;
+    }
+
+    // Seeded start/goal pairs inside the largest connected open region; null if the map
+    // has no open cells
+    static GridGraph.Node[][] queryPairs(GridGraph graph, long seed) {
+        int[] component = new int[graph.size()]; // 0 = not labelled yet
+        int[] queue = new int[graph.size()];
+        int[] neighbors = new int[8];
+        int label = 0, bestLabel = 0, bestSize = 0;
+        for (int cell = 0; cell < graph.size(); cell++) {
+            if (graph.isWall(cell) || component[cell] != 0) continue;
+            label++;
+            int head = 0, tail = 0;
+            queue[tail++] = cell;
+            component[cell] = label;
+            while (head < tail) {
+                int count = graph.getNeighbors(queue[head++], neighbors);
+                for (int i = 0; i < count; i++) {
+                    if (component[neighbors[i]] == 0) {
+                        component[neighbors[i]] = label;
+                        queue[tail++] = neighbors[i];
+                    }
+                }
+            }
+            if (tail > bestSize) {
+                bestSize = tail;
+                bestLabel = label;
+            }
+        }
+        if (bestSize == 0) return null;
+
+        int count = 0;
+        for (int cell = 0; cell < graph.size(); cell++) {
+            if (component[cell] == bestLabel) queue[count++] = cell;
+        }
+        Random random = new Random(seed);
+        GridGraph.Node[][] pairs = new GridGraph.Node[QUERY_PAIRS][];
+        for (int i = 0; i < QUERY_PAIRS; i++) {
+            pairs[i] = new GridGraph.Node[]{
+                graph.nodeAt(queue[random.nextInt(count)]),
+                graph.nodeAt(queue[random.nextInt(count)])
+            };
+        }
+        return pairs;
+    }
+}
@@ -1,32 +1,227 @@
 package dummyInterface;
 
 import java.io.*;
-import java.util.Scanner;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
+// Maze files in two formats, told apart by their first bytes when loading:
+// - text: one line per row, '1' for a wall and anything else open. Read and written
+//   through memory-mapped windows of at most WINDOW bytes, so a map never has to fit in
+//   the heap as text; rows are decoded straight into the grid's wall bits.
+// - binary (see BinaryMaze): versioned header, bit-packed or run-length walls, optional
+//   spawn/exit positions and a CRC32, so truncated or corrupt files are rejected.
 public class MazeIO {
+    private static final long WINDOW = 64L << 20; // 64 MB mapped at a time
+    private static final int CHUNK = 64 << 10;    // copied out of the mapping in 64 KB pieces
+
+    public enum Encoding {
+        BITS, // one bit per cell
+        RLE,  // run lengths, small for mazes with long corridors or big open areas
+        AUTO  // whichever of the two is smaller
+    }
+
+    // A map plus the optional positions the binary format can carry
+    public static class Level {
+        public final GridGraph graph;
+        public final GridGraph.Node playerSpawn; // null if not stored
+        public final GridGraph.Node exit;        // null if not stored
+        public final List<GridGraph.Node> enemySpawns;
+
+        public Level(GridGraph graph, GridGraph.Node playerSpawn, GridGraph.Node exit,
+                     List<GridGraph.Node> enemySpawns) {
+            this.graph = graph;
+            this.playerSpawn = playerSpawn;
+            this.exit = exit;
+            this.enemySpawns = Collections.unmodifiableList(new ArrayList<>(enemySpawns));
+        }
+
+        public Level(GridGraph graph) {
+            this(graph, null, null, Collections.emptyList());
+        }
+    }
+
+    // Supplies one row of walls at a time: bit c of words (word c / 64) is column c.
+    // words arrives cleared.
+    public interface RowSource {
+        void fillRow(int row, long[] words);
+    }
+
     public static void saveMaze(GridGraph graph, String filename) {
-        try (FileWriter writer = new FileWriter(filename)) {
-            for (int row = 0; row < graph.getRows(); row++) {
-                for (int col = 0; col < graph.getCols(); col++) {
-                    writer.write(graph.isWall(graph.getNode(row, col)) ? "1" : "0");
-                }
-                writer.write("\n");
-            }
+        try {
+            writeMaze(graph, filename);
         } catch (IOException e) { e.printStackTrace(); }
     }
 
     public static GridGraph loadMaze(String filename, int rows, int cols) {
-        GridGraph graph = new GridGraph(rows, cols);
-        try (Scanner scanner = new Scanner(new File(filename))) {
+        try {
+            return readMaze(Paths.get(filename), rows, cols);
+        } catch (IOException e) { e.printStackTrace(); }
+        return new GridGraph(rows, cols);
+    }
+
+    // Loads a text or binary maze, taking its size from the file. For text, rows are
+    // lines and columns the length of the first line.
+    public static GridGraph loadMaze(String filename) throws IOException {
+        return loadLevel(filename).graph;
+    }
+
+    public static Level loadLevel(String filename) throws IOException {
+        Path path = Paths.get(filename);
+        if (isBinary(path)) {
+            return BinaryMaze.read(path);
+        }
+        long[] size = measure(path);
+        if (size[0] * size[1] > Integer.MAX_VALUE) {
+            throw new IOException("Maze too large: " + size[0] + "x" + size[1]);
+        }
+        return new Level(readMaze(path, (int) size[0], (int) size[1]));
+    }
+
+    public static void saveBinaryMaze(GridGraph graph, String filename) throws IOException {
+        saveLevel(new Level(graph), filename, Encoding.AUTO);
+    }
+
+    public static void saveLevel(Level level, String filename, Encoding encoding) throws IOException {
+        BinaryMaze.write(level, Paths.get(filename), encoding);
+    }
+
+    // Streams a bit-packed binary maze without ever holding the whole grid, for maps
+    // too large for a GridGraph; open the result with TiledGridGraph
+    public static void writeLargeMaze(String filename, int rows, int cols, RowSource source) throws IOException {
+        BinaryMaze.writeRows(Paths.get(filename), rows, cols, source);
+    }
+
+    public static boolean isBinary(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer head = ByteBuffer.allocate(BinaryMaze.MAGIC.length);
+            while (head.hasRemaining() && channel.read(head) > 0) {
+                // keep reading until the magic is in or the file ends
+            }
+            return !head.hasRemaining() && Arrays.equals(head.array(), BinaryMaze.MAGIC);
+        }
+    }
+
+    public static void writeMaze(GridGraph graph, String filename) throws IOException {
+        int rows = graph.getRows();
+        int cols = graph.getCols();
+        long lineLength = cols + 1L;
+        long total = rows * lineLength;
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            byte[] line = new byte[(int) lineLength];
+            line[cols] = '\n';
+            long position = 0;
+            MappedByteBuffer window = null;
+            long windowEnd = 0;
             for (int row = 0; row < rows; row++) {
-                String line = scanner.nextLine();
+                int base = row * cols;
                 for (int col = 0; col < cols; col++) {
-                    if (line.charAt(col) == '1') {
-                        graph.setWall(graph.getNode(row, col), true);
+                    line[col] = graph.isWall(base + col) ? (byte) '1' : (byte) '0';
+                }
+                // A line may straddle two windows
+                int written = 0;
+                while (written < line.length) {
+                    if (window == null || position == windowEnd) {
+                        long length = Math.min(WINDOW, total - position);
+                        window = channel.map(FileChannel.MapMode.READ_WRITE, position, length);
+                        windowEnd = position + length;
                     }
+                    int count = (int) Math.min(line.length - written, windowEnd - position);
+                    window.put(line, written, count);
+                    written += count;
+                    position += count;
                 }
             }
-        } catch (IOException e) { e.printStackTrace(); }
-        return graph;
+        }
+    }
+
+    // Lines and first-line length of a maze file, as {rows, cols}
+    private static long[] measure(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            byte[] chunk = new byte[CHUNK];
+            long newlines = 0;
+            long cols = -1;
+            long firstLineLength = 0;
+            byte last = '\n';
+            for (long start = 0; start < fileSize; start += WINDOW) {
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, start,
+                    Math.min(WINDOW, fileSize - start));
+                while (window.hasRemaining()) {
+                    int count = Math.min(chunk.length, window.remaining());
+                    window.get(chunk, 0, count);
+                    int i = 0;
+                    for (; cols < 0 && i < count; i++) {
+                        if (chunk[i] == '\n') {
+                            cols = firstLineLength;
+                            newlines++;
+                        } else if (chunk[i] != '\r') {
+                            firstLineLength++;
+                        }
+                    }
+                    // Branch-free count: x - 1 only goes negative when x == 0
+                    for (; i < count; i++) {
+                        newlines += (((chunk[i] & 0xFF) ^ '\n') - 1) >>> 31;
+                    }
+                    last = chunk[count - 1];
+                }
+            }
+            if (cols < 0) cols = firstLineLength;
+            long rows = newlines + (fileSize > 0 && last != '\n' ? 1 : 0); // last line without a newline
+            return new long[]{rows, cols};
+        }
+    }
+
+    // Decodes the file into a rows x cols grid; short lines are padded with open
+    // cells and anything beyond the grid is ignored
+    private static GridGraph readMaze(Path path, int rows, int cols) throws IOException {
+        long[] walls = new long[(int) (((long) rows * cols + 63) >>> 6)];
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            byte[] chunk = new byte[CHUNK];
+            int row = 0;
+            int col = 0;
+            int rowBase = 0;
+            // Bits are gathered a word at a time rather than stored one by one
+            int wordIndex = 0;
+            long word = 0;
+            for (long start = 0; start < fileSize && row < rows; start += WINDOW) {
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, start,
+                    Math.min(WINDOW, fileSize - start));
+                while (window.hasRemaining() && row < rows) {
+                    int count = Math.min(chunk.length, window.remaining());
+                    window.get(chunk, 0, count);
+                    for (int i = 0; i < count; i++) {
+                        byte b = chunk[i];
+                        if (b == '\n') {
+                            if (++row == rows) break;
+                            rowBase += cols;
+                            col = 0;
+                        } else if (b != '\r') {
+                            if (col < cols) {
+                                int index = rowBase + col;
+                                if (index >>> 6 != wordIndex) {
+                                    walls[wordIndex] |= word;
+                                    wordIndex = index >>> 6;
+                                    word = 0;
+                                }
+                                word |= (long) ((((b & 0xFF) ^ '1') - 1) >>> 31) << index;
+                            }
+                            col++;
+                        }
+                    }
+                }
+            }
+            if (walls.length > 0) walls[wordIndex] |= word;
+        }
+        return new GridGraph(rows, cols, walls);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,208 @@
+package dummyInterface;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+// Process-wide counters and histograms for the game loop's hot paths: tick and render
+// time, planning time per enemy planner, cells expanded and time taken per search (each
+// Pathfinding algorithm plus the planners in Planner), path lengths and calls to
+// GridGraph.getNeighbors. Everything is off by default; each call site checks
+// isEnabled() first, so when off the cost is one field read and a branch. Counters are
+// LongAdders and histograms LatencyHistograms behind a lock, so parallel planners can
+// record at once. Read with forEachCounter/forEachRecorder or dump with writeCsv/writeJson.
+public final class Metrics {
+    private static volatile boolean enabled;
+
+    private static final Map<String, Counter> COUNTERS = new ConcurrentSkipListMap<>();
+    private static final Map<String, Recorder> RECORDERS = new ConcurrentSkipListMap<>();
+    private static final Map<String, Recorder> PLAN_TIMES = new ConcurrentHashMap<>();
+    private static final Recorder[] EXPANSIONS = new Recorder[Pathfinding.Algorithm.values().length];
+    private static final Recorder[] SEARCH_TIMES = new Recorder[Pathfinding.Algorithm.values().length];
+    private static final Recorder[] PLANNER_EXPANSIONS = new Recorder[Planner.values().length];
+    private static final Recorder[] PLANNER_TIMES = new Recorder[Planner.values().length];
+
+    public static final Counter NEIGHBOR_CALLS = counter("grid.neighborCalls");
+    public static final Counter TICKS = counter("game.ticks");
+    public static final Recorder TICK_TIME = recorder("game.tick", "ns");
+    public static final Recorder RENDER_TIME = recorder("ui.render", "ns");
+    public static final Recorder PATH_LENGTH = recorder("plan.pathLength", "cells");
+
+    static {
+        for (Pathfinding.Algorithm algorithm : Pathfinding.Algorithm.values()) {
+            String name = algorithm.name().toLowerCase(Locale.ROOT);
+            EXPANSIONS[algorithm.ordinal()] = recorder("search.expanded." + name, "cells");
+            SEARCH_TIMES[algorithm.ordinal()] = recorder("search.time." + name, "ns");
+        }
+        for (Planner planner : Planner.values()) {
+            String name = planner.name().toLowerCase(Locale.ROOT);
+            PLANNER_EXPANSIONS[planner.ordinal()] = recorder("search.expanded." + name, "cells");
+            PLANNER_TIMES[planner.ordinal()] = recorder("search.time." + name, "ns");
+        }
+    }
+
+    // Planners that aren't one of Pathfinding's algorithms, recorded under their own names
+    public enum Planner {
+        CAUTIOUS_ASTAR, // A* with wall penalties (BehaviorMethods.cautiousPath)
+        HPA_STAR,
+        D_STAR_LITE,
+        FLOW_FIELD
+    }
+
+    private Metrics() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean on) {
+        enabled = on;
+    }
+
+    public static Counter counter(String name) {
+        return COUNTERS.computeIfAbsent(name, Counter::new);
+    }
+
+    public static Recorder recorder(String name, String unit) {
+        return RECORDERS.computeIfAbsent(name, key -> new Recorder(key, unit));
+    }
+
+    // Taken when a search starts and handed back to recordSearch; 0 while disabled
+    public static long searchStart() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    // Cells a search expanded (or reached, for BFS) and its time since searchStart(), one
+    // sample per search. Searches that started while disabled aren't recorded.
+    public static void recordSearch(Pathfinding.Algorithm algorithm, long cells, long started) {
+        if (!enabled || started == 0) return;
+        EXPANSIONS[algorithm.ordinal()].record(cells);
+        SEARCH_TIMES[algorithm.ordinal()].record(System.nanoTime() - started);
+    }
+
+    public static void recordSearch(Planner planner, long cells, long started) {
+        if (!enabled || started == 0) return;
+        PLANNER_EXPANSIONS[planner.ordinal()].record(cells);
+        PLANNER_TIMES[planner.ordinal()].record(System.nanoTime() - started);
+    }
+
+    // One enemy's plan for one tick: how long it took under which planner, and the path
+    public static void recordPlan(String planner, long nanos, int pathLength) {
+        if (!enabled) return;
+        PLAN_TIMES.computeIfAbsent(planner, name -> recorder("plan.time." + name, "ns")).record(nanos);
+        PATH_LENGTH.record(pathLength);
+    }
+
+    public static void reset() {
+        for (Counter counter : COUNTERS.values()) counter.reset();
+        for (Recorder recorder : RECORDERS.values()) recorder.reset();
+    }
+
+    public static void forEachCounter(Consumer<Counter> action) {
+        COUNTERS.values().forEach(action);
+    }
+
+    public static void forEachRecorder(Consumer<Recorder> action) {
+        RECORDERS.values().forEach(action);
+    }
+
+    // One row per counter and per histogram that has seen anything
+    public static void writeCsv(Writer out) throws IOException {
+        out.write("name,unit,count,mean,p50,p90,p99,max,total\n");
+        for (Counter counter : COUNTERS.values()) {
+            long value = counter.get();
+            if (value == 0) continue;
+            out.write(String.format(Locale.ROOT, "%s,,%d,,,,,,%d%n", counter.name, value, value));
+        }
+        for (Recorder recorder : RECORDERS.values()) {
+            LatencyHistogram h = recorder.snapshot();
+            if (h.getCount() == 0) continue;
+            out.write(String.format(Locale.ROOT, "%s,%s,%d,%.1f,%d,%d,%d,%d,%d%n", recorder.name, recorder.unit,
+                h.getCount(), h.getMean(), h.getValueAtPercentile(50), h.getValueAtPercentile(90),
+                h.getValueAtPercentile(99), h.getMax(), h.getTotal()));
+        }
+        out.flush();
+    }
+
+    public static void writeJson(Writer out) throws IOException {
+        StringBuilder json = new StringBuilder("{\n  \"counters\": {");
+        String separator = "\n";
+        for (Counter counter : COUNTERS.values()) {
+            json.append(separator).append("    \"").append(counter.name).append("\": ").append(counter.get());
+            separator = ",\n";
+        }
+        json.append("\n  },\n  \"histograms\": {");
+        separator = "\n";
+        for (Recorder recorder : RECORDERS.values()) {
+            LatencyHistogram h = recorder.snapshot();
+            if (h.getCount() == 0) continue;
+            json.append(separator).append(String.format(Locale.ROOT,
+                "    \"%s\": {\"unit\": \"%s\", \"count\": %d, \"mean\": %.1f, \"p50\": %d, \"p90\": %d,"
+                    + " \"p99\": %d, \"max\": %d, \"total\": %d}",
+                recorder.name, recorder.unit, h.getCount(), h.getMean(), h.getValueAtPercentile(50),
+                h.getValueAtPercentile(90), h.getValueAtPercentile(99), h.getMax(), h.getTotal()));
+            separator = ",\n";
+        }
+        json.append("\n  }\n}\n");
+        out.write(json.toString());
+        out.flush();
+    }
+
+    public static final class Counter {
+        public final String name;
+        private final LongAdder value = new LongAdder();
+
+        private Counter(String name) {
+            this.name = name;
+        }
+
+        public void increment() {
+            value.increment();
+        }
+
+        public void add(long amount) {
+            value.add(amount);
+        }
+
+        public long get() {
+            return value.sum();
+        }
+
+        void reset() {
+            value.reset();
+        }
+    }
+
+    // A LatencyHistogram of any non-negative quantity, not only times
+    public static final class Recorder {
+        public final String name;
+        public final String unit;
+        private final LatencyHistogram histogram = new LatencyHistogram();
+
+        private Recorder(String name, String unit) {
+            this.name = name;
+            this.unit = unit;
+        }
+
+        public synchronized void record(long value) {
+            histogram.record(value);
+        }
+
+        // Copy that can be read while recording goes on
+        public synchronized LatencyHistogram snapshot() {
+            LatencyHistogram copy = new LatencyHistogram();
+            copy.add(histogram);
+            return copy;
+        }
+
+        synchronized void reset() {
+            histogram.reset();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package dummyInterface;
+
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// Semi-transparent panel drawn over the grid with the Metrics histograms and counters:
+// one line each with count, mean, p50, p99 and max. Times are shown in microseconds.
+// Redrawn a few times a second at most; the canvas ignores the mouse so the grid below
+// still gets clicks.
+public class MetricsOverlay {
+    private static final long REFRESH_NANOS = 250_000_000L;
+    private static final double LINE_HEIGHT = 14;
+
+    private final Canvas canvas;
+    private long lastDrawn;
+
+    public MetricsOverlay(double width, double height) {
+        this.canvas = new Canvas(width, height);
+        this.canvas.setMouseTransparent(true);
+        this.canvas.setVisible(false);
+    }
+
+    public Canvas getView() {
+        return canvas;
+    }
+
+    public void setShown(boolean shown) {
+        canvas.setVisible(shown);
+        lastDrawn = 0;
+        if (!shown) {
+            canvas.getGraphicsContext2D().clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        }
+    }
+
+    // Called every animation frame; only repaints when shown and the refresh interval passed
+    public void update(long now) {
+        if (!canvas.isVisible() || now - lastDrawn < REFRESH_NANOS) return;
+        lastDrawn = now;
+
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format(Locale.ROOT, "%-28s %8s %9s %9s %9s %9s", "metric", "count", "mean", "p50", "p99", "max"));
+        Metrics.forEachRecorder(recorder -> {
+            LatencyHistogram h = recorder.snapshot();
+            if (h.getCount() == 0) return;
+            double scale = recorder.unit.equals("ns") ? 1e3 : 1;
+            String name = recorder.unit.equals("ns") ? recorder.name + " (us)" : recorder.name;
+            lines.add(String.format(Locale.ROOT, "%-28s %8d %9.1f %9.1f %9.1f %9.1f", name, h.getCount(),
+                h.getMean() / scale, h.getValueAtPercentile(50) / scale, h.getValueAtPercentile(99) / scale,
+                h.getMax() / scale));
+        });
+        Metrics.forEachCounter(counter -> {
+            if (counter.get() != 0) lines.add(String.format(Locale.ROOT, "%-28s %8d", counter.name, counter.get()));
+        });
+
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        double height = Math.min(canvas.getHeight(), (lines.size() + 1) * LINE_HEIGHT);
+        gc.setFill(Color.color(0, 0, 0, 0.65));
+        gc.fillRect(0, 0, canvas.getWidth(), height);
+        gc.setFill(Color.WHITE);
+        gc.setFont(Font.font("Monospaced", 11));
+        for (int i = 0; i < lines.size(); i++) {
+            gc.fillText(lines.get(i), 6, (i + 1) * LINE_HEIGHT);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package dummyInterface;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// First step of a shortest path between every pair of open cells, one byte per pair, so
+// a path is read off hop by hop without searching. Takes (open cells)^2 bytes and a BFS
+// per open cell to build, which only pays off on small static maps; fits() says whether
+// a map is small enough. Like LandmarkTable it only applies while the walls are unchanged.
+public class NextHopTable {
+    public static final int MAX_OPEN_CELLS = 4096; // 16 MB table
+
+    private static final byte NONE = -1;
+
+    private final int rows, cols;
+    private final long version;
+    private final int[] ordinal;   // cell -> position among the open cells, -1 for walls
+    private final int open;
+    // hops[target ordinal * open + from ordinal] = direction of the first step, or NONE
+    private final byte[] hops;
+
+    private NextHopTable(GridGraph graph, int[] ordinal, int open, byte[] hops) {
+        this.rows = graph.getRows();
+        this.cols = graph.getCols();
+        this.version = graph.getVersion();
+        this.ordinal = ordinal;
+        this.open = open;
+        this.hops = hops;
+    }
+
+    public static boolean fits(GridGraph graph) {
+        return openCells(graph) <= MAX_OPEN_CELLS;
+    }
+
+    public static NextHopTable build(GridGraph graph) {
+        int open = openCells(graph);
+        if (open > MAX_OPEN_CELLS) {
+            throw new IllegalArgumentException("Too many open cells for a next-hop table: " + open);
+        }
+        int[] ordinal = ordinals(graph);
+
+        // Moves are symmetric, so a BFS out from the target leaves every reached cell's
+        // parent as its first step towards the target
+        byte[] hops = new byte[open * open];
+        Arrays.fill(hops, NONE);
+        int rows = graph.getRows(), cols = graph.getCols();
+        int[] queue = new int[open];
+        for (int target = 0; target < graph.size(); target++) {
+            if (ordinal[target] < 0) continue;
+            int base = ordinal[target] * open;
+            int head = 0, tail = 0;
+            queue[tail++] = target;
+            while (head < tail) {
+                int current = queue[head++];
+                int row = current / cols, col = current - row * cols;
+                // Walks the directions itself rather than through getNeighbors so the
+                // step back to current is known without working it out per neighbour
+                for (int d = 0; d < 8; d++) {
+                    int r = row + JumpTable.DIR_ROW[d], c = col + JumpTable.DIR_COL[d];
+                    if (r < 0 || r >= rows || c < 0 || c >= cols) continue;
+                    int neighbor = r * cols + c;
+                    int index = ordinal[neighbor];
+                    if (index < 0 || neighbor == target || hops[base + index] != NONE) continue;
+                    hops[base + index] = (byte) (7 - d); // directions are listed symmetrically
+                    queue[tail++] = neighbor;
+                }
+            }
+        }
+        return new NextHopTable(graph, ordinal, open, hops);
+    }
+
+    // A table saved by LevelCache, for a graph with the walls it was built on
+    static NextHopTable restore(GridGraph graph, byte[] hops) {
+        int open = openCells(graph);
+        if ((long) open * open != hops.length) {
+            throw new IllegalArgumentException("Next-hop table doesn't fit this map: " + hops.length + " entries");
+        }
+        return new NextHopTable(graph, ordinals(graph), open, hops);
+    }
+
+    byte[] hopData() {
+        return hops;
+    }
+
+    // The cell one step from `from` towards target, or -1 if there's no path (or from is target)
+    public int nextHop(int from, int target) {
+        int a = ordinal[from], b = ordinal[target];
+        if (a < 0 || b < 0) return -1;
+        byte direction = hops[b * open + a];
+        if (direction == NONE) return -1;
+        return from + JumpTable.DIR_ROW[direction] * cols + JumpTable.DIR_COL[direction];
+    }
+
+    // Same shape as Pathfinding's paths: start excluded, goal included, empty if unreachable
+    public List<GridGraph.Node> path(GridGraph graph, GridGraph.Node start, GridGraph.Node goal) {
+        int from = graph.indexOf(start.row, start.col);
+        int target = graph.indexOf(goal.row, goal.col);
+        List<GridGraph.Node> path = new ArrayList<>();
+        if (from == target || nextHop(from, target) < 0) return path;
+        for (int cell = from; cell != target; ) {
+            cell = nextHop(cell, target);
+            path.add(graph.nodeAt(cell));
+        }
+        return path;
+    }
+
+    // Built for a map of this shape; GridGraph checks the version
+    boolean matches(GridGraph graph) {
+        return graph.getRows() == rows && graph.getCols() == cols;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public long getMemoryBytes() {
+        return hops.length + 4L * ordinal.length;
+    }
+
+    private static int[] ordinals(GridGraph graph) {
+        int[] ordinal = new int[graph.size()];
+        int next = 0;
+        for (int cell = 0; cell < graph.size(); cell++) {
+            ordinal[cell] = graph.isWall(cell) ? -1 : next++;
+        }
+        return ordinal;
+    }
+
+    private static int openCells(GridGraph graph) {
+        int open = 0;
+        for (int cell = 0; cell < graph.size(); cell++) {
+            if (!graph.isWall(cell)) open++;
+        }
+        return open;
+    }
+}
@@ -0,0 +1,240 @@
+package dummyInterface;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Recent search results shared by every enemy across ticks. Paths are kept per (search,
+// goal) as a map from each cell on them to the next cell towards the goal, so a lookup
+// from any cell a cached path runs through is a hit: an enemy that moved one step along
+// its path, or crossed another enemy's, gets the rest without searching. That's sound
+// because every search here returns shortest paths and a step along a shortest path is
+// the first step of one from where it's taken. Results only hold for the wall layout they
+// were found on, so everything is dropped once a newer graph version (or another map)
+// shows up, at the cost of one comparison per lookup. Least recently used goals go first
+// once the cache is full. Thread-safe; searches run outside the lock.
+public class PathCache {
+    public static final int DEFAULT_CAPACITY = 64; // goals
+
+    private final int capacity;
+    private final LinkedHashMap<Key, GoalPaths> goals;
+    private GridGraph source;
+    private long version;
+
+    private long hits;
+    private long suffixHits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    public PathCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.goals = new LinkedHashMap<Key, GoalPaths>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, GoalPaths> eldest) {
+                if (size() <= PathCache.this.capacity) return false;
+                evictions++;
+                return true;
+            }
+        };
+    }
+
+    // Same result as Pathfinding.findPath; the list is the caller's to modify
+    public List<GridGraph.Node> findPath(Pathfinding.Algorithm algorithm, GridGraph graph,
+                                         GridGraph.Node start, GridGraph.Node goal) {
+        if (graph == null || start == null || goal == null
+                || !graph.isInBounds(start.row, start.col) || !graph.isInBounds(goal.row, goal.col)) {
+            return Pathfinding.findPath(algorithm, graph, start, goal);
+        }
+        Key key = new Key(algorithm, graph.indexOf(goal.row, goal.col));
+        int startCell = graph.indexOf(start.row, start.col);
+        List<GridGraph.Node> cached = lookup(graph, key, startCell);
+        if (cached != null) {
+            return cached;
+        }
+
+        List<GridGraph.Node> path = Pathfinding.findPath(algorithm, graph, start, goal);
+        store(graph, key, startCell, path);
+        return path;
+    }
+
+    public synchronized void clear() {
+        goals.clear();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    // Hits from a cell some earlier search passed through rather than started at;
+    // included in getHits()
+    public synchronized long getSuffixHits() {
+        return suffixHits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    // Goals dropped to make room
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    // Times the cache was emptied because the walls changed
+    public synchronized long getInvalidations() {
+        return invalidations;
+    }
+
+    public synchronized int size() {
+        return goals.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    // The cached path from start, or null on a miss
+    private synchronized List<GridGraph.Node> lookup(GridGraph graph, Key key, int start) {
+        GoalPaths paths = sync(graph) ? goals.get(key) : null;
+        int slot = paths == null ? -1 : paths.find(start);
+        if (slot < 0) {
+            misses++;
+            return null;
+        }
+        hits++;
+        if (!paths.origin[slot]) suffixHits++;
+        List<GridGraph.Node> path = new ArrayList<>();
+        for (int cell = paths.next[slot]; cell >= 0; cell = paths.next[paths.find(cell)]) {
+            path.add(graph.nodeAt(cell));
+        }
+        return path;
+    }
+
+    private synchronized void store(GridGraph graph, Key key, int start, List<GridGraph.Node> path) {
+        if (!sync(graph)) return;
+        GoalPaths paths = goals.get(key);
+        if (paths == null) {
+            paths = new GoalPaths();
+            goals.put(key, paths);
+        }
+        if (path.isEmpty()) {
+            // Unreachable (or already there): remembered as a path that ends at once
+            paths.put(start, GoalPaths.END, true);
+            return;
+        }
+        int cell = start;
+        for (int i = 0; i < path.size(); i++) {
+            int next = graph.indexOf(path.get(i).row, path.get(i).col);
+            // A cell already on a cached path keeps its step; from there on it's all known
+            if (!paths.put(cell, next, i == 0)) return;
+            cell = next;
+        }
+        paths.put(cell, GoalPaths.END, false);
+    }
+
+    // Follows the graph to its latest version; false if this graph is older than what
+    // the cache holds (a planner still on an old snapshot), which then bypasses it
+    private boolean sync(GridGraph graph) {
+        if (source != null && source.sharesHistoryWith(graph)) {
+            if (graph.getVersion() == version) return true;
+            if (graph.getVersion() < version) return false;
+        }
+        if (!goals.isEmpty()) {
+            invalidations++;
+        }
+        goals.clear();
+        source = graph;
+        version = graph.getVersion();
+        return true;
+    }
+
+    private static final class Key {
+        final Pathfinding.Algorithm algorithm;
+        final int goal;
+
+        Key(Pathfinding.Algorithm algorithm, int goal) {
+            this.algorithm = algorithm;
+            this.goal = goal;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return algorithm == other.algorithm && goal == other.goal;
+        }
+
+        @Override
+        public int hashCode() {
+            return algorithm.ordinal() * 31 + goal;
+        }
+    }
+
+    // Open-addressing map from cell to the next cell towards one goal (END at the goal,
+    // or for a start that can't reach it), plus whether a search started at the cell
+    private static final class GoalPaths {
+        static final int EMPTY = -1;
+        static final int END = -1;
+
+        int[] cells = new int[64];
+        int[] next = new int[64];
+        boolean[] origin = new boolean[64];
+        int size;
+
+        GoalPaths() {
+            Arrays.fill(cells, EMPTY);
+        }
+
+        int find(int cell) {
+            int slot = slotOf(cells, cell);
+            return cells[slot] == cell ? slot : -1;
+        }
+
+        // False if the cell was already there (origin may still be raised)
+        boolean put(int cell, int nextCell, boolean isOrigin) {
+            int slot = slotOf(cells, cell);
+            if (cells[slot] == cell) {
+                origin[slot] |= isOrigin;
+                return false;
+            }
+            cells[slot] = cell;
+            next[slot] = nextCell;
+            origin[slot] = isOrigin;
+            if (++size * 2 > cells.length) grow();
+            return true;
+        }
+
+        private void grow() {
+            int[] oldCells = cells;
+            int[] oldNext = next;
+            boolean[] oldOrigin = origin;
+            cells = new int[oldCells.length * 2];
+            next = new int[cells.length];
+            origin = new boolean[cells.length];
+            Arrays.fill(cells, EMPTY);
+            for (int i = 0; i < oldCells.length; i++) {
+                if (oldCells[i] == EMPTY) continue;
+                int slot = slotOf(cells, oldCells[i]);
+                cells[slot] = oldCells[i];
+                next[slot] = oldNext[i];
+                origin[slot] = oldOrigin[i];
+            }
+        }
+
+        private static int slotOf(int[] cells, int cell) {
+            int mask = cells.length - 1;
+            int hash = cell * 0x9E3779B9;
+            int slot = (hash ^ (hash >>> 16)) & mask;
+            while (cells[slot] != EMPTY && cells[slot] != cell) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+    }
+}
@@ -13,6 +13,45 @@ public class Pathfinding {
         }
     }
 
+    // Searches that can be picked by name, e.g. by an Enemy subclass
+    public enum Algorithm {
+        BFS,
+        DIJKSTRA,
+        ASTAR,
+        JPS,      // jump point search, scanning the grid as it goes
+        JPS_PLUS, // jump point search over precomputed jump distances (JumpTable)
+        BIDIRECTIONAL_BFS,
+        BIDIRECTIONAL_DIJKSTRA,
+        BIDIRECTIONAL_ASTAR
+    }
+
+    public static PathResult findPathWithTracking(Algorithm algorithm, GridGraph graph,
+                                                  GridGraph.Node start, GridGraph.Node goal) {
+        switch (algorithm) {
+            case BFS: return bfsWithTracking(graph, start, goal);
+            case DIJKSTRA: return dijkstraWithTracking(graph, start, goal);
+            case JPS: return jpsWithTracking(graph, start, goal, false);
+            case JPS_PLUS: return jpsWithTracking(graph, start, goal, true);
+            case BIDIRECTIONAL_BFS: return bidirectionalBfsWithTracking(graph, start, goal);
+            case BIDIRECTIONAL_DIJKSTRA: return bidirectionalSearch(graph, start, goal, false);
+            case BIDIRECTIONAL_ASTAR: return bidirectionalSearch(graph, start, goal, true);
+            case ASTAR:
+            default: return astarWithTracking(graph, start, goal);
+        }
+    }
+
+    // Path only, skipping the explored set where a search can; ASTAR goes through astar()
+    // and so through the graph's next-hop table when it has one
+    public static List<GridGraph.Node> findPath(Algorithm algorithm, GridGraph graph,
+                                                GridGraph.Node start, GridGraph.Node goal) {
+        switch (algorithm) {
+            case BFS: return bfs(graph, start, goal);
+            case DIJKSTRA: return dijkstra(graph, start, goal);
+            case ASTAR: return astar(graph, start, goal);
+            default: return findPathWithTracking(algorithm, graph, start, goal).path;
+        }
+    }
+
     public static PathResult findPathWithTracking(EnemyBehavior behavior, GridGraph graph, 
                                                GridGraph.Node start, GridGraph.Node goal) {
         if (behavior instanceof AggressiveBehavior || behavior instanceof HunterBehavior) {
@@ -23,85 +62,295 @@ public class Pathfinding {
     }
 
     public static PathResult bfsWithTracking(GridGraph graph, GridGraph.Node start, GridGraph.Node goal) {
-        if (graph == null || start == null || goal == null) {
+        long started = Metrics.searchStart();
+        if (graph == null || start == null || goal == null
+                || !graph.isInBounds(start.row, start.col) || !graph.isInBounds(goal.row, goal.col)) {
             return new PathResult(Collections.emptyList(), Collections.emptySet());
         }
 
-        Queue<GridGraph.Node> queue = new LinkedList<>();
-        Map<GridGraph.Node, GridGraph.Node> cameFrom = new HashMap<>();
-        Set<GridGraph.Node> explored = new HashSet<>();
-        
-        queue.add(start);
-        explored.add(start);
-        cameFrom.put(start, null);
+        int startIndex = graph.indexOf(start.row, start.col);
+        int goalIndex = graph.indexOf(goal.row, goal.col);
+        if (!reachable(graph, startIndex, goalIndex)) {
+            return new PathResult(Collections.emptyList(), Collections.emptySet());
+        }
+        SearchScratch scratch = SearchScratch.acquire(graph.size());
+        // The queue array doubles as the list of explored cells
+        int[] queue = scratch.list;
+        int[] neighbors = scratch.neighbors;
+        int head = 0, tail = 0;
 
-        while (!queue.isEmpty()) {
-            GridGraph.Node current = queue.poll();
-            
-            if (current.equals(goal)) {
+        queue[tail++] = startIndex;
+        scratch.reach(startIndex, 0, -1);
+
+        while (head < tail) {
+            int current = queue[head++];
+
+            if (current == goalIndex) {
                 break;
             }
 
-            for (GridGraph.Node neighbor : graph.getNeighbors(current)) {
-                if (!explored.contains(neighbor)) {
-                    explored.add(neighbor);
-                    cameFrom.put(neighbor, current);
-                    queue.add(neighbor);
+            int count = graph.getNeighbors(current, neighbors);
+            for (int i = 0; i < count; i++) {
+                int neighbor = neighbors[i];
+                if (!scratch.isReached(neighbor)) {
+                    scratch.reach(neighbor, scratch.gScore[current] + 1, current);
+                    queue[tail++] = neighbor;
                 }
             }
         }
 
-        return new PathResult(reconstructPath(cameFrom, start, goal), explored);
+        Metrics.recordSearch(Algorithm.BFS, tail, started);
+        return new PathResult(reconstructPath(graph, scratch, startIndex, goalIndex),
+                new CellSet(graph, Arrays.copyOf(queue, tail)));
     }
 
     public static PathResult astarWithTracking(GridGraph graph, GridGraph.Node start, GridGraph.Node goal) {
-        if (graph == null || start == null || goal == null) {
+        return astarWithTracking(graph, start, goal, 0);
+    }
+
+    // wallPenalty is added to a step once for each wall around the cell stepped into;
+    // walls are counted when the search first relaxes the cell, never for the whole map
+    private static PathResult astarWithTracking(GridGraph graph, GridGraph.Node start, GridGraph.Node goal,
+                                                int wallPenalty) {
+        long started = Metrics.searchStart();
+        if (graph == null || start == null || goal == null
+                || !graph.isInBounds(start.row, start.col) || !graph.isInBounds(goal.row, goal.col)) {
             return new PathResult(Collections.emptyList(), Collections.emptySet());
         }
 
-        PriorityQueue<GridGraph.Node> queue = new PriorityQueue<>(
-            Comparator.comparingInt(node -> node.distance + heuristic(node, goal))
-        );
-        
-        Map<GridGraph.Node, Integer> gScore = new HashMap<>();
-        Map<GridGraph.Node, GridGraph.Node> cameFrom = new HashMap<>();
-        Set<GridGraph.Node> explored = new HashSet<>();
-        
-        for (GridGraph.Node node : graph.getAllNodes()) {
-            gScore.put(node, Integer.MAX_VALUE);
-            node.distance = Integer.MAX_VALUE;
+        int startIndex = graph.indexOf(start.row, start.col);
+        int goalIndex = graph.indexOf(goal.row, goal.col);
+        if (!reachable(graph, startIndex, goalIndex)) {
+            return new PathResult(Collections.emptyList(), Collections.emptySet());
         }
-        
-        gScore.put(start, 0);
-        start.distance = heuristic(start, goal);
-        queue.add(start);
-        cameFrom.put(start, null);
+        SearchScratch scratch = SearchScratch.acquire(graph.size());
+        IndexedMinHeap queue = scratch.heap;
+        int[] explored = scratch.list;
+        int exploredCount = 0;
+        int[] neighbors = scratch.neighbors;
+        LandmarkTable landmarks = graph.getLandmarks();
+
+        scratch.reach(startIndex, 0, -1);
+        queue.insertOrUpdate(startIndex, exactPriority(0, heuristic(graph, landmarks, startIndex, goalIndex)));
 
         while (!queue.isEmpty()) {
-            GridGraph.Node current = queue.poll();
-            explored.add(current);
-            
-            if (current.equals(goal)) {
+            int current = queue.poll();
+            if (!scratch.isClosed(current)) {
+                scratch.close(current);
+                explored[exploredCount++] = current;
+            }
+
+            if (current == goalIndex) {
                 break;
             }
 
-            for (GridGraph.Node neighbor : graph.getNeighbors(current)) {
-                int tentativeG = gScore.get(current) + 1;
-                if (tentativeG < gScore.get(neighbor)) {
-                    cameFrom.put(neighbor, current);
-                    gScore.put(neighbor, tentativeG);
-                    neighbor.distance = tentativeG + heuristic(neighbor, goal);
-                    
-                    // Update priority queue
-                    if (queue.contains(neighbor)) {
-                        queue.remove(neighbor);
+            int count = graph.getNeighbors(current, neighbors);
+            for (int i = 0; i < count; i++) {
+                int neighbor = neighbors[i];
+                int tentativeG = scratch.gScore[current] + 1;
+                if (wallPenalty != 0) {
+                    // Penalties keep the heuristic consistent, so an expanded cell is final
+                    // and needn't have its walls counted again
+                    if (scratch.isClosed(neighbor)) continue;
+                    tentativeG += scratch.wallPenalty(graph, neighbor, wallPenalty);
+                }
+                if (tentativeG < scratch.g(neighbor)) {
+                    scratch.reach(neighbor, tentativeG, current);
+                    // Decrease-key in place (or re-open the cell if it was already expanded)
+                    queue.insertOrUpdate(neighbor,
+                        exactPriority(tentativeG, heuristic(graph, landmarks, neighbor, goalIndex)));
+                }
+            }
+        }
+
+        if (wallPenalty != 0) {
+            Metrics.recordSearch(Metrics.Planner.CAUTIOUS_ASTAR, exploredCount, started);
+        } else {
+            Metrics.recordSearch(Algorithm.ASTAR, exploredCount, started);
+        }
+        return new PathResult(reconstructPath(graph, scratch, startIndex, goalIndex),
+                new CellSet(graph, Arrays.copyOf(explored, exploredCount)));
+    }
+
+    // BFS from both ends at once, a whole layer at a time from whichever side has the
+    // smaller frontier, until the two meet. Paths are as short as bfs() finds; explored
+    // holds the cells either side reached.
+    public static PathResult bidirectionalBfsWithTracking(GridGraph graph, GridGraph.Node start, GridGraph.Node goal) {
+        long started = Metrics.searchStart();
+        if (graph == null || start == null || goal == null
+                || !graph.isInBounds(start.row, start.col) || !graph.isInBounds(goal.row, goal.col)) {
+            return new PathResult(Collections.emptyList(), Collections.emptySet());
+        }
+
+        int startIndex = graph.indexOf(start.row, start.col);
+        int goalIndex = graph.indexOf(goal.row, goal.col);
+        if (!reachable(graph, startIndex, goalIndex)) {
+            return new PathResult(Collections.emptyList(), Collections.emptySet());
+        }
+        SearchScratch forward = SearchScratch.acquire(graph.size());
+        SearchScratch backward = SearchScratch.acquireReverse(graph.size());
+        int[] forwardQueue = {0, 1}; // head, tail of forward.list
+        int[] backwardQueue = {0, 1};
+        int[] meeting = {-1, Integer.MAX_VALUE}; // cell, path length
+        forward.list[0] = startIndex;
+        forward.reach(startIndex, 0, -1);
+        backward.list[0] = goalIndex;
+        backward.reach(goalIndex, 0, -1);
+        if (startIndex == goalIndex) {
+            meeting[0] = startIndex;
+        }
+
+        while (meeting[0] < 0 && forwardQueue[0] < forwardQueue[1] && backwardQueue[0] < backwardQueue[1]) {
+            if (forwardQueue[1] - forwardQueue[0] <= backwardQueue[1] - backwardQueue[0]) {
+                expandLayer(graph, forward, backward, forwardQueue, meeting);
+            } else {
+                expandLayer(graph, backward, forward, backwardQueue, meeting);
+            }
+        }
+
+        int[] explored = Arrays.copyOf(forward.list, forwardQueue[1] + backwardQueue[1]);
+        int exploredCount = forwardQueue[1];
+        for (int i = 0; i < backwardQueue[1]; i++) {
+            if (!forward.isReached(backward.list[i])) explored[exploredCount++] = backward.list[i];
+        }
+        Metrics.recordSearch(Algorithm.BIDIRECTIONAL_BFS, exploredCount, started);
+        return new PathResult(joinPaths(graph, forward, backward, startIndex, meeting[0]),
+                new CellSet(graph, Arrays.copyOf(explored, exploredCount)));
+    }
+
+    // Expands every cell of the side's current layer; queue is {head, tail}
+    private static void expandLayer(GridGraph graph, SearchScratch side, SearchScratch other,
+                                    int[] queue, int[] meeting) {
+        int[] list = side.list;
+        int[] neighbors = side.neighbors;
+        int layerEnd = queue[1];
+        while (queue[0] < layerEnd) {
+            int current = list[queue[0]++];
+            int count = graph.getNeighbors(current, neighbors);
+            for (int i = 0; i < count; i++) {
+                int neighbor = neighbors[i];
+                if (side.isReached(neighbor)) continue;
+                side.reach(neighbor, side.gScore[current] + 1, current);
+                list[queue[1]++] = neighbor;
+                if (other.isReached(neighbor)) {
+                    int length = side.gScore[neighbor] + other.gScore[neighbor];
+                    if (length < meeting[1]) {
+                        meeting[0] = neighbor;
+                        meeting[1] = length;
+                    }
+                }
+            }
+        }
+    }
+
+    // Bidirectional A* (or Dijkstra without the heuristic): one open list per end, the
+    // side with fewer open cells expands next, and the search stops once no open cell on
+    // either side could still lead to a shorter meeting than the best found. The
+    // heuristic is admissible and consistent, so paths are shortest paths.
+    private static PathResult bidirectionalSearch(GridGraph graph, GridGraph.Node start, GridGraph.Node goal,
+                                                  boolean useHeuristic) {
+        long started = Metrics.searchStart();
+        if (graph == null || start == null || goal == null
+                || !graph.isInBounds(start.row, start.col) || !graph.isInBounds(goal.row, goal.col)) {
+            return new PathResult(Collections.emptyList(), Collections.emptySet());
+        }
+
+        int startIndex = graph.indexOf(start.row, start.col);
+        int goalIndex = graph.indexOf(goal.row, goal.col);
+        if (!reachable(graph, startIndex, goalIndex)) {
+            return new PathResult(Collections.emptyList(), Collections.emptySet());
+        }
+        SearchScratch forward = SearchScratch.acquire(graph.size());
+        SearchScratch backward = SearchScratch.acquireReverse(graph.size());
+        int[] counts = {0, 0}; // cells expanded forward, backward
+        int meet = startIndex == goalIndex ? startIndex : -1;
+        int best = startIndex == goalIndex ? 0 : Integer.MAX_VALUE;
+        LandmarkTable landmarks = graph.getLandmarks();
+        forward.reach(startIndex, 0, -1);
+        forward.heap.insertOrUpdate(startIndex,
+            bidirectionalKey(0, useHeuristic ? heuristic(graph, landmarks, startIndex, goalIndex) : 0));
+        backward.reach(goalIndex, 0, -1);
+        backward.heap.insertOrUpdate(goalIndex,
+            bidirectionalKey(0, useHeuristic ? heuristic(graph, landmarks, goalIndex, startIndex) : 0));
+
+        while (!forward.heap.isEmpty() && !backward.heap.isEmpty()) {
+            long forwardMin = forward.heap.peekKey() >>> 32;
+            long backwardMin = backward.heap.peekKey() >>> 32;
+            // Without a heuristic the two frontiers' distances add up to a lower bound
+            long bound = useHeuristic ? Math.max(forwardMin, backwardMin) : forwardMin + backwardMin;
+            if (best <= bound) break;
+
+            boolean forwards = forward.heap.size() <= backward.heap.size();
+            SearchScratch side = forwards ? forward : backward;
+            SearchScratch other = forwards ? backward : forward;
+            int target = forwards ? goalIndex : startIndex;
+            int current = side.heap.poll();
+            side.close(current);
+            side.list[counts[forwards ? 0 : 1]++] = current;
+
+            int[] neighbors = side.neighbors;
+            int count = graph.getNeighbors(current, neighbors);
+            for (int i = 0; i < count; i++) {
+                int neighbor = neighbors[i];
+                int tentativeG = side.gScore[current] + 1;
+                if (tentativeG < side.g(neighbor)) {
+                    side.reach(neighbor, tentativeG, current);
+                    side.heap.insertOrUpdate(neighbor,
+                        bidirectionalKey(tentativeG, useHeuristic ? heuristic(graph, landmarks, neighbor, target) : 0));
+                    if (other.isReached(neighbor) && tentativeG + other.gScore[neighbor] < best) {
+                        best = tentativeG + other.gScore[neighbor];
+                        meet = neighbor;
                     }
-                    queue.add(neighbor);
                 }
             }
         }
 
-        return new PathResult(reconstructPath(cameFrom, start, goal), explored);
+        int[] explored = Arrays.copyOf(forward.list, counts[0] + counts[1]);
+        int exploredCount = counts[0];
+        for (int i = 0; i < counts[1]; i++) {
+            if (!forward.isClosed(backward.list[i])) explored[exploredCount++] = backward.list[i];
+        }
+        Metrics.recordSearch(useHeuristic ? Algorithm.BIDIRECTIONAL_ASTAR : Algorithm.BIDIRECTIONAL_DIJKSTRA,
+            exploredCount, started);
+        return new PathResult(joinPaths(graph, forward, backward, startIndex, meet),
+                new CellSet(graph, Arrays.copyOf(explored, exploredCount)));
+    }
+
+    // f in the high half; ties go to the larger g
+    private static long bidirectionalKey(int g, int h) {
+        return ((long) (g + h) << 32) | (~g & 0xFFFFFFFFL);
+    }
+
+    // Start (excluded) to the meeting cell along the forward parents, then on to the goal
+    // along the backward ones; empty if the searches never met
+    private static List<GridGraph.Node> joinPaths(GridGraph graph, SearchScratch forward, SearchScratch backward,
+                                                  int start, int meet) {
+        List<GridGraph.Node> path = new ArrayList<>();
+        if (meet < 0) return path;
+        for (int cell = meet; cell != start && cell != -1; cell = forward.cameFrom[cell]) {
+            path.add(graph.nodeAt(cell));
+        }
+        Collections.reverse(path);
+        for (int cell = backward.cameFrom[meet]; cell != -1; cell = backward.cameFrom[cell]) {
+            path.add(graph.nodeAt(cell));
+        }
+        return path;
+    }
+
+    public static List<GridGraph.Node> bidirectionalBfs(GridGraph graph, GridGraph.Node start, GridGraph.Node goal) {
+        return bidirectionalBfsWithTracking(graph, start, goal).path;
+    }
+
+    public static PathResult bidirectionalAstarWithTracking(GridGraph graph, GridGraph.Node start, GridGraph.Node goal) {
+        return bidirectionalSearch(graph, start, goal, true);
+    }
+
+    public static List<GridGraph.Node> bidirectionalAstar(GridGraph graph, GridGraph.Node start, GridGraph.Node goal) {
+        return bidirectionalSearch(graph, start, goal, true).path;
+    }
+
+    public static List<GridGraph.Node> bidirectionalDijkstra(GridGraph graph, GridGraph.Node start, GridGraph.Node goal) {
+        return bidirectionalSearch(graph, start, goal, false).path;
     }
 
     public static List<GridGraph.Node> bfs(GridGraph graph, GridGraph.Node start, GridGraph.Node goal) {
@@ -109,93 +358,382 @@ public class Pathfinding {
     }
 
     public static List<GridGraph.Node> dijkstra(GridGraph graph, GridGraph.Node start, GridGraph.Node goal) {
-        if (graph == null || start == null || goal == null) {
-            return Collections.emptyList();
+        return dijkstraWithTracking(graph, start, goal).path;
+    }
+
+    public static PathResult dijkstraWithTracking(GridGraph graph, GridGraph.Node start, GridGraph.Node goal) {
+        long started = Metrics.searchStart();
+        if (graph == null || start == null || goal == null
+                || !graph.isInBounds(start.row, start.col) || !graph.isInBounds(goal.row, goal.col)) {
+            return new PathResult(Collections.emptyList(), Collections.emptySet());
         }
 
-        PriorityQueue<GridGraph.Node> queue = new PriorityQueue<>(
-            Comparator.comparingInt(node -> node.distance)
-        );
-        
-        Map<GridGraph.Node, Integer> distances = new HashMap<>();
-        Map<GridGraph.Node, GridGraph.Node> cameFrom = new HashMap<>();
-        
-        for (GridGraph.Node node : graph.getAllNodes()) {
-            distances.put(node, Integer.MAX_VALUE);
-            node.distance = Integer.MAX_VALUE;
+        int startIndex = graph.indexOf(start.row, start.col);
+        int goalIndex = graph.indexOf(goal.row, goal.col);
+        if (!reachable(graph, startIndex, goalIndex)) {
+            return new PathResult(Collections.emptyList(), Collections.emptySet());
         }
-        
-        start.distance = 0;
-        distances.put(start, 0);
-        queue.add(start);
-        cameFrom.put(start, null);
+        SearchScratch scratch = SearchScratch.acquire(graph.size());
+        IndexedMinHeap queue = scratch.heap;
+        int[] explored = scratch.list;
+        int exploredCount = 0;
+        int[] neighbors = scratch.neighbors;
+
+        scratch.reach(startIndex, 0, -1);
+        queue.insertOrUpdate(startIndex, 0);
 
         while (!queue.isEmpty()) {
-            GridGraph.Node current = queue.poll();
-            
-            if (current.equals(goal)) {
+            int current = queue.poll();
+            // Step costs are uniform, so a polled cell is never queued again
+            explored[exploredCount++] = current;
+
+            if (current == goalIndex) {
                 break;
             }
 
-            for (GridGraph.Node neighbor : graph.getNeighbors(current)) {
-                int newDist = distances.get(current) + 1;
-                if (newDist < distances.get(neighbor)) {
-                    distances.put(neighbor, newDist);
-                    neighbor.distance = newDist;
-                    cameFrom.put(neighbor, current);
-                    
-                    queue.remove(neighbor);
-                    queue.add(neighbor);
+            int count = graph.getNeighbors(current, neighbors);
+            for (int i = 0; i < count; i++) {
+                int neighbor = neighbors[i];
+                int newDist = scratch.gScore[current] + 1;
+                if (newDist < scratch.g(neighbor)) {
+                    scratch.reach(neighbor, newDist, current);
+                    queue.insertOrUpdate(neighbor, newDist);
                 }
             }
         }
 
-        return reconstructPath(cameFrom, start, goal);
+        Metrics.recordSearch(Algorithm.DIJKSTRA, exploredCount, started);
+        return new PathResult(reconstructPath(graph, scratch, startIndex, goalIndex),
+                new CellSet(graph, Arrays.copyOf(explored, exploredCount)));
     }
 
     public static List<GridGraph.Node> astar(GridGraph graph, GridGraph.Node start, GridGraph.Node goal) {
+        // Small static levels carry every shortest path already
+        NextHopTable nextHops = graph != null ? graph.getNextHops() : null;
+        if (nextHops != null && start != null && goal != null
+                && graph.isInBounds(start.row, start.col) && graph.isInBounds(goal.row, goal.col)) {
+            return nextHops.path(graph, start, goal);
+        }
         return astarWithTracking(graph, start, goal).path;
     }
 
-    private static int heuristic(GridGraph.Node a, GridGraph.Node b) {
-        // Manhattan distance
-        return Math.abs(a.row - b.row) + Math.abs(a.col - b.col);
+    public static List<GridGraph.Node> jps(GridGraph graph, GridGraph.Node start, GridGraph.Node goal) {
+        return jpsWithTracking(graph, start, goal, false).path;
+    }
+
+    public static List<GridGraph.Node> jpsPlus(GridGraph graph, GridGraph.Node start, GridGraph.Node goal) {
+        return jpsWithTracking(graph, start, goal, true).path;
     }
 
-    private static List<GridGraph.Node> reconstructPath(Map<GridGraph.Node, GridGraph.Node> cameFrom,
-                                                      GridGraph.Node start, GridGraph.Node goal) {
+    // A* over jump points only: from each expanded cell the search jumps in the
+    // directions the parent's move leaves open, and only cells where the route may turn
+    // are queued. Paths are shortest paths, as long as A*'s with an exact ordering;
+    // explored holds the expanded jump points.
+    private static PathResult jpsWithTracking(GridGraph graph, GridGraph.Node start, GridGraph.Node goal,
+                                              boolean precomputed) {
+        long started = Metrics.searchStart();
+        if (graph == null || start == null || goal == null
+                || !graph.isInBounds(start.row, start.col) || !graph.isInBounds(goal.row, goal.col)
+                || graph.isWall(graph.indexOf(start.row, start.col))) {
+            return new PathResult(Collections.emptyList(), Collections.emptySet());
+        }
+
+        JumpTable table = precomputed ? JumpTable.acquire(graph) : null;
+        LandmarkTable landmarks = graph.getLandmarks();
+        int startIndex = graph.indexOf(start.row, start.col);
+        int goalIndex = graph.indexOf(goal.row, goal.col);
+        if (!reachable(graph, startIndex, goalIndex)) {
+            return new PathResult(Collections.emptyList(), Collections.emptySet());
+        }
+        SearchScratch scratch = SearchScratch.acquire(graph.size());
+        IndexedMinHeap queue = scratch.heap;
+        int[] explored = scratch.list;
+        int exploredCount = 0;
+        int[] directions = new int[8];
+
+        scratch.reach(startIndex, 0, -1);
+        queue.insertOrUpdate(startIndex, exactPriority(0, heuristic(graph, landmarks, startIndex, goalIndex)));
+
+        while (!queue.isEmpty()) {
+            int current = queue.poll();
+            scratch.close(current);
+            explored[exploredCount++] = current;
+
+            if (current == goalIndex) {
+                break;
+            }
+
+            int row = graph.rowOf(current);
+            int col = graph.colOf(current);
+            int count = jumpDirections(graph, current, scratch.cameFrom[current], directions);
+            for (int i = 0; i < count; i++) {
+                int dr = JumpTable.DIR_ROW[directions[i]];
+                int dc = JumpTable.DIR_COL[directions[i]];
+                int steps = table != null
+                    ? jumpPlus(graph, table, row, col, dr, dc, goal)
+                    : jump(graph, row, col, dr, dc, goal);
+                if (steps <= 0) continue;
+                int next = graph.indexOf(row + dr * steps, col + dc * steps);
+                if (scratch.isClosed(next)) continue;
+                int tentativeG = scratch.gScore[current] + steps;
+                if (tentativeG < scratch.g(next)) {
+                    scratch.reach(next, tentativeG, current);
+                    queue.insertOrUpdate(next, exactPriority(tentativeG, heuristic(graph, landmarks, next, goalIndex)));
+                }
+            }
+        }
+
         List<GridGraph.Node> path = new ArrayList<>();
-        if (!cameFrom.containsKey(goal)) return path;
-        
-        GridGraph.Node current = goal;
-        while (current != null && !current.equals(start)) {
-            path.add(current);
-            current = cameFrom.get(current);
+        if (scratch.isReached(goalIndex)) {
+            // Fill in the straight and diagonal runs between jump points
+            for (int cell = goalIndex; cell != startIndex; cell = scratch.cameFrom[cell]) {
+                int parent = scratch.cameFrom[cell];
+                int dr = Integer.signum(graph.rowOf(parent) - graph.rowOf(cell));
+                int dc = Integer.signum(graph.colOf(parent) - graph.colOf(cell));
+                for (int r = graph.rowOf(cell), c = graph.colOf(cell);
+                     r != graph.rowOf(parent) || c != graph.colOf(parent); r += dr, c += dc) {
+                    path.add(new GridGraph.Node(r, c));
+                }
+            }
+            Collections.reverse(path);
+        }
+        Metrics.recordSearch(precomputed ? Algorithm.JPS_PLUS : Algorithm.JPS, exploredCount, started);
+        return new PathResult(path, new CellSet(graph, Arrays.copyOf(explored, exploredCount)));
+    }
+
+    // Directions worth jumping in from a cell reached from parent (all eight from the
+    // start): straight on, the two straight parts of a diagonal, and any forced turns
+    private static int jumpDirections(GridGraph graph, int cell, int parent, int[] out) {
+        if (parent < 0) {
+            for (int d = 0; d < 8; d++) out[d] = d;
+            return 8;
+        }
+        int row = graph.rowOf(cell), col = graph.colOf(cell);
+        int dr = Integer.signum(row - graph.rowOf(parent));
+        int dc = Integer.signum(col - graph.colOf(parent));
+        int count = 0;
+        out[count++] = JumpTable.direction(dr, dc);
+        if (dr == 0) {
+            if (!JumpTable.open(graph, row - 1, col) && JumpTable.open(graph, row - 1, col + dc)) out[count++] = JumpTable.direction(-1, dc);
+            if (!JumpTable.open(graph, row + 1, col) && JumpTable.open(graph, row + 1, col + dc)) out[count++] = JumpTable.direction(1, dc);
+        } else if (dc == 0) {
+            if (!JumpTable.open(graph, row, col - 1) && JumpTable.open(graph, row + dr, col - 1)) out[count++] = JumpTable.direction(dr, -1);
+            if (!JumpTable.open(graph, row, col + 1) && JumpTable.open(graph, row + dr, col + 1)) out[count++] = JumpTable.direction(dr, 1);
+        } else {
+            out[count++] = JumpTable.direction(dr, 0);
+            out[count++] = JumpTable.direction(0, dc);
+            if (!JumpTable.open(graph, row, col - dc) && JumpTable.open(graph, row + dr, col - dc)) out[count++] = JumpTable.direction(dr, -dc);
+            if (!JumpTable.open(graph, row - dr, col) && JumpTable.open(graph, row - dr, col + dc)) out[count++] = JumpTable.direction(-dr, dc);
+        }
+        return count;
+    }
+
+    // Steps from (row, col) by (dr, dc) to the next jump point or the goal, 0 if none
+    private static int jump(GridGraph graph, int row, int col, int dr, int dc, GridGraph.Node goal) {
+        for (int steps = 1; ; steps++) {
+            int r = row + dr * steps, c = col + dc * steps;
+            if (!JumpTable.open(graph, r, c)) return 0;
+            if ((r == goal.row && c == goal.col) || JumpTable.hasForced(graph, r, c, dr, dc)) return steps;
+            if (dr != 0 && dc != 0
+                    && (jump(graph, r, c, dr, 0, goal) > 0 || jump(graph, r, c, 0, dc, goal) > 0)) {
+                return steps;
+            }
+        }
+    }
+
+    // The same answer as jump(), read from the table; only the goal needs checking here
+    private static int jumpPlus(GridGraph graph, JumpTable table, int row, int col, int dr, int dc,
+                                GridGraph.Node goal) {
+        int cell = graph.indexOf(row, col);
+        int entry = table.get(JumpTable.direction(dr, dc), cell);
+        int reach = Math.abs(entry); // furthest cell the jump can get to
+        int best = entry > 0 ? entry : 0;
+        int toRow = goal.row - row, toCol = goal.col - col;
+        if (dr == 0 || dc == 0) {
+            int along = dr == 0 ? toCol * dc : toRow * dr;
+            boolean inLine = dr == 0 ? toRow == 0 : toCol == 0;
+            if (inLine && along > 0 && along <= reach) return along;
+            return best;
+        }
+        // On the diagonal itself, or on the row/column where a straight scan from the
+        // diagonal would run into the goal
+        int rowSteps = toRow * dr, colSteps = toCol * dc;
+        if (rowSteps > 0 && rowSteps == colSteps && rowSteps <= reach) {
+            best = best == 0 ? rowSteps : Math.min(best, rowSteps);
+        }
+        if (rowSteps > 0 && rowSteps <= reach && colSteps > rowSteps) {
+            int crossing = graph.indexOf(goal.row, col + dc * rowSteps);
+            if (colSteps - rowSteps <= Math.abs(table.get(JumpTable.direction(0, dc), crossing))) {
+                best = best == 0 ? rowSteps : Math.min(best, rowSteps);
+            }
+        }
+        if (colSteps > 0 && colSteps <= reach && rowSteps > colSteps) {
+            int crossing = graph.indexOf(row + dr * colSteps, goal.col);
+            if (rowSteps - colSteps <= Math.abs(table.get(JumpTable.direction(dr, 0), crossing))) {
+                best = best == 0 ? colSteps : Math.min(best, colSteps);
+            }
+        }
+        return best;
+    }
+
+    // Octile distance, which with diagonal steps costing the same as straight ones is
+    // Chebyshev distance, raised to the ALT bound when the graph has current landmarks.
+    // Both are consistent, so A* never has to reopen a cell.
+    private static int heuristic(GridGraph graph, LandmarkTable landmarks, int cell, int goal) {
+        int h = Math.max(Math.abs(graph.rowOf(cell) - graph.rowOf(goal)),
+                         Math.abs(graph.colOf(cell) - graph.colOf(goal)));
+        if (landmarks != null) {
+            h = Math.max(h, landmarks.lowerBound(cell, goal));
+        }
+        return h;
+    }
+
+    // f first, deeper cells first on ties; with an admissible heuristic paths are shortest
+    private static long exactPriority(int g, int h) {
+        return ((long) (g + h) << 32) - g;
+    }
+
+    // Same search over a tiled map; chunks are paged in as the frontier reaches them
+    public static List<GridGraph.Node> astar(TiledGridGraph graph, GridGraph.Node start, GridGraph.Node goal) {
+        if (graph == null || start == null || goal == null
+                || !graph.isInBounds(start.row, start.col) || !graph.isInBounds(goal.row, goal.col)) {
+            return Collections.emptyList();
+        }
+
+        int cols = graph.getCols();
+        long startIndex = graph.indexOf(start.row, start.col);
+        long goalIndex = graph.indexOf(goal.row, goal.col);
+        SparseSearchState state = new SparseSearchState();
+        long[] neighbors = new long[8];
+
+        state.reach(startIndex, 0, -1);
+        state.push(startIndex, exactPriority(0, heuristic(startIndex, cols, goal)));
+
+        while (!state.isEmpty()) {
+            long key = state.peekKey();
+            long current = state.poll();
+            int g = state.g(current);
+            if (key != exactPriority(g, heuristic(current, cols, goal))) {
+                continue; // superseded by a cheaper entry
+            }
+
+            if (current == goalIndex) {
+                break;
+            }
+
+            int count = graph.getNeighbors(current, neighbors);
+            for (int i = 0; i < count; i++) {
+                long neighbor = neighbors[i];
+                int tentativeG = g + 1;
+                if (tentativeG < state.g(neighbor)) {
+                    state.reach(neighbor, tentativeG, current);
+                    state.push(neighbor, exactPriority(tentativeG, heuristic(neighbor, cols, goal)));
+                }
+            }
+        }
+
+        List<GridGraph.Node> path = new ArrayList<>();
+        if (state.g(goalIndex) == Integer.MAX_VALUE) return path;
+        for (long current = goalIndex; current != startIndex && current != -1; current = state.parent(current)) {
+            path.add(new GridGraph.Node((int) (current / cols), (int) (current % cols)));
         }
         Collections.reverse(path);
-        
         return path;
     }
 
+    private static int heuristic(long cell, int cols, GridGraph.Node goal) {
+        int row = (int) (cell / cols);
+        int col = (int) (cell - (long) row * cols);
+        return Math.max(Math.abs(row - goal.row), Math.abs(col - goal.col));
+    }
+
+    // Searches only run between cells the graph's component index says are joined, so
+    // an unreachable goal costs a label compare instead of flooding the start's component
+    private static boolean reachable(GridGraph graph, int startIndex, int goalIndex) {
+        return startIndex == goalIndex || graph.sameComponent(startIndex, goalIndex);
+    }
+
+    private static List<GridGraph.Node> reconstructPath(GridGraph graph, SearchScratch scratch,
+                                                      int start, int goal) {
+        List<GridGraph.Node> path = new ArrayList<>();
+        if (!scratch.isReached(goal)) return path;
+
+        for (int current = goal; current != start && current != -1; current = scratch.cameFrom[current]) {
+            path.add(graph.nodeAt(current));
+        }
+        Collections.reverse(path);
+
+        return path;
+    }
+
+    private static void mark(long[] bits, int index) {
+        bits[index >>> 6] |= 1L << index;
+    }
+
+    private static boolean isMarked(long[] bits, int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    // Read-only view over a list of cell indices, so searches don't have to build a
+    // HashSet of Nodes for the explored overlay
+    private static class CellSet extends AbstractSet<GridGraph.Node> {
+        private final GridGraph graph;
+        private final int[] cells;
+        private final int count;
+        private long[] members;
+
+        CellSet(GridGraph graph, int[] cells) {
+            this.graph = graph;
+            this.cells = cells;
+            this.count = cells.length;
+        }
+
+        @Override
+        public Iterator<GridGraph.Node> iterator() {
+            return new Iterator<>() {
+                private int next = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return next < count;
+                }
+
+                @Override
+                public GridGraph.Node next() {
+                    if (next >= count) throw new NoSuchElementException();
+                    return graph.nodeAt(cells[next++]);
+                }
+            };
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof GridGraph.Node)) return false;
+            GridGraph.Node node = (GridGraph.Node) o;
+            if (!graph.isInBounds(node.row, node.col)) return false;
+            if (members == null) {
+                // Built on first lookup; iteration alone never needs it
+                members = new long[(graph.size() + 63) >>> 6];
+                for (int i = 0; i < count; i++) {
+                    mark(members, cells[i]);
+                }
+            }
+            return isMarked(members, graph.indexOf(node.row, node.col));
+        }
+
+        @Override
+        public int size() {
+            return count;
+        }
+    }
+
     // Behavior-specific implementations
     public static class BehaviorMethods {
+        private static final int WALL_PENALTY = 5;
+
         public static PathResult cautiousPath(GridGraph graph, GridGraph.Node start, GridGraph.Node target) {
-            // Create modified graph with wall penalties
-            GridGraph modifiedGraph = new GridGraph(graph.getRows(), graph.getCols());
-            
-            // Copy walls and add danger zones
-            for (GridGraph.Node node : graph.getAllNodes()) {
-                if (graph.isWall(node)) {
-                    modifiedGraph.setWall(modifiedGraph.getNode(node.row, node.col), true);
-                    // Mark adjacent nodes as dangerous
-                    for (GridGraph.Node neighbor : graph.getNeighbors(node)) {
-                        GridGraph.Node modNode = modifiedGraph.getNode(neighbor.row, neighbor.col);
-                        modNode.distance += 5; // Penalty
-                    }
-                }
-            }
-            
-            return astarWithTracking(modifiedGraph, start, target);
+            // Cells next to walls cost extra to step into, once per adjacent wall
+            return astarWithTracking(graph, start, target, WALL_PENALTY);
         }
 
         public static PathResult hunterPath(GridGraph graph, GridGraph.Node start, GridGraph.Node target, 
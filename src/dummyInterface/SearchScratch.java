@@ -0,0 +1,95 @@
+package dummyInterface;
+
+import java.util.Arrays;
+
+// Per-thread working arrays shared by the grid searches. A cell's entries only count
+// when its stamp equals the current epoch, so starting a search is O(1) instead of
+// clearing arrays sized to the whole grid. One search per thread at a time.
+class SearchScratch {
+    private static final ThreadLocal<SearchScratch> POOL = ThreadLocal.withInitial(SearchScratch::new);
+    // Second set for the backward half of a bidirectional search
+    private static final ThreadLocal<SearchScratch> REVERSE_POOL = ThreadLocal.withInitial(SearchScratch::new);
+
+    int[] gScore = new int[0];
+    int[] cameFrom = new int[0];
+    int[] list = new int[0]; // BFS queue / A* expansion order
+    final int[] neighbors = new int[8];
+    IndexedMinHeap heap = new IndexedMinHeap(0);
+
+    private int[] reachedStamp = new int[0];
+    private int[] closedStamp = new int[0];
+    // Per-cell step penalties, worked out the first time a search asks for them
+    private int[] penalty = new int[0];
+    private int[] penaltyStamp = new int[0];
+    private int epoch;
+
+    static SearchScratch acquire(int cellCount) {
+        SearchScratch scratch = POOL.get();
+        scratch.begin(cellCount);
+        return scratch;
+    }
+
+    static SearchScratch acquireReverse(int cellCount) {
+        SearchScratch scratch = REVERSE_POOL.get();
+        scratch.begin(cellCount);
+        return scratch;
+    }
+
+    private void begin(int cellCount) {
+        if (reachedStamp.length < cellCount) {
+            gScore = new int[cellCount];
+            cameFrom = new int[cellCount];
+            list = new int[cellCount];
+            reachedStamp = new int[cellCount];
+            closedStamp = new int[cellCount];
+            penalty = new int[0];
+            penaltyStamp = new int[0];
+            heap = new IndexedMinHeap(cellCount);
+            epoch = 0;
+        }
+        heap.clear();
+        if (++epoch == Integer.MAX_VALUE) {
+            // Wrapped around: stale stamps could collide with new epochs
+            Arrays.fill(reachedStamp, 0);
+            Arrays.fill(closedStamp, 0);
+            Arrays.fill(penaltyStamp, 0);
+            epoch = 1;
+        }
+    }
+
+    boolean isReached(int cell) {
+        return reachedStamp[cell] == epoch;
+    }
+
+    // g-score of a cell in this search, or Integer.MAX_VALUE if it hasn't been reached
+    int g(int cell) {
+        return reachedStamp[cell] == epoch ? gScore[cell] : Integer.MAX_VALUE;
+    }
+
+    void reach(int cell, int g, int parent) {
+        reachedStamp[cell] = epoch;
+        gScore[cell] = g;
+        cameFrom[cell] = parent;
+    }
+
+    // wallPenalty for each wall around cell, counted once per search
+    int wallPenalty(GridGraph graph, int cell, int wallPenalty) {
+        if (penaltyStamp.length < reachedStamp.length) {
+            penalty = new int[reachedStamp.length];
+            penaltyStamp = new int[reachedStamp.length];
+        }
+        if (penaltyStamp[cell] != epoch) {
+            penaltyStamp[cell] = epoch;
+            penalty[cell] = wallPenalty * graph.countAdjacentWalls(cell);
+        }
+        return penalty[cell];
+    }
+
+    boolean isClosed(int cell) {
+        return closedStamp[cell] == epoch;
+    }
+
+    void close(int cell) {
+        closedStamp[cell] = epoch;
+    }
+}
@@ -0,0 +1,142 @@
+package dummyInterface;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+// Runs the GameLogic on its own thread with a fixed timestep. Every tick and every command
+// publishes a FrameSnapshot through an AtomicReference; the UI picks up whichever frame is
+// newest when it paints, so a slow plan never blocks input or rendering.
+public class SimulationLoop {
+    private final GameLogic game;
+    private final long tickMillis;
+    private final ScheduledExecutorService executor;
+    private final AtomicReference<FrameSnapshot> latestFrame = new AtomicReference<>();
+    private ScheduledFuture<?> ticking;
+    private long nextSequence = 1;
+
+    private volatile boolean capturePaths;
+    private volatile boolean captureExplored;
+
+    // Counters, written by the simulation and render threads, read by anyone
+    private final AtomicLong ticks = new AtomicLong();
+    private final AtomicLong lastTickNanos = new AtomicLong();
+    private final AtomicLong maxTickNanos = new AtomicLong();
+    private final AtomicLong totalTickNanos = new AtomicLong();
+    private final AtomicLong droppedFrames = new AtomicLong();
+    private final AtomicLong lastRenderedSequence = new AtomicLong();
+    private final AtomicLong lastFrameLatencyNanos = new AtomicLong();
+
+    public SimulationLoop(GameLogic game, long tickMillis) {
+        this.game = game;
+        this.tickMillis = tickMillis;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "simulation");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.execute(this::publish);
+    }
+
+    public synchronized void start() {
+        if (ticking == null) {
+            ticking = executor.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public synchronized void stop() {
+        if (ticking != null) {
+            ticking.cancel(false);
+            ticking = null;
+        }
+    }
+
+    public void shutdown() {
+        stop();
+        executor.shutdownNow();
+    }
+
+    // Runs a change against the game on the simulation thread, then publishes a new frame
+    public void submit(Consumer<GameLogic> command) {
+        executor.execute(() -> {
+            command.accept(game);
+            publish();
+        });
+    }
+
+    // Republishes without changing anything, e.g. after the overlay options change
+    public void requestFrame() {
+        executor.execute(this::publish);
+    }
+
+    public FrameSnapshot latestFrame() {
+        return latestFrame.get();
+    }
+
+    // Called by the renderer after painting a frame; every frame it skipped was dropped
+    public void frameRendered(FrameSnapshot frame) {
+        long previous = lastRenderedSequence.getAndSet(frame.sequence);
+        if (previous != 0 && frame.sequence > previous + 1) {
+            droppedFrames.addAndGet(frame.sequence - previous - 1);
+        }
+        lastFrameLatencyNanos.set(System.nanoTime() - frame.publishedNanos);
+    }
+
+    public void setCapturePaths(boolean capturePaths) {
+        this.capturePaths = capturePaths;
+    }
+
+    public void setCaptureExplored(boolean captureExplored) {
+        this.captureExplored = captureExplored;
+    }
+
+    private void tick() {
+        long start = System.nanoTime();
+        try {
+            game.moveEnemies();
+        } catch (RuntimeException e) {
+            // Keep the loop alive; a scheduled task that throws is never run again
+            e.printStackTrace();
+        }
+        long elapsed = System.nanoTime() - start;
+        ticks.incrementAndGet();
+        lastTickNanos.set(elapsed);
+        totalTickNanos.addAndGet(elapsed);
+        maxTickNanos.accumulateAndGet(elapsed, Math::max);
+        publish();
+    }
+
+    private void publish() {
+        latestFrame.set(FrameSnapshot.capture(game, nextSequence++, capturePaths, captureExplored));
+    }
+
+    public long getTickCount() {
+        return ticks.get();
+    }
+
+    public double getLastTickMillis() {
+        return lastTickNanos.get() / 1e6;
+    }
+
+    public double getMaxTickMillis() {
+        return maxTickNanos.get() / 1e6;
+    }
+
+    public double getAverageTickMillis() {
+        long count = ticks.get();
+        return count == 0 ? 0 : totalTickNanos.get() / 1e6 / count;
+    }
+
+    public long getDroppedFrames() {
+        return droppedFrames.get();
+    }
+
+    // Time between a frame being published and the renderer finishing with it
+    public double getLastFrameLatencyMillis() {
+        return lastFrameLatencyNanos.get() / 1e6;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,133 @@
+package dummyInterface;
+
+import java.util.Arrays;
+
+// Search state for grids whose cells can't all have array slots (TiledGridGraph): g score
+// and parent per reached cell in an open-addressing hash table keyed by the long cell
+// index, plus a binary heap of (priority, cell) entries. The heap has no decrease-key;
+// a cell is pushed again whenever it improves and stale entries are skipped on poll.
+class SparseSearchState {
+    private static final long EMPTY = -1;
+
+    private long[] keys;
+    private int[] gScores;
+    private long[] parents;
+    private int reached;
+
+    private long[] heapKeys = new long[1024];
+    private long[] heapCells = new long[1024];
+    private int heapSize;
+
+    SparseSearchState() {
+        keys = new long[1 << 16];
+        Arrays.fill(keys, EMPTY);
+        gScores = new int[keys.length];
+        parents = new long[keys.length];
+    }
+
+    int reachedCount() {
+        return reached;
+    }
+
+    // Integer.MAX_VALUE if the cell hasn't been reached
+    int g(long cell) {
+        int slot = find(cell);
+        return keys[slot] == EMPTY ? Integer.MAX_VALUE : gScores[slot];
+    }
+
+    // -1 for the start or an unreached cell
+    long parent(long cell) {
+        int slot = find(cell);
+        return keys[slot] == EMPTY ? -1 : parents[slot];
+    }
+
+    void reach(long cell, int g, long parent) {
+        int slot = find(cell);
+        if (keys[slot] == EMPTY) {
+            keys[slot] = cell;
+            if (++reached * 2 > keys.length) {
+                grow();
+                slot = find(cell);
+            }
+        }
+        gScores[slot] = g;
+        parents[slot] = parent;
+    }
+
+    boolean isEmpty() {
+        return heapSize == 0;
+    }
+
+    long peekKey() {
+        return heapKeys[0];
+    }
+
+    void push(long cell, long key) {
+        if (heapSize == heapKeys.length) {
+            heapKeys = Arrays.copyOf(heapKeys, heapSize * 2);
+            heapCells = Arrays.copyOf(heapCells, heapSize * 2);
+        }
+        int slot = heapSize++;
+        while (slot > 0) {
+            int parent = (slot - 1) >>> 1;
+            if (heapKeys[parent] <= key) break;
+            heapKeys[slot] = heapKeys[parent];
+            heapCells[slot] = heapCells[parent];
+            slot = parent;
+        }
+        heapKeys[slot] = key;
+        heapCells[slot] = cell;
+    }
+
+    // Removes the smallest entry and returns its cell; its key is peekKey() beforehand
+    long poll() {
+        long cell = heapCells[0];
+        long key = heapKeys[--heapSize];
+        long last = heapCells[heapSize];
+        int slot = 0;
+        while (true) {
+            int child = 2 * slot + 1;
+            if (child >= heapSize) break;
+            if (child + 1 < heapSize && heapKeys[child + 1] < heapKeys[child]) child++;
+            if (key <= heapKeys[child]) break;
+            heapKeys[slot] = heapKeys[child];
+            heapCells[slot] = heapCells[child];
+            slot = child;
+        }
+        heapKeys[slot] = key;
+        heapCells[slot] = last;
+        return cell;
+    }
+
+    private int find(long cell) {
+        int mask = keys.length - 1;
+        int slot = (int) mix(cell) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != cell) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldG = gScores;
+        long[] oldParents = parents;
+        keys = new long[oldKeys.length * 2];
+        Arrays.fill(keys, EMPTY);
+        gScores = new int[keys.length];
+        parents = new long[keys.length];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == EMPTY) continue;
+            int slot = find(oldKeys[i]);
+            keys[slot] = oldKeys[i];
+            gScores[slot] = oldG[i];
+            parents[slot] = oldParents[i];
+        }
+    }
+
+    // Neighbouring cells differ by small steps, so spread them before masking
+    private static long mix(long value) {
+        value *= 0x9E3779B97F4A7C15L;
+        return value ^ (value >>> 32);
+    }
+}
@@ -1,17 +1,42 @@
 package dummyInterface;
 
+import javafx.application.Platform;
 import javafx.scene.Scene;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.control.*;
+import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
 import javafx.stage.Stage;
 import javafx.stage.FileChooser;
-import javax.imageio.ImageIO;
 import java.io.File;
-import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 
 public class StartMenu {
     private static final int DEFAULT_GRID_SIZE = 15;
+    private static final double PREVIEW_PIXELS = 96;
+
+    private final LevelImporter importer = new LevelImporter(new ImageConverter());
+    private LevelImporter.Import currentImport;
+
+    // Import progress, shown in place of the buttons while an image is being converted
+    private final Label importStatus = new Label();
+    private final ProgressBar importProgress = new ProgressBar(0);
+    private final Canvas importPreview = new Canvas(PREVIEW_PIXELS, PREVIEW_PIXELS);
+    private final Button cancelButton = new Button("Cancel");
+
+    public StartMenu() {
+        try {
+            importer.setCache(new LevelCache(LevelCache.defaultDirectory(), LevelCache.DEFAULT_MAX_BYTES));
+        } catch (IOException e) {
+            System.out.println("Level cache unavailable, importing without it: " + e.getMessage());
+        }
+    }
 
     public Scene createMenu(Stage stage, Runnable defaultGameStarter, Consumer<GridGraph> customGridStarter) {
         Label title = new Label("Graph Chase");
@@ -39,6 +64,17 @@ public class StartMenu {
         startButton.setOnAction(e -> defaultGameStarter.run());
 
         Button uploadButton = new Button("Upload Image for Level");
+        VBox importBox = new VBox(8, importStatus, importProgress, cancelButton);
+        importBox.setStyle("-fx-alignment: center-left;");
+        HBox importPane = new HBox(12, importPreview, importBox);
+        importPane.setStyle("-fx-alignment: center;");
+        importPane.setVisible(false);
+        importPane.setManaged(false);
+        importProgress.setPrefWidth(220);
+        cancelButton.setOnAction(e -> {
+            if (currentImport != null) currentImport.cancel();
+        });
+
         uploadButton.setOnAction(e -> {
             FileChooser fileChooser = new FileChooser();
             fileChooser.setTitle("Select Level Image");
@@ -46,39 +82,100 @@ public class StartMenu {
                 new FileChooser.ExtensionFilter("Image Files", "*.png", "*.jpg", "*.jpeg")
             );
             File selectedFile = fileChooser.showOpenDialog(stage);
-            if (selectedFile != null) {
-                try {
-                    BufferedImage bufferedImage = ImageIO.read(selectedFile);
-                    if (bufferedImage != null) {
-                        System.out.println("Image loaded successfully: " + 
-                                          selectedFile.getName() + " (" + 
-                                          bufferedImage.getWidth() + "x" + 
-                                          bufferedImage.getHeight() + ")");
-                        
-                        GridGraph customGrid = ImageProcessor.createGridFromImage(
-                            bufferedImage, DEFAULT_GRID_SIZE);
-                        
-                        if (customGrid != null) {
-                            // Close the start menu window
-                            stage.close();
-                            // Launch game with the custom grid
-                            customGridStarter.accept(customGrid);
-                        } else {
-                            showAlert("Error", "Failed to create grid from image");
-                        }
-                    } else {
-                        showAlert("Error", "Could not read image file");
-                    }
-                } catch (Exception ex) {
-                    ex.printStackTrace();
-                    showAlert("Error", "Could not load image: " + ex.getMessage());
+            if (selectedFile == null) return;
+
+            startButton.setDisable(true);
+            uploadButton.setDisable(true);
+            importPane.setVisible(true);
+            importPane.setManaged(true);
+            importStatus.setText("Reading " + selectedFile.getName());
+            importProgress.setProgress(0);
+            importPreview.getGraphicsContext2D().clearRect(0, 0, PREVIEW_PIXELS, PREVIEW_PIXELS);
+
+            LevelImporter.Import job = importer.start(selectedFile, DEFAULT_GRID_SIZE, new ImportListener());
+            currentImport = job;
+            job.result().whenComplete((customGrid, error) -> Platform.runLater(() -> {
+                if (currentImport != job) return;
+                currentImport = null;
+                startButton.setDisable(false);
+                uploadButton.setDisable(false);
+                importPane.setVisible(false);
+                importPane.setManaged(false);
+                if (error == null) {
+                    // Close the start menu window
+                    stage.close();
+                    // Launch game with the custom grid
+                    customGridStarter.accept(customGrid);
+                } else if (!(error instanceof CancellationException)) {
+                    Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                    cause.printStackTrace();
+                    showAlert("Error", "Could not load image: " + cause.getMessage());
                 }
-            }
+            }));
         });
 
-        VBox layout = new VBox(20, title, howToPlay, startButton, uploadButton);
+        VBox layout = new VBox(20, title, howToPlay, startButton, uploadButton, importPane);
         layout.setStyle("-fx-padding: 20; -fx-alignment: center;");
-        return new Scene(layout, 600, 400);
+        return new Scene(layout, 600, 520);
+    }
+
+    // Hands import updates to the FX thread, at most one pending runLater of each kind so
+    // a fast decoder can't flood the event queue; only the newest values get shown
+    private class ImportListener implements LevelImporter.Listener {
+        private volatile LevelImporter.Phase phase = LevelImporter.Phase.DECODE;
+        private volatile double fraction;
+        private volatile float[] shades;
+        private volatile int size;
+        private final AtomicBoolean progressPending = new AtomicBoolean();
+        private final AtomicBoolean previewPending = new AtomicBoolean();
+
+        @Override
+        public void progress(LevelImporter.Phase phase, double fraction) {
+            this.phase = phase;
+            this.fraction = fraction;
+            if (progressPending.compareAndSet(false, true)) {
+                Platform.runLater(() -> {
+                    progressPending.set(false);
+                    LevelImporter.Phase current = this.phase;
+                    double done = this.fraction;
+                    importStatus.setText(describe(current) + " " + Math.round(done * 100) + "%");
+                    importProgress.setProgress((current.ordinal() + done) / LevelImporter.Phase.values().length);
+                });
+            }
+        }
+
+        @Override
+        public void preview(float[] shades, int size) {
+            this.size = size;
+            this.shades = shades;
+            if (previewPending.compareAndSet(false, true)) {
+                Platform.runLater(() -> {
+                    previewPending.set(false);
+                    drawPreview(this.shades, this.size);
+                });
+            }
+        }
+    }
+
+    private static String describe(LevelImporter.Phase phase) {
+        switch (phase) {
+            case DECODE: return "Decoding image";
+            case SCALE: return "Scaling";
+            case THRESHOLD: return "Finding walls";
+            default: return "Checking paths";
+        }
+    }
+
+    private void drawPreview(float[] shades, int size) {
+        GraphicsContext gc = importPreview.getGraphicsContext2D();
+        double cell = PREVIEW_PIXELS / size;
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                float shade = shades[row * size + col];
+                gc.setFill(shade < 0 ? Color.LIGHTGRAY.darker() : Color.gray(shade));
+                gc.fillRect(col * cell, row * cell, cell, cell);
+            }
+        }
     }
 
     private void showAlert(String title, String message) {
@@ -0,0 +1,230 @@
+package dummyInterface;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Read-only grid over a bit-packed binary maze file (see BinaryMaze) that is too big for
+// a GridGraph. Walls are paged in as square chunks of chunkSize cells a side when first
+// touched and the least recently used chunks are dropped once they would go over the
+// memory budget. Cells are addressed by row and column, or as one long (row * cols + col)
+// since the cell count may not fit in an int. Not thread-safe.
+public class TiledGridGraph implements AutoCloseable {
+    public static final int DEFAULT_CHUNK_SIZE = 256;
+
+    private static final long WINDOW = 1L << 30; // file mapped 1 GB at a time
+    private static final int[] DIR_ROW = {-1, -1, -1, 0, 0, 1, 1, 1};
+    private static final int[] DIR_COL = {-1, 0, 1, -1, 1, -1, 0, 1};
+
+    private final int rows;
+    private final int cols;
+    private final int chunkShift;
+    private final int chunkMask;
+    private final int wordsPerChunkRow;
+    private final long chunkColumns;
+    private final int maxChunks;
+
+    private final FileChannel channel;
+    private final long payloadOffset;
+    private final long fileSize;
+    private final MappedByteBuffer[] windows;
+    private final LinkedHashMap<Long, long[]> chunks;
+
+    // The chunk touched last, checked before the map since neighbours mostly share one
+    private long lastKey = -1;
+    private long[] lastChunk;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public static TiledGridGraph open(String filename, long memoryBudgetBytes) throws IOException {
+        return open(filename, memoryBudgetBytes, DEFAULT_CHUNK_SIZE);
+    }
+
+    // chunkSize must be a power of two of at least 64
+    public static TiledGridGraph open(String filename, long memoryBudgetBytes, int chunkSize) throws IOException {
+        if (chunkSize < 64 || Integer.bitCount(chunkSize) != 1) {
+            throw new IllegalArgumentException("Chunk size must be a power of two >= 64: " + chunkSize);
+        }
+        Path path = Paths.get(filename);
+        BinaryMaze.Header header = BinaryMaze.readHeader(path);
+        if (header.encoding != BinaryMaze.BITS) {
+            throw new IOException("Tiled maps need a bit-packed maze file: " + filename);
+        }
+        if (header.payloadLength != (((long) header.rows * header.cols + 63) >>> 6) * 8) {
+            throw new IOException("Corrupt maze file: wrong payload size");
+        }
+        return new TiledGridGraph(path, header, memoryBudgetBytes, chunkSize);
+    }
+
+    private TiledGridGraph(Path path, BinaryMaze.Header header, long memoryBudgetBytes, int chunkSize) throws IOException {
+        this.rows = header.rows;
+        this.cols = header.cols;
+        this.chunkShift = Integer.numberOfTrailingZeros(chunkSize);
+        this.chunkMask = chunkSize - 1;
+        this.wordsPerChunkRow = chunkSize >>> 6;
+        this.chunkColumns = ((long) cols + chunkMask) >>> chunkShift;
+        long chunkBytes = (long) chunkSize * chunkSize / 8;
+        this.maxChunks = (int) Math.max(1, Math.min(Integer.MAX_VALUE, memoryBudgetBytes / chunkBytes));
+        this.chunks = new LinkedHashMap<Long, long[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, long[]> eldest) {
+                if (size() <= maxChunks) return false;
+                evictions++;
+                return true;
+            }
+        };
+
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.payloadOffset = header.payloadOffset;
+        this.fileSize = channel.size();
+        // Windows overlap by 8 bytes so a long read never straddles two of them
+        int count = (int) ((fileSize + WINDOW - 1) / WINDOW);
+        this.windows = new MappedByteBuffer[count];
+        for (int i = 0; i < count; i++) {
+            long start = i * WINDOW;
+            windows[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW + 8, fileSize - start));
+            windows[i].order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public long size() {
+        return (long) rows * cols;
+    }
+
+    public boolean isInBounds(int row, int col) {
+        return row >= 0 && row < rows && col >= 0 && col < cols;
+    }
+
+    public long indexOf(int row, int col) {
+        return (long) row * cols + col;
+    }
+
+    public boolean isWall(int row, int col) {
+        long[] chunk = chunk(row >>> chunkShift, col >>> chunkShift);
+        int bit = ((row & chunkMask) << chunkShift) | (col & chunkMask);
+        return (chunk[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    // Writes the open neighbours of an open cell into buffer (length >= 8), as in GridGraph
+    public int getNeighbors(long cell, long[] buffer) {
+        int row = (int) (cell / cols);
+        int col = (int) (cell - (long) row * cols);
+        if (isWall(row, col)) {
+            return 0;
+        }
+        int count = 0;
+        for (int d = 0; d < DIR_ROW.length; d++) {
+            int newRow = row + DIR_ROW[d];
+            int newCol = col + DIR_COL[d];
+            if (isInBounds(newRow, newCol) && !isWall(newRow, newCol)) {
+                buffer[count++] = cell + (long) DIR_ROW[d] * cols + DIR_COL[d];
+            }
+        }
+        return count;
+    }
+
+    public long getChunkHits() {
+        return hits;
+    }
+
+    public long getChunkMisses() {
+        return misses;
+    }
+
+    public long getChunkEvictions() {
+        return evictions;
+    }
+
+    public int getLoadedChunks() {
+        return chunks.size();
+    }
+
+    public int getMaxChunks() {
+        return maxChunks;
+    }
+
+    @Override
+    public void close() throws IOException {
+        chunks.clear();
+        lastChunk = null;
+        channel.close();
+    }
+
+    private long[] chunk(int chunkRow, int chunkCol) {
+        long key = chunkRow * chunkColumns + chunkCol;
+        if (key == lastKey) {
+            hits++;
+            return lastChunk;
+        }
+        long[] chunk = chunks.get(key);
+        if (chunk != null) {
+            hits++;
+        } else {
+            misses++;
+            chunk = load(chunkRow, chunkCol);
+            chunks.put(key, chunk);
+        }
+        lastKey = key;
+        lastChunk = chunk;
+        return chunk;
+    }
+
+    // Copies the chunk's rows out of the file; cells past the grid's edge stay open
+    private long[] load(int chunkRow, int chunkCol) {
+        int size = chunkMask + 1;
+        long[] chunk = new long[size * wordsPerChunkRow];
+        int firstRow = chunkRow << chunkShift;
+        int firstCol = chunkCol << chunkShift;
+        int height = Math.min(size, rows - firstRow);
+        int width = Math.min(size, cols - firstCol);
+        for (int r = 0; r < height; r++) {
+            long bitOffset = (long) (firstRow + r) * cols + firstCol;
+            int base = r * wordsPerChunkRow;
+            // 56 bits at a time, so a shifted 8-byte read always holds them all
+            for (int i = 0; i < width; i += 56) {
+                int count = Math.min(56, width - i);
+                long bits = readBits(bitOffset + i, count);
+                int word = base + (i >>> 6);
+                int shift = i & 63;
+                chunk[word] |= bits << shift;
+                if (shift + count > 64) {
+                    chunk[word + 1] |= bits >>> (64 - shift);
+                }
+            }
+        }
+        return chunk;
+    }
+
+    // count (<= 56) payload bits starting at bit offset, lowest first
+    private long readBits(long offset, int count) {
+        long position = payloadOffset + (offset >>> 3);
+        long value;
+        if (position + 8 <= fileSize) {
+            value = windows[(int) (position / WINDOW)].getLong((int) (position % WINDOW));
+        } else {
+            // The last few payload bytes, too close to the end of the file for a long read
+            value = 0;
+            for (int i = 0; position + i < fileSize; i++) {
+                long at = position + i;
+                value |= (long) (windows[(int) (at / WINDOW)].get((int) (at % WINDOW)) & 0xFF) << (8 * i);
+            }
+        }
+        return (value >>> (offset & 7)) & ((1L << count) - 1);
+    }
+}